@@ -12,6 +12,9 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 @Controller
 @RequestMapping("/test")
@@ -32,5 +35,21 @@ public class TestAction {
         return new ModelAndView("index", model);
     }
 
+    // 异步版本：查询在配置的Handler线程池上执行，容器线程立即返回
+    @RequestMapping("/queryAsync")
+    public CompletableFuture<ModelAndView> queryAsync(@RequestParam("name") final String name, final String address,
+                                                      Executor executor) {
+        return CompletableFuture.supplyAsync(new Supplier<ModelAndView>() {
+            @Override
+            public ModelAndView get() {
+                Map<String, Object> model = new HashMap<>();
+                model.put("name", name);
+                model.put("address", address);
+                model.put("data", testService.query(name));
+                return new ModelAndView("index", model);
+            }
+        }, executor);
+    }
+
 
 }
@@ -0,0 +1,23 @@
+package com.cclucky.spring.beans;
+
+/**
+ * Bean创建失败时抛出
+ */
+public class BeanCreationException extends RuntimeException {
+
+    private final String beanName;
+
+    public BeanCreationException(String beanName, String message) {
+        super("Error creating bean '" + beanName + "': " + message);
+        this.beanName = beanName;
+    }
+
+    public BeanCreationException(String beanName, String message, Throwable cause) {
+        super("Error creating bean '" + beanName + "': " + message, cause);
+        this.beanName = beanName;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+}
@@ -1,8 +1,14 @@
 package com.cclucky.spring.beans.config;
 
 public class BeanDefinition {
+    public static final String SCOPE_SINGLETON = "singleton";
+    public static final String SCOPE_PROTOTYPE = "prototype";
+    public static final String SCOPE_REQUEST = "request";
+
     private String factoryBeanName;
     private String beanClassName;
+    private String scope = SCOPE_SINGLETON;
+    private boolean lazyInit = false;
 
     public String getFactoryBeanName() {
         return factoryBeanName;
@@ -19,4 +25,32 @@ public class BeanDefinition {
     public void setBeanClassName(String beanClassName) {
         this.beanClassName = beanClassName;
     }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public void setScope(String scope) {
+        this.scope = scope == null || scope.trim().isEmpty() ? SCOPE_SINGLETON : scope.trim();
+    }
+
+    public boolean isSingleton() {
+        return SCOPE_SINGLETON.equals(scope);
+    }
+
+    public boolean isPrototype() {
+        return SCOPE_PROTOTYPE.equals(scope);
+    }
+
+    public boolean isRequestScoped() {
+        return SCOPE_REQUEST.equals(scope);
+    }
+
+    public boolean isLazyInit() {
+        return lazyInit;
+    }
+
+    public void setLazyInit(boolean lazyInit) {
+        this.lazyInit = lazyInit;
+    }
 }
@@ -3,12 +3,13 @@ package com.cclucky.spring.beans.support;
 import com.cclucky.spring.beans.config.BeanDefinition;
 import com.cclucky.spring.framework.annotation.Controller;
 import com.cclucky.spring.framework.annotation.Service;
+import com.cclucky.spring.framework.context.index.ComponentIndex;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
@@ -17,55 +18,103 @@ public class BeanDefinitionReader {
 
     private final Properties contextConfig = new Properties();
 
-    private final List<String> registryBeanClasses = new ArrayList<>();
+    // 扫描得到的带@Service、@Controller的类
+    private final List<ClassMetadata> scannedComponents = new ArrayList<>();
+
+    // 编译期生成的组件索引中属于扫描包的组件
+    private List<ComponentIndex.Component> indexedComponents;
+
+    // 索引或扫描只执行一次
+    private boolean componentsDiscovered;
 
     public BeanDefinitionReader(String[] configLocations) {
-        // 加载配置文件
+        // 加载配置文件，扫描推迟到doLoadBeanDefinitions，从上下文快照启动时不需要扫描
         doLoadConfig(configLocations[0]);
-
-        // 解析配置文件，将配置信息封装成BeanDefinition
-        doScanner(contextConfig.getProperty("scanPackage"));
     }
 
     // 将配置信息封装成BeanDefinition
     public List<BeanDefinition> doLoadBeanDefinitions() {
         List<BeanDefinition> result = new ArrayList<>();
-        try {
-            for (String className : registryBeanClasses) {
+        discoverComponents();
+
+        // 索引中已经记录了beanName和接口，不需要加载类
+        if (this.indexedComponents != null) {
+            for (ComponentIndex.Component component : this.indexedComponents) {
+                String className = component.getClassName();
+                result.add(doCreateBeanDefinition(component.getBeanName(), className, component.getScope(), component.isLazy()));
+                for (String i : component.getInterfaceNames()) {
+                    result.add(doCreateBeanDefinition(i, className, component.getScope(), component.isLazy()));
+                }
+            }
+            return result;
+        }
 
-                Class<?> beanClass = Class.forName(className);
+        // 扫描时已经按字节码过滤出带注解的类，这里同样不需要加载类
+        for (ClassMetadata metadata : scannedComponents) {
+            if (metadata.isInterface() || metadata.isAbstract()) continue;
 
-                if (beanClass.isInterface()) continue;
+            String annotationType = metadata.hasAnnotation(Service.class.getName()) ? Service.class.getName() : Controller.class.getName();
+            String scope = (String) metadata.getAnnotationValue(annotationType, "scope");
+            boolean lazy = Boolean.TRUE.equals(metadata.getAnnotationValue(annotationType, "lazy"));
 
-                if (!(beanClass.isAnnotationPresent(Service.class) || beanClass.isAnnotationPresent(Controller.class))) {
-                    continue;
-                }
+            // 默认用类名首字母小写作为beanName
+            result.add(doCreateBeanDefinition(ComponentIndex.defaultBeanName(metadata.getSimpleName()), metadata.getClassName(), scope, lazy));
 
-                // 默认用类名首字母小写作为beanName
-                result.add(doCreateBeanDefinition(toLowerFirstCase(beanClass.getSimpleName()), beanClass.getName()));
+            // 接口的全民给作为beanName
+            for (String i : metadata.getInterfaceNames()) {
+                result.add(doCreateBeanDefinition(i, metadata.getClassName(), scope, lazy));
+            }
+        }
+        return result;
+    }
 
-                // 接口的全民给作为beanName
-                for (Class<?> i : beanClass.getInterfaces()) {
-                    result.add(doCreateBeanDefinition(i.getName(), beanClass.getName()));
-                }
+    // 有组件索引时直接读取索引，否则扫描目录
+    private void discoverComponents() {
+        if (this.componentsDiscovered) return;
+        this.componentsDiscovered = true;
+        String scanPackage = contextConfig.getProperty("scanPackage");
+        this.indexedComponents = doLoadComponentIndex(scanPackage);
+        if (this.indexedComponents == null) {
+            // 解析配置文件，将配置信息封装成BeanDefinition
+            doScanner(scanPackage);
+        }
+    }
 
+    /**
+     * 扫描包中会注册为Bean的组件类名（来自索引或扫描结果），按类名排序
+     * 上下文快照用它判断组件是否有增减
+     */
+    public List<String> getCandidateComponents() {
+        discoverComponents();
+        List<String> result = new ArrayList<>();
+        if (this.indexedComponents != null) {
+            for (ComponentIndex.Component component : this.indexedComponents) {
+                result.add(component.getClassName());
+            }
+        } else {
+            for (ClassMetadata metadata : scannedComponents) {
+                if (metadata.isInterface() || metadata.isAbstract()) continue;
+                result.add(metadata.getClassName());
             }
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
         }
         return result;
     }
 
-    private String toLowerFirstCase(String simpleName) {
-        char[] chars = simpleName.toCharArray();
-        chars[0] += 32;
-        return String.valueOf(chars);
+    /**
+     * 扫描包下类文件和组件索引的摘要，只读取文件属性和索引内容，不解析类文件
+     */
+    public long getClasspathFingerprint() throws IOException {
+        ClassLoader classLoader = this.getClass().getClassLoader();
+        ClassPathScanner scanner = new ClassPathScanner(classLoader, Collections.<String>emptyList(), 1);
+        return scanner.fingerprint(contextConfig.getProperty("scanPackage")) * 31 + ComponentIndex.checksum(classLoader);
     }
 
-    private BeanDefinition doCreateBeanDefinition(String factoryBeanName, String beanClassName) {
+    private BeanDefinition doCreateBeanDefinition(String factoryBeanName, String beanClassName, String scope, boolean lazy) {
         BeanDefinition beanDefinition = new BeanDefinition();
         beanDefinition.setFactoryBeanName(factoryBeanName);
         beanDefinition.setBeanClassName(beanClassName);
+        beanDefinition.setScope(scope);
+        beanDefinition.setLazyInit(lazy);
         return beanDefinition;
     }
 
@@ -88,20 +137,35 @@ public class BeanDefinitionReader {
         }
     }
 
-    private void doScanner(String scanPackage) {
-        ClassLoader classLoader = this.getClass().getClassLoader();
-        URL url = classLoader.getResource("/" + scanPackage.replaceAll("\\.", "/"));
-        File classPath = new File(Objects.requireNonNull(url).getFile());
-
-        for (File file : Objects.requireNonNull(classPath.listFiles())) {
-            // 如果是子目录就递归
-            if (file.isDirectory()) {
-                doScanner(scanPackage + "." + file.getName());
-            } else {
-                if (!file.getName().endsWith(".class")) continue;
-                String className = scanPackage + "." + file.getName().replaceAll(".class", "");
-                registryBeanClasses.add(className);
+    // componentIndex=false 时忽略索引，总是扫描目录；索引和类文件不一致时同样扫描目录
+    private List<ComponentIndex.Component> doLoadComponentIndex(String scanPackage) {
+        if ("false".equalsIgnoreCase(contextConfig.getProperty("componentIndex", "true").trim())) return null;
+        try {
+            ClassLoader classLoader = this.getClass().getClassLoader();
+            ComponentIndex index = ComponentIndex.load(classLoader);
+            if (index == null) return null;
+            ClassPathScanner scanner = new ClassPathScanner(classLoader, Collections.<String>emptyList(), 1);
+            if (!index.isUpToDate(scanPackage, scanner.getClassNames(scanPackage))) {
+                System.out.println("Component index is out of date, scanning " + scanPackage);
+                return null;
             }
+            return index.getComponents(scanPackage);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // 直接解析类文件上的注解，只有组件类会在创建Bean时被加载
+    private void doScanner(String scanPackage) {
+        int parallelism = Integer.parseInt(contextConfig.getProperty("scanParallelism",
+                String.valueOf(Runtime.getRuntime().availableProcessors())).trim());
+        ClassPathScanner scanner = new ClassPathScanner(this.getClass().getClassLoader(),
+                Arrays.asList(Service.class.getName(), Controller.class.getName()), parallelism);
+        try {
+            scannedComponents.addAll(scanner.scan(scanPackage));
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 
@@ -0,0 +1,92 @@
+package com.cclucky.spring.beans.support;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Bean之间的依赖图，节点为Bean的类名，边从使用方指向被注入方
+ * 按强连通分量拆分：每个分量是一组互相依赖的Bean（单个Bean或循环依赖），分量之间构成有向无环图
+ * 节点和边都按名称排序后遍历，同样的输入总是得到同样的顺序，便于稳定地报告循环依赖
+ */
+public class BeanDependencyGraph {
+
+    private final Map<String, Set<String>> dependencies = new TreeMap<>();
+
+    public void addNode(String node) {
+        if (!this.dependencies.containsKey(node)) {
+            this.dependencies.put(node, new TreeSet<String>());
+        }
+    }
+
+    public void addDependency(String node, String dependency) {
+        addNode(node);
+        addNode(dependency);
+        if (!node.equals(dependency)) {
+            this.dependencies.get(node).add(dependency);
+        }
+    }
+
+    public Set<String> getDependencies(String node) {
+        Set<String> result = this.dependencies.get(node);
+        return result == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Tarjan算法求强连通分量，返回顺序保证被依赖的分量在前
+     */
+    public List<List<String>> getComponents() {
+        Tarjan tarjan = new Tarjan();
+        for (String node : this.dependencies.keySet()) {
+            if (!tarjan.index.containsKey(node)) {
+                tarjan.visit(node);
+            }
+        }
+        return tarjan.components;
+    }
+
+    private class Tarjan {
+        private final Map<String, Integer> index = new HashMap<>();
+        private final Map<String, Integer> lowLink = new HashMap<>();
+        private final Deque<String> stack = new ArrayDeque<>();
+        private final Set<String> onStack = new TreeSet<>();
+        private final List<List<String>> components = new ArrayList<>();
+        private int counter = 0;
+
+        private void visit(String node) {
+            index.put(node, counter);
+            lowLink.put(node, counter);
+            counter++;
+            stack.push(node);
+            onStack.add(node);
+
+            for (String dependency : dependencies.get(node)) {
+                if (!index.containsKey(dependency)) {
+                    visit(dependency);
+                    lowLink.put(node, Math.min(lowLink.get(node), lowLink.get(dependency)));
+                } else if (onStack.contains(dependency)) {
+                    lowLink.put(node, Math.min(lowLink.get(node), index.get(dependency)));
+                }
+            }
+
+            if (lowLink.get(node).equals(index.get(node))) {
+                List<String> component = new ArrayList<>();
+                String member;
+                do {
+                    member = stack.pop();
+                    onStack.remove(member);
+                    component.add(member);
+                } while (!member.equals(node));
+                Collections.sort(component);
+                components.add(component);
+            }
+        }
+    }
+}
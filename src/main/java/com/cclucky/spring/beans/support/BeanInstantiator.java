@@ -0,0 +1,98 @@
+package com.cclucky.spring.beans.support;
+
+import com.cclucky.spring.beans.BeanCreationException;
+import com.cclucky.spring.framework.annotation.Autowired;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+
+/**
+ * 一个类的实例化方式：选定的构造器及其参数对应的beanName
+ * 构造器在解析时适配成 (Object[])Object 的MethodHandle，之后每次创建只需invokeExact
+ */
+public class BeanInstantiator {
+
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(Object.class, Object[].class);
+    private static final String[] NO_BEAN_NAMES = new String[0];
+
+    private final Constructor<?> constructor;
+    private final String[] parameterBeanNames;
+    private final MethodHandle factory;
+
+    private BeanInstantiator(Constructor<?> constructor) throws IllegalAccessException {
+        this.constructor = constructor;
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        if (parameterTypes.length == 0) {
+            this.parameterBeanNames = NO_BEAN_NAMES;
+        } else {
+            // 构造器参数按类型的全名查找Bean，只有一个参数时可以用@Autowired指定beanName
+            this.parameterBeanNames = new String[parameterTypes.length];
+            Autowired autowired = constructor.getAnnotation(Autowired.class);
+            for (int i = 0; i < parameterTypes.length; i++) {
+                this.parameterBeanNames[i] = parameterTypes[i].getName();
+            }
+            if (autowired != null && parameterTypes.length == 1 && !autowired.value().trim().isEmpty()) {
+                this.parameterBeanNames[0] = autowired.value().trim();
+            }
+        }
+
+        constructor.setAccessible(true);
+        this.factory = MethodHandles.lookup().unreflectConstructor(constructor)
+                .asSpreader(Object[].class, parameterTypes.length)
+                .asType(FACTORY_TYPE);
+    }
+
+    /**
+     * 选择构造器：标注了@Autowired的构造器优先，其次是无参构造器，只有一个构造器时直接使用它
+     */
+    public static BeanInstantiator forClass(Class<?> clazz) {
+        Constructor<?>[] constructors = clazz.getDeclaredConstructors();
+        Constructor<?> candidate = null;
+        Constructor<?> defaultConstructor = null;
+        for (Constructor<?> constructor : constructors) {
+            if (constructor.isAnnotationPresent(Autowired.class)) {
+                if (candidate != null) {
+                    throw new BeanCreationException(clazz.getName(), "Multiple @Autowired constructors: " + candidate + ", " + constructor);
+                }
+                candidate = constructor;
+            } else if (constructor.getParameterTypes().length == 0) {
+                defaultConstructor = constructor;
+            }
+        }
+        if (candidate == null) candidate = defaultConstructor;
+        if (candidate == null && constructors.length == 1) candidate = constructors[0];
+        if (candidate == null) {
+            throw new BeanCreationException(clazz.getName(), "No default constructor found and no constructor is marked @Autowired");
+        }
+
+        try {
+            return new BeanInstantiator(candidate);
+        } catch (IllegalAccessException e) {
+            throw new BeanCreationException(clazz.getName(), e.getMessage(), e);
+        }
+    }
+
+    // 使用已经选定的构造器，用于从上下文快照恢复
+    public static BeanInstantiator forConstructor(Constructor<?> constructor) {
+        try {
+            return new BeanInstantiator(constructor);
+        } catch (IllegalAccessException e) {
+            throw new BeanCreationException(constructor.getDeclaringClass().getName(), e.getMessage(), e);
+        }
+    }
+
+    public Constructor<?> getConstructor() {
+        return constructor;
+    }
+
+    // 构造器参数需要注入的Bean
+    public String[] getParameterBeanNames() {
+        return parameterBeanNames;
+    }
+
+    public Object instantiate(Object[] args) throws Throwable {
+        return (Object) this.factory.invokeExact(args);
+    }
+}
@@ -0,0 +1,253 @@
+package com.cclucky.spring.beans.support;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 直接从.class文件读取的类信息：类名、父类、接口和类上运行时可见的注解
+ * 只解析字节码，不加载类，也就不会执行静态初始化
+ */
+public class ClassMetadata {
+
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+    private static final int ACC_ANNOTATION = 0x2000;
+
+    private final String className;
+    private final String superClassName;
+    private final String[] interfaceNames;
+    private final int access;
+    // 注解类名 -> 属性名 -> 值，只记录字符串、基本类型、枚举名、类描述符以及它们的数组
+    private final Map<String, Map<String, Object>> annotations;
+
+    private ClassMetadata(String className, String superClassName, String[] interfaceNames, int access,
+                          Map<String, Map<String, Object>> annotations) {
+        this.className = className;
+        this.superClassName = superClassName;
+        this.interfaceNames = interfaceNames;
+        this.access = access;
+        this.annotations = annotations;
+    }
+
+    /**
+     * 解析类文件，annotationTypes 不为空时只保留标注了其中任意一个注解的类，否则返回null
+     * 常量池里没有这些注解的描述符时，不再解析常量池之后的内容
+     */
+    public static ClassMetadata read(InputStream in, Collection<String> annotationTypes) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != 0xCAFEBABE) throw new IOException("Not a class file");
+        data.readUnsignedShort();
+        data.readUnsignedShort();
+
+        // 常量池，只保留Utf8和Class两种常量以及注解属性可能引用的数值常量
+        int count = data.readUnsignedShort();
+        Object[] pool = new Object[count];
+        int[] classNameIndexes = new int[count];
+        boolean candidate = annotationTypes == null || annotationTypes.isEmpty();
+        for (int i = 1; i < count; i++) {
+            int tag = data.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    String utf8 = data.readUTF();
+                    pool[i] = utf8;
+                    if (!candidate && isAnnotationDescriptor(utf8, annotationTypes)) candidate = true;
+                    break;
+                case 3:
+                    pool[i] = data.readInt();
+                    break;
+                case 4:
+                    pool[i] = data.readFloat();
+                    break;
+                case 5:
+                    pool[i] = data.readLong();
+                    i++;
+                    break;
+                case 6:
+                    pool[i] = data.readDouble();
+                    i++;
+                    break;
+                case 7:
+                    classNameIndexes[i] = data.readUnsignedShort();
+                    break;
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    data.skipBytes(2);
+                    break;
+                case 15:
+                    data.skipBytes(3);
+                    break;
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    data.skipBytes(4);
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        if (!candidate) return null;
+
+        int access = data.readUnsignedShort();
+        String className = toClassName((String) pool[classNameIndexes[data.readUnsignedShort()]]);
+        int superIndex = data.readUnsignedShort();
+        String superClassName = superIndex == 0 ? null : toClassName((String) pool[classNameIndexes[superIndex]]);
+        String[] interfaceNames = new String[data.readUnsignedShort()];
+        for (int i = 0; i < interfaceNames.length; i++) {
+            interfaceNames[i] = toClassName((String) pool[classNameIndexes[data.readUnsignedShort()]]);
+        }
+
+        // 跳过字段和方法
+        for (int member = 0; member < 2; member++) {
+            int memberCount = data.readUnsignedShort();
+            for (int i = 0; i < memberCount; i++) {
+                data.skipBytes(6);
+                skipAttributes(data);
+            }
+        }
+
+        // 类的属性，只解析RuntimeVisibleAnnotations
+        Map<String, Map<String, Object>> annotations = Collections.emptyMap();
+        int attributeCount = data.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            String name = (String) pool[data.readUnsignedShort()];
+            int length = data.readInt();
+            if ("RuntimeVisibleAnnotations".equals(name)) {
+                annotations = new HashMap<>();
+                int annotationCount = data.readUnsignedShort();
+                for (int j = 0; j < annotationCount; j++) {
+                    String type = toClassName((String) pool[data.readUnsignedShort()]);
+                    annotations.put(type, readAnnotationValues(data, pool));
+                }
+            } else {
+                data.skipBytes(length);
+            }
+        }
+
+        if (annotationTypes != null && !annotationTypes.isEmpty()) {
+            boolean annotated = false;
+            for (String annotationType : annotationTypes) {
+                if (annotations.containsKey(annotationType)) {
+                    annotated = true;
+                    break;
+                }
+            }
+            if (!annotated) return null;
+        }
+        return new ClassMetadata(className, superClassName, interfaceNames, access, annotations);
+    }
+
+    private static void skipAttributes(DataInputStream data) throws IOException {
+        int attributeCount = data.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            data.skipBytes(2);
+            data.skipBytes(data.readInt());
+        }
+    }
+
+    private static Map<String, Object> readAnnotationValues(DataInputStream data, Object[] pool) throws IOException {
+        int pairCount = data.readUnsignedShort();
+        if (pairCount == 0) return Collections.emptyMap();
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < pairCount; i++) {
+            String name = (String) pool[data.readUnsignedShort()];
+            values.put(name, readElementValue(data, pool));
+        }
+        return values;
+    }
+
+    private static Object readElementValue(DataInputStream data, Object[] pool) throws IOException {
+        int tag = data.readUnsignedByte();
+        switch (tag) {
+            case 'Z':
+                return ((Integer) pool[data.readUnsignedShort()]) != 0;
+            case 'B':
+            case 'C':
+            case 'D':
+            case 'F':
+            case 'I':
+            case 'J':
+            case 'S':
+            case 's':
+            case 'c':
+                return pool[data.readUnsignedShort()];
+            case 'e':
+                data.skipBytes(2);
+                return pool[data.readUnsignedShort()];
+            case '@':
+                data.skipBytes(2);
+                readAnnotationValues(data, pool);
+                return null;
+            case '[':
+                int length = data.readUnsignedShort();
+                List<Object> values = new ArrayList<>(length);
+                for (int i = 0; i < length; i++) {
+                    values.add(readElementValue(data, pool));
+                }
+                return values;
+            default:
+                throw new IOException("Unknown annotation element tag " + (char) tag);
+        }
+    }
+
+    // Lcom/cclucky/Service; 形式的描述符
+    private static boolean isAnnotationDescriptor(String utf8, Collection<String> annotationTypes) {
+        if (utf8.length() < 3 || utf8.charAt(0) != 'L' || utf8.charAt(utf8.length() - 1) != ';') return false;
+        return annotationTypes.contains(toClassName(utf8));
+    }
+
+    // 内部名 com/cclucky/Service 或描述符 Lcom/cclucky/Service; 转换为类名
+    private static String toClassName(String internalName) {
+        if (internalName.charAt(0) == 'L' && internalName.charAt(internalName.length() - 1) == ';') {
+            internalName = internalName.substring(1, internalName.length() - 1);
+        }
+        return internalName.replace('/', '.');
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    // 去掉包名和外部类名
+    public String getSimpleName() {
+        int start = Math.max(className.lastIndexOf('.'), className.lastIndexOf('$'));
+        return className.substring(start + 1);
+    }
+
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    public String[] getInterfaceNames() {
+        return interfaceNames.clone();
+    }
+
+    public boolean isInterface() {
+        return (access & (ACC_INTERFACE | ACC_ANNOTATION)) != 0;
+    }
+
+    public boolean isAbstract() {
+        return (access & ACC_ABSTRACT) != 0;
+    }
+
+    public boolean hasAnnotation(String annotationType) {
+        return annotations.containsKey(annotationType);
+    }
+
+    // 注解上显式设置的属性值，未设置或不存在时返回null
+    public Object getAnnotationValue(String annotationType, String name) {
+        Map<String, Object> values = annotations.get(annotationType);
+        return values == null ? null : values.get(name);
+    }
+}
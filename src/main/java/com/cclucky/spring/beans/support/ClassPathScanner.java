@@ -0,0 +1,246 @@
+package com.cclucky.spring.beans.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+
+/**
+ * 按包扫描classpath上的类文件（目录和jar都支持），直接解析字节码找出带指定注解的类
+ * 扫描过程不加载任何类；类文件较多时按文件并行解析
+ */
+public class ClassPathScanner {
+
+    // 类文件少于这个数量时不值得开线程
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private final ClassLoader classLoader;
+    private final Collection<String> annotationTypes;
+    private final int parallelism;
+
+    public ClassPathScanner(ClassLoader classLoader, Collection<String> annotationTypes, int parallelism) {
+        this.classLoader = classLoader;
+        this.annotationTypes = annotationTypes;
+        this.parallelism = parallelism;
+    }
+
+    // 返回按类名排序的候选类，每次扫描结果的顺序一致
+    public List<ClassMetadata> scan(String basePackage) throws IOException {
+        List<ClassFile> classFiles = new ArrayList<>();
+        List<JarFile> jarFiles = new ArrayList<>();
+        try {
+            collect(basePackage, classFiles, jarFiles);
+            return read(classFiles);
+        } finally {
+            for (JarFile jarFile : jarFiles) {
+                jarFile.close();
+            }
+        }
+    }
+
+    /**
+     * 包下所有类文件的名称、大小和修改时间（jar中为CRC）的摘要，不读取文件内容
+     * 增加、删除或重新编译类文件后摘要都会变化
+     */
+    public long fingerprint(String basePackage) throws IOException {
+        List<ClassFile> classFiles = new ArrayList<>();
+        List<JarFile> jarFiles = new ArrayList<>();
+        try {
+            collect(basePackage, classFiles, jarFiles);
+        } finally {
+            for (JarFile jarFile : jarFiles) {
+                jarFile.close();
+            }
+        }
+        Collections.sort(classFiles, new Comparator<ClassFile>() {
+            @Override
+            public int compare(ClassFile o1, ClassFile o2) {
+                return o1.name.compareTo(o2.name);
+            }
+        });
+        CRC32 crc = new CRC32();
+        for (ClassFile classFile : classFiles) {
+            crc.update((classFile.name + ':' + classFile.size + ':' + classFile.stamp + '\n').getBytes(StandardCharsets.UTF_8));
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * 包下所有顶层类的类名，只列出类文件，不读取内容
+     */
+    public List<String> getClassNames(String basePackage) throws IOException {
+        List<ClassFile> classFiles = new ArrayList<>();
+        List<JarFile> jarFiles = new ArrayList<>();
+        try {
+            collect(basePackage, classFiles, jarFiles);
+        } finally {
+            for (JarFile jarFile : jarFiles) {
+                jarFile.close();
+            }
+        }
+        List<String> result = new ArrayList<>();
+        for (ClassFile classFile : classFiles) {
+            String name = classFile.name.substring(0, classFile.name.length() - ".class".length());
+            // 内部类、匿名类和package-info不是单独编译的类型
+            if (name.indexOf('$') != -1 || name.endsWith("/package-info")) continue;
+            result.add(name.replace('/', '.'));
+        }
+        return result;
+    }
+
+    private void collect(String basePackage, List<ClassFile> classFiles, List<JarFile> jarFiles) throws IOException {
+        String path = basePackage.replace('.', '/');
+        Enumeration<URL> urls = this.classLoader.getResources(path);
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            if ("jar".equals(url.getProtocol())) {
+                URLConnection connection = url.openConnection();
+                connection.setUseCaches(false);
+                JarFile jarFile = ((JarURLConnection) connection).getJarFile();
+                jarFiles.add(jarFile);
+                collectJarEntries(jarFile, path + "/", classFiles);
+            } else {
+                collectFiles(new File(URLDecoder.decode(url.getFile(), "UTF-8")), path, classFiles);
+            }
+        }
+    }
+
+    private List<ClassMetadata> read(List<ClassFile> classFiles) throws IOException {
+        List<ClassMetadata> result = new ArrayList<>();
+        if (this.parallelism <= 1 || classFiles.size() < PARALLEL_THRESHOLD) {
+            for (ClassFile classFile : classFiles) {
+                ClassMetadata metadata = classFile.read(this.annotationTypes);
+                if (metadata != null) result.add(metadata);
+            }
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(this.parallelism);
+            try {
+                // 按线程数分批，避免每个文件一个任务
+                List<Future<List<ClassMetadata>>> futures = new ArrayList<>();
+                int batchSize = (classFiles.size() + this.parallelism - 1) / this.parallelism;
+                for (int from = 0; from < classFiles.size(); from += batchSize) {
+                    final List<ClassFile> batch = classFiles.subList(from, Math.min(from + batchSize, classFiles.size()));
+                    futures.add(executor.submit(new Callable<List<ClassMetadata>>() {
+                        @Override
+                        public List<ClassMetadata> call() throws IOException {
+                            List<ClassMetadata> matched = new ArrayList<>();
+                            for (ClassFile classFile : batch) {
+                                ClassMetadata metadata = classFile.read(annotationTypes);
+                                if (metadata != null) matched.add(metadata);
+                            }
+                            return matched;
+                        }
+                    }));
+                }
+                for (Future<List<ClassMetadata>> future : futures) {
+                    result.addAll(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Class path scanning interrupted", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        Collections.sort(result, new Comparator<ClassMetadata>() {
+            @Override
+            public int compare(ClassMetadata o1, ClassMetadata o2) {
+                return o1.getClassName().compareTo(o2.getClassName());
+            }
+        });
+        return result;
+    }
+
+    private void collectFiles(File dir, String path, List<ClassFile> classFiles) {
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        for (final File file : files) {
+            // 如果是子目录就递归
+            if (file.isDirectory()) {
+                collectFiles(file, path + "/" + file.getName(), classFiles);
+            } else if (file.getName().endsWith(".class")) {
+                classFiles.add(new ClassFile(file.getPath(), path + "/" + file.getName(), file.length(), file.lastModified()) {
+                    @Override
+                    InputStream open() throws IOException {
+                        return new FileInputStream(file);
+                    }
+                });
+            }
+        }
+    }
+
+    private void collectJarEntries(final JarFile jarFile, String prefix, List<ClassFile> classFiles) {
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+            final JarEntry entry = entries.nextElement();
+            if (entry.isDirectory() || !entry.getName().startsWith(prefix) || !entry.getName().endsWith(".class")) continue;
+            classFiles.add(new ClassFile(jarFile.getName() + "!/" + entry.getName(), entry.getName(), entry.getSize(), entry.getCrc()) {
+                @Override
+                InputStream open() throws IOException {
+                    return jarFile.getInputStream(entry);
+                }
+            });
+        }
+    }
+
+    private abstract static class ClassFile {
+        private final String location;
+        // 相对classpath根的资源名
+        private final String name;
+        private final long size;
+        private final long stamp;
+
+        ClassFile(String location, String name, long size, long stamp) {
+            this.location = location;
+            this.name = name;
+            this.size = size;
+            this.stamp = stamp;
+        }
+
+        abstract InputStream open() throws IOException;
+
+        ClassMetadata read(Collection<String> annotationTypes) throws IOException {
+            // 一次读入内存再解析，跳过属性时不依赖底层流的skip实现
+            InputStream in = open();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+            try {
+                byte[] buffer = new byte[4096];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    bytes.write(buffer, 0, n);
+                }
+            } finally {
+                in.close();
+            }
+            try {
+                return ClassMetadata.read(new ByteArrayInputStream(bytes.toByteArray()), annotationTypes);
+            } catch (IOException e) {
+                throw new IOException("Failed to read class file " + this.location, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.cclucky.spring.beans.support;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 类名与Class之间的转换，支持基本类型和数组（Class.getName()的格式）
+ */
+public abstract class ClassUtils {
+
+    private static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<>();
+
+    static {
+        for (Class<?> type : new Class<?>[]{boolean.class, byte.class, char.class, short.class, int.class,
+                long.class, float.class, double.class, void.class}) {
+            PRIMITIVE_TYPES.put(type.getName(), type);
+        }
+    }
+
+    public static Class<?> forName(String name, ClassLoader classLoader) throws ClassNotFoundException {
+        Class<?> primitive = PRIMITIVE_TYPES.get(name);
+        if (primitive != null) return primitive;
+        return Class.forName(name, false, classLoader);
+    }
+
+    public static Class<?>[] forNames(String[] names, ClassLoader classLoader) throws ClassNotFoundException {
+        Class<?>[] types = new Class<?>[names.length];
+        for (int i = 0; i < names.length; i++) {
+            types[i] = forName(names[i], classLoader);
+        }
+        return types;
+    }
+
+    public static String[] getNames(Class<?>[] types) {
+        String[] names = new String[types.length];
+        for (int i = 0; i < types.length; i++) {
+            names[i] = types[i].getName();
+        }
+        return names;
+    }
+}
@@ -0,0 +1,188 @@
+package com.cclucky.spring.beans.support;
+
+import com.cclucky.spring.framework.annotation.Autowired;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一个类的全部注入点：@Autowired字段（包括父类的）和@Autowired的setter方法
+ * 每个类只解析一次，之后每次创建实例只需按顺序遍历数组
+ */
+public class InjectionMetadata {
+
+    private final Class<?> targetClass;
+    private final InjectedElement[] elements;
+
+    private InjectionMetadata(Class<?> targetClass, InjectedElement[] elements) {
+        this.targetClass = targetClass;
+        this.elements = elements;
+    }
+
+    // 父类的注入点在前；被子类覆盖的setter只注入一次
+    public static InjectionMetadata forClass(Class<?> clazz) {
+        List<List<InjectedElement>> hierarchy = new ArrayList<>();
+        // 签名 -> 子类中已经出现过的非private方法
+        Map<String, List<Method>> seenMethods = new HashMap<>();
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            List<InjectedElement> elements = new ArrayList<>();
+            for (Field field : current.getDeclaredFields()) {
+                if (!field.isAnnotationPresent(Autowired.class) || Modifier.isStatic(field.getModifiers())) continue;
+                field.setAccessible(true);
+                elements.add(new FieldElement(field, resolveBeanName(field.getAnnotation(Autowired.class), field.getType())));
+            }
+            for (Method method : current.getDeclaredMethods()) {
+                if (Modifier.isStatic(method.getModifiers()) || method.isBridge()) continue;
+                if (isOverridden(method, seenMethods)) continue;
+                // private方法不会覆盖父类的方法，也不会被子类覆盖，不记录签名
+                if (!Modifier.isPrivate(method.getModifiers())) {
+                    String signature = method.getName() + Arrays.toString(method.getParameterTypes());
+                    if (!seenMethods.containsKey(signature)) seenMethods.put(signature, new ArrayList<Method>());
+                    seenMethods.get(signature).add(method);
+                }
+                if (!method.isAnnotationPresent(Autowired.class) || method.getParameterTypes().length != 1) continue;
+                method.setAccessible(true);
+                elements.add(new MethodElement(method, resolveBeanName(method.getAnnotation(Autowired.class), method.getParameterTypes()[0])));
+            }
+            hierarchy.add(0, elements);
+        }
+
+        List<InjectedElement> result = new ArrayList<>();
+        for (List<InjectedElement> elements : hierarchy) {
+            result.addAll(elements);
+        }
+        return new InjectionMetadata(clazz, result.toArray(new InjectedElement[0]));
+    }
+
+    // 子类中已经出现过的同签名方法视为覆盖；包级别的方法只被同一个包中的子类覆盖
+    private static boolean isOverridden(Method method, Map<String, List<Method>> seenMethods) {
+        int modifiers = method.getModifiers();
+        if (Modifier.isPrivate(modifiers)) return false;
+        List<Method> overriders = seenMethods.get(method.getName() + Arrays.toString(method.getParameterTypes()));
+        if (overriders == null) return false;
+        if (Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers)) return true;
+        String packageName = packageName(method.getDeclaringClass());
+        for (Method overrider : overriders) {
+            if (packageName.equals(packageName(overrider.getDeclaringClass()))) return true;
+        }
+        return false;
+    }
+
+    private static String packageName(Class<?> clazz) {
+        String name = clazz.getName();
+        int lastDot = name.lastIndexOf('.');
+        return lastDot == -1 ? "" : name.substring(0, lastDot);
+    }
+
+    // 由已经解析好的注入点直接构建，用于从上下文快照恢复
+    public static InjectionMetadata of(Class<?> clazz, List<InjectedElement> elements) {
+        return new InjectionMetadata(clazz, elements.toArray(new InjectedElement[0]));
+    }
+
+    public static InjectedElement forField(Field field, String beanName) {
+        field.setAccessible(true);
+        return new FieldElement(field, beanName);
+    }
+
+    public static InjectedElement forMethod(Method method, String beanName) {
+        method.setAccessible(true);
+        return new MethodElement(method, beanName);
+    }
+
+    // 没有指定beanName时按类型的全名查找
+    private static String resolveBeanName(Autowired autowired, Class<?> type) {
+        String beanName = autowired.value().trim();
+        return beanName.isEmpty() ? type.getName() : beanName;
+    }
+
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    public InjectedElement[] getElements() {
+        return elements;
+    }
+
+    public abstract static class InjectedElement {
+        private final String beanName;
+
+        InjectedElement(String beanName) {
+            this.beanName = beanName;
+        }
+
+        // 需要注入的Bean
+        public String getBeanName() {
+            return beanName;
+        }
+
+        // 注入的字段或setter方法
+        public abstract Member getMember();
+
+        // 用于错误信息，如 field demoService、method setDemoService
+        public abstract String getDescription();
+
+        public abstract void inject(Object target, Object value) throws Exception;
+    }
+
+    private static class FieldElement extends InjectedElement {
+        private final Field field;
+
+        FieldElement(Field field, String beanName) {
+            super(beanName);
+            this.field = field;
+        }
+
+        @Override
+        public Member getMember() {
+            return field;
+        }
+
+        @Override
+        public String getDescription() {
+            return "field " + field.getName();
+        }
+
+        @Override
+        public void inject(Object target, Object value) throws IllegalAccessException {
+            field.set(target, value);
+        }
+    }
+
+    private static class MethodElement extends InjectedElement {
+        private final Method method;
+
+        MethodElement(Method method, String beanName) {
+            super(beanName);
+            this.method = method;
+        }
+
+        @Override
+        public Member getMember() {
+            return method;
+        }
+
+        @Override
+        public String getDescription() {
+            return "method " + method.getName();
+        }
+
+        @Override
+        public void inject(Object target, Object value) throws Exception {
+            try {
+                method.invoke(target, value);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getTargetException();
+                if (cause instanceof Exception) throw (Exception) cause;
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.cclucky.spring.beans.support;
+
+import com.cclucky.spring.beans.BeanCreationException;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 线程安全的单例注册表
+ * 已创建完成的单例只需一次ConcurrentHashMap读取
+ * 按beanName加锁，不同Bean可以同时创建；创建中的Bean记录创建它的线程，等待其他线程持有的锁之前沿“线程等待的Bean-创建该Bean的线程”检查，
+ * 等待链回到当前线程说明两个线程从循环依赖的两端开始创建，此时与单线程的循环依赖一样返回提前暴露的引用，不再等待
+ * 创建中的Bean可以提前暴露引用，用于解决字段注入的循环依赖
+ */
+public class SingletonBeanRegistry {
+
+    // 一级缓存：创建完成的单例
+    private final Map<String, Object> singletonObjects = new ConcurrentHashMap<>();
+    // 二级缓存：提前暴露的引用
+    private final Map<String, Object> earlySingletonObjects = new ConcurrentHashMap<>();
+    // 三级缓存：生成提前暴露引用的工厂
+    private final Map<String, SingletonFactory> singletonFactories = new ConcurrentHashMap<>();
+
+    // 创建中的Bean和创建它的线程
+    private final Map<String, Thread> singletonsInCreation = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> creationLocks = new ConcurrentHashMap<>();
+    // 正在等待创建锁的线程和它等待的Bean，检查和登记都在它的监视器内进行
+    private final Map<Thread, String> waitingThreads = new HashMap<>();
+
+    public interface SingletonFactory {
+        Object getObject() throws Exception;
+    }
+
+    public Object getSingleton(String beanName) {
+        return this.singletonObjects.get(beanName);
+    }
+
+    // 取单例，不存在时在锁内创建；同一线程内或跨线程的循环依赖返回提前暴露的引用
+    public Object getSingleton(String beanName, SingletonFactory singletonFactory) {
+        Object singleton = this.singletonObjects.get(beanName);
+        if (singleton != null) return singleton;
+
+        ReentrantLock lock = lockFor(beanName);
+        if (!lock.tryLock()) {
+            Thread current = Thread.currentThread();
+            synchronized (this.waitingThreads) {
+                if (isWaitingFor(current, beanName)) {
+                    // 持有锁的线程直接或间接地在等待当前线程，等待下去就会死锁
+                    return getEarlySingleton(beanName);
+                }
+                this.waitingThreads.put(current, beanName);
+            }
+            try {
+                lock.lock();
+            } finally {
+                synchronized (this.waitingThreads) {
+                    this.waitingThreads.remove(current);
+                }
+            }
+        }
+        try {
+            singleton = this.singletonObjects.get(beanName);
+            if (singleton != null) return singleton;
+
+            if (this.singletonsInCreation.containsKey(beanName)) {
+                // 锁可重入，能走到这里说明是当前线程创建过程中的循环依赖
+                return getEarlySingleton(beanName);
+            }
+
+            this.singletonsInCreation.put(beanName, Thread.currentThread());
+            try {
+                singleton = singletonFactory.getObject();
+                if (singleton == null) {
+                    throw new BeanCreationException(beanName, "factory returned null");
+                }
+                this.singletonObjects.put(beanName, singleton);
+                return singleton;
+            } catch (BeanCreationException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new BeanCreationException(beanName, e.getMessage(), e);
+            } finally {
+                this.singletonsInCreation.remove(beanName);
+                this.earlySingletonObjects.remove(beanName);
+                this.singletonFactories.remove(beanName);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 从创建beanName的线程开始，沿它等待的Bean找到下一个创建线程，回到current说明存在等待环；调用方持有waitingThreads的监视器
+    private boolean isWaitingFor(Thread current, String beanName) {
+        Set<Thread> visited = new HashSet<>();
+        Thread owner = this.singletonsInCreation.get(beanName);
+        while (owner != null && visited.add(owner)) {
+            if (owner == current) return true;
+            String waitingFor = this.waitingThreads.get(owner);
+            if (waitingFor == null) return false;
+            owner = this.singletonsInCreation.get(waitingFor);
+        }
+        return false;
+    }
+
+    // 创建中的Bean实例化之后注册，populate阶段遇到循环依赖时通过它拿到引用
+    public void addSingletonFactory(String beanName, SingletonFactory singletonFactory) {
+        this.singletonFactories.put(beanName, singletonFactory);
+    }
+
+    // 如果已经提前暴露过引用，返回该引用，保证循环依赖双方拿到的是同一个对象
+    public Object getEarlySingletonReference(String beanName) {
+        return this.earlySingletonObjects.get(beanName);
+    }
+
+    public boolean isSingletonCurrentlyInCreation(String beanName) {
+        return this.singletonsInCreation.containsKey(beanName);
+    }
+
+    // 以别名注册一个已经创建完成的单例
+    public void registerAlias(String alias, Object singleton) {
+        this.singletonObjects.putIfAbsent(alias, singleton);
+    }
+
+    private Object getEarlySingleton(String beanName) {
+        Object early = this.earlySingletonObjects.get(beanName);
+        if (early != null) return early;
+
+        SingletonFactory factory = this.singletonFactories.get(beanName);
+        if (factory == null) {
+            throw new BeanCreationException(beanName, "Requested bean is currently in creation: is there an unresolvable circular reference?");
+        }
+        try {
+            early = factory.getObject();
+        } catch (Exception e) {
+            throw new BeanCreationException(beanName, e.getMessage(), e);
+        }
+        this.earlySingletonObjects.put(beanName, early);
+        this.singletonFactories.remove(beanName);
+        return early;
+    }
+
+    private ReentrantLock lockFor(String beanName) {
+        ReentrantLock lock = this.creationLocks.get(beanName);
+        if (lock == null) {
+            ReentrantLock newLock = new ReentrantLock();
+            lock = this.creationLocks.putIfAbsent(beanName, newLock);
+            if (lock == null) lock = newLock;
+        }
+        return lock;
+    }
+}
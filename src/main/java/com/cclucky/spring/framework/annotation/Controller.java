@@ -7,4 +7,10 @@ import java.lang.annotation.*;
 @Documented
 public @interface Controller {
     String value() default  "";
+
+    // 作用域：singleton、prototype、request
+    String scope() default "singleton";
+
+    // 单例延迟到第一次getBean时创建
+    boolean lazy() default false;
 }
\ No newline at end of file
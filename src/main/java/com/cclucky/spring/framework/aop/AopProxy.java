@@ -0,0 +1,12 @@
+package com.cclucky.spring.framework.aop;
+
+/**
+ * 代理引擎：jdk 基于接口的动态代理，subclass 运行时生成目标类的子类
+ */
+public interface AopProxy {
+
+    String JDK = "jdk";
+    String SUBCLASS = "subclass";
+
+    <T> T getProxy();
+}
@@ -1,24 +1,37 @@
 package com.cclucky.spring.framework.aop;
 
-import com.cclucky.demo.aspect.LogAspect;
-import com.cclucky.spring.framework.aop.aspect.Advice;
-import com.cclucky.spring.framework.aop.config.AopConfig;
+import com.cclucky.spring.framework.aop.aspect.AdviceChain;
 import com.cclucky.spring.framework.aop.support.AdviceSupport;
+import com.cclucky.spring.framework.invoke.MethodInvokers;
 
 import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.HashMap;
 import java.util.Map;
 
-public class JdkDynamicAopProxy implements InvocationHandler {
+public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
 
     private AdviceSupport config;
 
+    // 创建代理时为每个接口方法解析好的调用链，之后只读
+    private final Map<Method, AdviceChain> adviceChains = new HashMap<>();
+
     public JdkDynamicAopProxy(AdviceSupport config) {
         this.config = config;
+        for (Class<?> i : config.getTargetClass().getInterfaces()) {
+            for (Method method : i.getMethods()) {
+                this.adviceChains.put(method, config.getAdviceChain(method));
+            }
+        }
+        // equals、hashCode、toString 等Object方法直接交给目标对象
+        for (Method method : Object.class.getMethods()) {
+            if (this.adviceChains.containsKey(method)) continue;
+            this.adviceChains.put(method, AdviceChain.direct(MethodInvokers.create(method, config.getConfig().getMethodInvoker())));
+        }
     }
 
+    @Override
     public <T> T getProxy() {
         ClassLoader classLoader = this.config.getTargetClass().getClassLoader();
         Class<?>[] interfaces = this.config.getTargetClass().getInterfaces();
@@ -36,35 +49,6 @@ public class JdkDynamicAopProxy implements InvocationHandler {
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-
-        Map<String, Advice> advices = this.config.getAdvices(method, this.config.getTargetClass());
-
-        // 非功能代码
-        invokeAdvice(advices.get("before"));
-
-        // 功能性代码
-        Object returnValue = null;
-        try {
-            returnValue = method.invoke(this.config.getTarget(), args);
-        } catch (Exception e) {
-            e.printStackTrace();
-            // 非功能代码
-            invokeAdvice(advices.get("afterThrow"));
-        }
-
-        // 非功能代码
-        invokeAdvice(advices.get("after"));
-
-        return returnValue;
-    }
-
-    private void invokeAdvice(Advice advice) {
-        try {
-            advice.getAdviceMethod().invoke(advice.getAspect());
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException(e);
-        } catch (InvocationTargetException e) {
-            throw new RuntimeException(e);
-        }
+        return this.adviceChains.get(method).invoke(this.config.getTarget(), args);
     }
 }
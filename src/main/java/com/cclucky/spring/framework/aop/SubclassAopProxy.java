@@ -0,0 +1,157 @@
+package com.cclucky.spring.framework.aop;
+
+import com.cclucky.spring.framework.aop.aspect.AdviceChain;
+import com.cclucky.spring.framework.aop.support.AdviceSupport;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassInjector;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy;
+import net.bytebuddy.implementation.MethodCall;
+import net.bytebuddy.implementation.MethodDelegation;
+import net.bytebuddy.implementation.attribute.MethodAttributeAppender;
+import net.bytebuddy.implementation.bind.annotation.AllArguments;
+import net.bytebuddy.implementation.bind.annotation.RuntimeType;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static net.bytebuddy.matcher.ElementMatchers.is;
+
+/**
+ * 运行时生成目标类的子类作为代理，不要求目标类实现接口
+ * 每个public方法在生成的子类中被单独重写：有切面的方法绑定自己的调用链，没有切面的方法直接调用目标对象
+ * protected和包级别的方法同样重写为调用目标对象，不会在代理对象未初始化的字段上执行
+ * 代理对象只转发调用，自身字段不会被使用：创建时跳过所有构造器，目标类的构造器不会因为代理再执行一次
+ * 代理类定义在目标类所在的类加载器和包中，包级别可见的目标类也能代理
+ * final方法无法重写，会直接在代理对象自身上执行；其他包中父类的包级别方法对代理类不可见，同样无法重写
+ */
+public class SubclassAopProxy implements AopProxy {
+
+    private final AdviceSupport config;
+
+    public SubclassAopProxy(AdviceSupport config) {
+        this.config = config;
+    }
+
+    @Override
+    public <T> T getProxy() {
+        Class<?> targetClass = this.config.getTargetClass();
+        Object target = this.config.getTarget();
+
+        DynamicType.Builder<?> builder = new ByteBuddy()
+                .subclass(targetClass, ConstructorStrategy.Default.NO_CONSTRUCTORS)
+                // 保留类上的注解，例如@Controller、@RequestMapping
+                .annotateType(targetClass.getDeclaredAnnotations());
+
+        for (Method method : targetClass.getMethods()) {
+            int modifiers = method.getModifiers();
+            if (Modifier.isFinal(modifiers) || Modifier.isStatic(modifiers)) continue;
+            if (method.getDeclaringClass() == Object.class && !isDelegatedObjectMethod(method)) continue;
+
+            AdviceChain chain = this.config.getAdviceChain(method);
+            if (chain.isAdvised()) {
+                builder = builder.method(is(method))
+                        .intercept(MethodDelegation.to(new ChainInterceptor(chain, target)))
+                        .attribute(MethodAttributeAppender.ForInstrumentedMethod.INCLUDING_RECEIVER);
+            } else {
+                builder = builder.method(is(method))
+                        .intercept(MethodCall.invoke(method).on(target).withAllArguments())
+                        .attribute(MethodAttributeAppender.ForInstrumentedMethod.INCLUDING_RECEIVER);
+            }
+        }
+
+        // 非public方法：目标对象上的方法不一定能从代理类直接调用，统一经调用器转发
+        for (Method method : getOverridableNonPublicMethods(targetClass)) {
+            builder = builder.method(is(method))
+                    .intercept(MethodDelegation.to(new ChainInterceptor(this.config.getAdviceChain(method), target)))
+                    .attribute(MethodAttributeAppender.ForInstrumentedMethod.INCLUDING_RECEIVER);
+        }
+
+        try {
+            Class<?> proxyClass = builder.make()
+                    .load(targetClass.getClassLoader(), getClassLoadingStrategy(targetClass))
+                    .getLoaded();
+            @SuppressWarnings("unchecked")
+            T instance = (T) newInstanceWithoutConstructor(proxyClass);
+            return instance;
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot create subclass proxy for " + targetClass.getName(), e);
+        }
+    }
+
+    // 目标类及其父类中可以被代理类重写的protected和包级别方法，子类中已重写的只取子类的
+    private static Set<Method> getOverridableNonPublicMethods(Class<?> targetClass) {
+        Set<Method> methods = new HashSet<>();
+        Set<String> signatures = new HashSet<>();
+        for (Class<?> clazz = targetClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                int modifiers = method.getModifiers();
+                if (method.isBridge() || method.isSynthetic()) continue;
+                if (!signatures.add(method.getName() + Arrays.toString(method.getParameterTypes()))) continue;
+                if (Modifier.isPublic(modifiers) || Modifier.isPrivate(modifiers)
+                        || Modifier.isFinal(modifiers) || Modifier.isStatic(modifiers)) continue;
+                if (!Modifier.isProtected(modifiers) && clazz.getPackage() != targetClass.getPackage()) continue;
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+
+    // 在目标类的类加载器中定义代理类，能访问包级别可见的目标类：Java 9及以上使用Lookup，否则通过反射注入
+    private static ClassLoadingStrategy<ClassLoader> getClassLoadingStrategy(Class<?> targetClass) throws Exception {
+        if (ClassInjector.UsingLookup.isAvailable()) {
+            Class<?> methodHandles = Class.forName("java.lang.invoke.MethodHandles");
+            Class<?> lookupClass = Class.forName("java.lang.invoke.MethodHandles$Lookup");
+            Object lookup = methodHandles.getMethod("lookup").invoke(null);
+            Object privateLookup = methodHandles.getMethod("privateLookupIn", Class.class, lookupClass)
+                    .invoke(null, targetClass, lookup);
+            return ClassLoadingStrategy.UsingLookup.of(privateLookup);
+        }
+        return ClassLoadingStrategy.Default.INJECTION;
+    }
+
+    // 与序列化相同的方式分配对象，只执行Object的构造器；ReflectionFactory不在公开API中，通过反射调用
+    private static Object newInstanceWithoutConstructor(Class<?> proxyClass) throws Exception {
+        Class<?> factoryClass = Class.forName("sun.reflect.ReflectionFactory");
+        Object factory = factoryClass.getMethod("getReflectionFactory").invoke(null);
+        Constructor<?> constructor = (Constructor<?>) factoryClass
+                .getMethod("newConstructorForSerialization", Class.class, Constructor.class)
+                .invoke(factory, proxyClass, Object.class.getDeclaredConstructor());
+        return constructor.newInstance();
+    }
+
+    private static boolean isDelegatedObjectMethod(Method method) {
+        String name = method.getName();
+        return "equals".equals(name) || "hashCode".equals(name) || "toString".equals(name);
+    }
+
+    @Override
+    public String toString() {
+        return "SubclassAopProxy{" +
+                "config=" + config +
+                '}';
+    }
+
+    /**
+     * 绑定到单个方法的拦截器，生成的子类直接调用，不需要再按方法查找调用链
+     */
+    public static class ChainInterceptor {
+        private final AdviceChain chain;
+        private final Object target;
+
+        public ChainInterceptor(AdviceChain chain, Object target) {
+            this.chain = chain;
+            this.target = target;
+        }
+
+        @RuntimeType
+        public Object intercept(@AllArguments Object[] args) throws Throwable {
+            return this.chain.invoke(this.target, args);
+        }
+    }
+}
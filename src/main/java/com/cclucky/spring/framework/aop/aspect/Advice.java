@@ -1,15 +1,26 @@
 package com.cclucky.spring.framework.aop.aspect;
 
+import com.cclucky.spring.framework.invoke.MethodInvoker;
+
 import java.lang.reflect.Method;
 
 public class Advice {
     private Object aspect;
     private Method adviceMethod;
+    private MethodInvoker adviceInvoker;
     private String throwName;
+    // 切面实现了ConditionalAspect时不为null
+    private final ConditionalAspect condition;
 
-    public Advice(Object aspect, Method adviceMethod) {
+    public Advice(Object aspect, Method adviceMethod, MethodInvoker adviceInvoker) {
         this.aspect = aspect;
         this.adviceMethod = adviceMethod;
+        this.adviceInvoker = adviceInvoker;
+        this.condition = aspect instanceof ConditionalAspect ? (ConditionalAspect) aspect : null;
+    }
+
+    public boolean isActive() {
+        return condition == null || condition.isActive();
     }
 
     public Object getAspect() {
@@ -20,6 +31,10 @@ public class Advice {
         return adviceMethod;
     }
 
+    public MethodInvoker getAdviceInvoker() {
+        return adviceInvoker;
+    }
+
     public String getThrowName() {
         return throwName;
     }
@@ -0,0 +1,96 @@
+package com.cclucky.spring.framework.aop.aspect;
+
+import com.cclucky.spring.framework.invoke.MethodInvoker;
+
+import java.lang.reflect.Method;
+
+/**
+ * 一个被代理方法的调用链，创建代理时解析好，调用时只遍历数组
+ */
+public class AdviceChain {
+
+    private static final Advice[] NO_ADVICES = new Advice[0];
+
+    private final Method method;
+    private final MethodInvoker targetInvoker;
+    private final Advice[] beforeAdvices;
+    private final Advice[] afterAdvices;
+    private final Advice[] afterThrowAdvices;
+    private final Advice[] aroundAdvices;
+    private final boolean advised;
+
+    public AdviceChain(MethodInvoker targetInvoker, Advice[] beforeAdvices, Advice[] afterAdvices, Advice[] afterThrowAdvices) {
+        this(null, targetInvoker, beforeAdvices, afterAdvices, afterThrowAdvices, null);
+    }
+
+    public AdviceChain(Method method, MethodInvoker targetInvoker, Advice[] beforeAdvices, Advice[] afterAdvices,
+                       Advice[] afterThrowAdvices, Advice[] aroundAdvices) {
+        this.method = method;
+        this.targetInvoker = targetInvoker;
+        this.beforeAdvices = beforeAdvices == null ? NO_ADVICES : beforeAdvices;
+        this.afterAdvices = afterAdvices == null ? NO_ADVICES : afterAdvices;
+        this.afterThrowAdvices = afterThrowAdvices == null ? NO_ADVICES : afterThrowAdvices;
+        this.aroundAdvices = aroundAdvices == null ? NO_ADVICES : aroundAdvices;
+        this.advised = this.beforeAdvices.length + this.afterAdvices.length + this.afterThrowAdvices.length
+                + this.aroundAdvices.length > 0;
+    }
+
+    // 没有切面的方法直接调用目标方法
+    public static AdviceChain direct(MethodInvoker targetInvoker) {
+        return new AdviceChain(targetInvoker, null, null, null);
+    }
+
+    public Object invoke(Object target, Object[] args) throws Throwable {
+        if (!this.advised) {
+            return this.targetInvoker.invoke(target, args);
+        }
+
+        // 非功能代码
+        invokeAdvices(this.beforeAdvices);
+
+        // 功能性代码
+        Object returnValue = null;
+        try {
+            returnValue = proceed(target, args, 0);
+        } catch (Throwable e) {
+            e.printStackTrace();
+            // 非功能代码
+            invokeAdvices(this.afterThrowAdvices);
+        }
+
+        // 非功能代码
+        invokeAdvices(this.afterAdvices);
+
+        return returnValue;
+    }
+
+    // 环绕通知包在目标方法外层，能看到目标方法抛出的异常
+    Object proceed(Object target, Object[] args, int index) throws Throwable {
+        if (index >= this.aroundAdvices.length) {
+            return this.targetInvoker.invoke(target, args);
+        }
+        Advice advice = this.aroundAdvices[index];
+        if (!advice.isActive()) return proceed(target, args, index + 1);
+        return advice.getAdviceInvoker().invoke(advice.getAspect(), new Object[]{new JoinPoint(this, target, args, index + 1)});
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public boolean isAdvised() {
+        return advised;
+    }
+
+    private static void invokeAdvices(Advice[] advices) {
+        for (Advice advice : advices) {
+            try {
+                advice.getAdviceInvoker().invoke(advice.getAspect(), null);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.cclucky.spring.framework.aop.aspect;
+
+/**
+ * 可以在运行时关闭的切面：isActive()为false时调用链跳过它的环绕通知，不创建JoinPoint和参数数组
+ */
+public interface ConditionalAspect {
+
+    boolean isActive();
+}
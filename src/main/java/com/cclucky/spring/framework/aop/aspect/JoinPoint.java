@@ -0,0 +1,44 @@
+package com.cclucky.spring.framework.aop.aspect;
+
+import java.lang.reflect.Method;
+
+/**
+ * 环绕通知的参数，通知方法形如 Object around(JoinPoint joinPoint) throws Throwable
+ * 调用proceed()进入下一个环绕通知，最后一个环绕通知的proceed()调用目标方法
+ */
+public class JoinPoint {
+
+    private final AdviceChain chain;
+    private final Object target;
+    private final Object[] args;
+    // 下一个要执行的环绕通知
+    private final int index;
+
+    JoinPoint(AdviceChain chain, Object target, Object[] args, int index) {
+        this.chain = chain;
+        this.target = target;
+        this.args = args;
+        this.index = index;
+    }
+
+    public Object proceed() throws Throwable {
+        return this.chain.proceed(this.target, this.args, this.index);
+    }
+
+    // 使用新的实参继续调用
+    public Object proceed(Object[] args) throws Throwable {
+        return this.chain.proceed(this.target, args, this.index);
+    }
+
+    public Method getMethod() {
+        return chain.getMethod();
+    }
+
+    public Object getTarget() {
+        return target;
+    }
+
+    public Object[] getArgs() {
+        return args == null ? new Object[0] : args.clone();
+    }
+}
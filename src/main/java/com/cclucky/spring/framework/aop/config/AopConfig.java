@@ -6,7 +6,9 @@ public class AopConfig {
     private String aspectAfter;
     private String aspectAfterThrow;
     private String aspectAfterThrowingName;
+    private String aspectAround;
     private String aspectClass;
+    private String methodInvoker;
 
     public String getPointCut() {
         return pointCut;
@@ -48,6 +50,14 @@ public class AopConfig {
         this.aspectAfterThrowingName = aspectAfterThrowingName;
     }
 
+    public String getAspectAround() {
+        return aspectAround;
+    }
+
+    public void setAspectAround(String aspectAround) {
+        this.aspectAround = aspectAround;
+    }
+
     public String getAspectClass() {
         return aspectClass;
     }
@@ -55,4 +65,12 @@ public class AopConfig {
     public void setAspectClass(String aspectClass) {
         this.aspectClass = aspectClass;
     }
+
+    public String getMethodInvoker() {
+        return methodInvoker;
+    }
+
+    public void setMethodInvoker(String methodInvoker) {
+        this.methodInvoker = methodInvoker;
+    }
 }
@@ -1,21 +1,24 @@
 package com.cclucky.spring.framework.aop.support;
 
-import com.cclucky.spring.framework.aop.aspect.Advice;
+import com.cclucky.spring.framework.aop.aspect.AdviceChain;
 import com.cclucky.spring.framework.aop.config.AopConfig;
+import com.cclucky.spring.framework.invoke.MethodInvoker;
+import com.cclucky.spring.framework.invoke.MethodInvokers;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 public class AdviceSupport {
 
     private Class<?> targetClass;
     private Object target;
     private AopConfig config;
-    private Pattern pointCutClassPattern;
-    private Map<Method, Map<String, Advice>> methodCache;
+    private final PointcutMatcher pointcutMatcher;
+    private final AspectMetadata aspectMetadata;
+    // 满足切面规则的目标方法
+    private Set<Method> advisedMethods = Collections.emptySet();
 
 
     public AopConfig getConfig() {
@@ -26,71 +29,28 @@ public class AdviceSupport {
         this.config = config;
     }
 
-    public AdviceSupport(AopConfig config) {
+    // 同一容器内共用已经解析好的切面表达式和切面实例
+    public AdviceSupport(AopConfig config, PointcutMatcher pointcutMatcher, AspectMetadata aspectMetadata) {
         this.config = config;
+        this.pointcutMatcher = pointcutMatcher;
+        this.aspectMetadata = aspectMetadata;
     }
 
     private void parse() {
-
-        // 确认目标类名是否满足切面规则
-        String pointCutRegex = this.config.getPointCut()
-                .replaceAll("\\.", "\\\\.")
-                .replaceAll("\\\\.\\*", ".*")
-                .replaceAll("\\(", "\\\\(")
-                .replaceAll("\\)", "\\\\)");
-
-        String pointCutForClassRegex = pointCutRegex.substring(0, pointCutRegex.lastIndexOf("\\(") - 4)
-                .replaceAll("\\\\", "");
-
-        pointCutClassPattern = Pattern.compile(pointCutForClassRegex.substring(pointCutForClassRegex.lastIndexOf(" ") + 1));
-
-        // 建立切面和业务代码的关联关系
-        methodCache = new HashMap<>();
-
-        // 将切面逻辑通过反射机制读取出来先缓存
-        try {
-            Map<String, Method> aspectMethods = new HashMap<>();
-            Class<?> aspectClass = Class.forName(this.config.getAspectClass());
-
-            for (Method method : aspectClass.getMethods()) {
-                aspectMethods.put(method.getName(), method);
-            }
-
-            // 使用正则匹配目标类的功能方法，满足切面表达式
-            Pattern pointCutPattern = Pattern.compile(pointCutRegex.replaceAll("\\\\", ""));
-            for (Method method : this.targetClass.getMethods()) {
-                String methodString = method.toString();
-                if (methodString.contains("throw")) {
-                    methodString = methodString.substring(0, methodString.lastIndexOf("throw")).trim();
-                }
-                Matcher matcher = pointCutPattern.matcher(methodString);
-                if (matcher.matches()) {
-                    Map<String, Advice> advices = new HashMap<>();
-                    if (!(null == this.config.getAspectBefore() || "".equals(this.config.getAspectBefore()))) {
-                        advices.put("before",
-                                new Advice(aspectClass.newInstance(), aspectMethods.get(this.config.getAspectBefore())));
-                    }
-                    if (!(null == this.config.getAspectAfter() || "".equals(this.config.getAspectAfter()))) {
-                        advices.put("after",
-                                new Advice(aspectClass.newInstance(), aspectMethods.get(this.config.getAspectAfter())));
-                    }
-                    if (!(null == this.config.getAspectAfterThrow() || "".equals(this.config.getAspectAfterThrow()))) {
-                        Advice advice = new Advice(aspectClass.newInstance(), aspectMethods.get(this.config.getAspectAfterThrow()));
-                        advice.setThrowName(this.config.getAspectAfterThrowingName());
-                        advices.put("afterThrow", advice);
-                    }
-                    methodCache.put(method, advices);
-                }
-            }
-
-        } catch (ClassNotFoundException | IllegalAccessException | InstantiationException e) {
-            e.printStackTrace();
+        // 目标类不满足切面规则时不再解析切面
+        if (!pointCutMatch()) {
+            this.advisedMethods = Collections.emptySet();
+            return;
         }
 
+        // 满足切面表达式的方法由匹配器按类缓存，通知本身由所有代理共用
+        Set<Method> methods = new HashSet<>();
+        Collections.addAll(methods, this.pointcutMatcher.getMatchedMethods(this.targetClass));
+        this.advisedMethods = methods;
     }
 
     public boolean pointCutMatch() {
-        return this.pointCutClassPattern.matcher(this.targetClass.getName()).matches();
+        return this.pointcutMatcher.matches(this.targetClass);
     }
 
     public Class<?> getTargetClass() {
@@ -110,13 +70,23 @@ public class AdviceSupport {
         this.target = instance;
     }
 
-    public Map<String, Advice> getAdvices(Method method, Class<?> targetClass) throws NoSuchMethodException {
-        Map<String, Advice> cache = this.methodCache.get(method);
-        if (null == cache) {
-            Method m = targetClass.getMethod(method.getName(), method.getParameterTypes());
-            cache = methodCache.get(m);
-            this.methodCache.put(m, cache);
+    // 为接口方法解析出调用链：目标方法的调用器 + 匹配到的切面通知，创建代理时调用
+    public AdviceChain getAdviceChain(Method method) {
+        MethodInvoker targetInvoker = MethodInvokers.create(method, this.config.getMethodInvoker());
+
+        // 调用链上记录目标类的方法，JDK代理传入的接口方法和子类代理传入的方法对切面来说是同一个
+        Method targetMethod = method;
+        try {
+            targetMethod = this.targetClass.getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            // 非public方法
+        }
+        boolean advised = this.advisedMethods.contains(method) || this.advisedMethods.contains(targetMethod);
+        if (!advised) {
+            return AdviceChain.direct(targetInvoker);
         }
-        return cache;
+        return new AdviceChain(targetMethod, targetInvoker, this.aspectMetadata.getBeforeAdvices(),
+                this.aspectMetadata.getAfterAdvices(), this.aspectMetadata.getAfterThrowAdvices(),
+                this.aspectMetadata.getAroundAdvices());
     }
 }
@@ -0,0 +1,78 @@
+package com.cclucky.spring.framework.aop.support;
+
+import com.cclucky.spring.framework.aop.aspect.Advice;
+import com.cclucky.spring.framework.aop.aspect.JoinPoint;
+import com.cclucky.spring.framework.aop.config.AopConfig;
+import com.cclucky.spring.framework.invoke.MethodInvokers;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 切面实例和由它解析出的通知，每个容器只有一份，所有代理共用
+ */
+public class AspectMetadata {
+
+    private static final Advice[] NO_ADVICES = new Advice[0];
+
+    private final Object aspect;
+    private final Advice[] beforeAdvices;
+    private final Advice[] afterAdvices;
+    private final Advice[] afterThrowAdvices;
+    private final Advice[] aroundAdvices;
+
+    public AspectMetadata(AopConfig config, Object aspect) {
+        this.aspect = aspect;
+
+        // 将切面逻辑通过反射机制读取出来先缓存
+        Map<String, Method> aspectMethods = new HashMap<>();
+        for (Method method : aspect.getClass().getMethods()) {
+            aspectMethods.put(method.getName(), method);
+        }
+
+        String invokerType = config.getMethodInvoker();
+        this.beforeAdvices = resolve(aspectMethods, config.getAspectBefore(), null, invokerType);
+        this.afterAdvices = resolve(aspectMethods, config.getAspectAfter(), null, invokerType);
+        this.afterThrowAdvices = resolve(aspectMethods, config.getAspectAfterThrow(), config.getAspectAfterThrowingName(), invokerType);
+        this.aroundAdvices = resolve(aspectMethods, config.getAspectAround(), null, invokerType);
+        for (Advice advice : this.aroundAdvices) {
+            Class<?>[] parameterTypes = advice.getAdviceMethod().getParameterTypes();
+            if (parameterTypes.length != 1 || parameterTypes[0] != JoinPoint.class) {
+                throw new IllegalStateException("Around advice must take a single JoinPoint: " + advice.getAdviceMethod());
+            }
+        }
+    }
+
+    private Advice[] resolve(Map<String, Method> aspectMethods, String methodName, String throwName, String invokerType) {
+        if (null == methodName || "".equals(methodName)) return NO_ADVICES;
+        Method adviceMethod = aspectMethods.get(methodName);
+        if (adviceMethod == null) {
+            System.out.println("Advice method " + methodName + " not found in " + this.aspect.getClass().getName());
+            return NO_ADVICES;
+        }
+        Advice advice = new Advice(this.aspect, adviceMethod, MethodInvokers.create(adviceMethod, invokerType));
+        advice.setThrowName(throwName);
+        return new Advice[]{advice};
+    }
+
+    public Object getAspect() {
+        return aspect;
+    }
+
+    public Advice[] getBeforeAdvices() {
+        return beforeAdvices;
+    }
+
+    public Advice[] getAfterAdvices() {
+        return afterAdvices;
+    }
+
+    public Advice[] getAfterThrowAdvices() {
+        return afterThrowAdvices;
+    }
+
+    public Advice[] getAroundAdvices() {
+        return aroundAdvices;
+    }
+}
@@ -0,0 +1,122 @@
+package com.cclucky.spring.framework.aop.support;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * 切面表达式解析后的匹配器，每个容器只解析一次
+ * 表达式格式：[修饰符...] 返回值 类名.方法名(参数)，例如 public .* com.cclucky.demo.service..*Service..*..*(.*)
+ * 各部分沿用原来的正则写法，分别与方法的修饰符、返回值、声明类、方法名、参数列表匹配，不再格式化method.toString()
+ * 类和方法的匹配结果按类缓存
+ */
+public class PointcutMatcher {
+
+    private static final Method[] NO_METHODS = new Method[0];
+
+    private final String expression;
+    private final Set<String> modifiers = new HashSet<>();
+    private final Pattern returnTypePattern;
+    private final Pattern classPattern;
+    private final Pattern methodNamePattern;
+    private final Pattern paramsPattern;
+
+    private final ConcurrentMap<Class<?>, Method[]> matchedMethodCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, Boolean> classMatchCache = new ConcurrentHashMap<>();
+
+    public PointcutMatcher(String expression) {
+        this.expression = expression.trim();
+
+        // 参数部分
+        int paramsStart = this.expression.lastIndexOf('(');
+        int paramsEnd = this.expression.lastIndexOf(')');
+        if (paramsStart == -1 || paramsEnd < paramsStart) {
+            throw new IllegalArgumentException("Invalid pointCut expression: " + expression);
+        }
+        this.paramsPattern = Pattern.compile(this.expression.substring(paramsStart + 1, paramsEnd).trim());
+
+        // 修饰符、返回值、类名.方法名
+        String[] tokens = this.expression.substring(0, paramsStart).trim().split("\\s+");
+        String qualifiedName = tokens[tokens.length - 1];
+        this.returnTypePattern = Pattern.compile(tokens.length > 1 ? tokens[tokens.length - 2] : ".*");
+        this.modifiers.addAll(Arrays.asList(tokens).subList(0, Math.max(0, tokens.length - 2)));
+
+        // 最后一个不属于 .* 的点是类名和方法名的分隔
+        int separator = -1;
+        for (int i = qualifiedName.length() - 1; i >= 0; i--) {
+            if (qualifiedName.charAt(i) == '.' && (i + 1 >= qualifiedName.length() || qualifiedName.charAt(i + 1) != '*')) {
+                separator = i;
+                break;
+            }
+        }
+        if (separator == -1) {
+            throw new IllegalArgumentException("Invalid pointCut expression: " + expression);
+        }
+        this.classPattern = Pattern.compile(qualifiedName.substring(0, separator));
+        this.methodNamePattern = Pattern.compile(qualifiedName.substring(separator + 1));
+    }
+
+    // 目标类是否满足切面规则
+    public boolean matches(Class<?> targetClass) {
+        Boolean matched = this.classMatchCache.get(targetClass);
+        if (matched == null) {
+            matched = this.classPattern.matcher(targetClass.getName()).matches();
+            this.classMatchCache.put(targetClass, matched);
+        }
+        return matched;
+    }
+
+    // 目标类中满足切面规则的public方法
+    public Method[] getMatchedMethods(Class<?> targetClass) {
+        Method[] matched = this.matchedMethodCache.get(targetClass);
+        if (matched == null) {
+            List<Method> methods = new ArrayList<>();
+            for (Method method : targetClass.getMethods()) {
+                if (matches(method)) methods.add(method);
+            }
+            matched = methods.isEmpty() ? NO_METHODS : methods.toArray(new Method[0]);
+            this.matchedMethodCache.put(targetClass, matched);
+        }
+        return matched;
+    }
+
+    // 直接登记一个类的匹配结果，从上下文快照恢复时不再对该类做正则匹配
+    public void preload(Class<?> targetClass, boolean matched, Method[] matchedMethods) {
+        this.classMatchCache.put(targetClass, matched);
+        this.matchedMethodCache.put(targetClass, matchedMethods.length == 0 ? NO_METHODS : matchedMethods.clone());
+    }
+
+    public boolean matches(Method method) {
+        if (!this.modifiers.isEmpty()) {
+            String methodModifiers = Modifier.toString(method.getModifiers());
+            for (String modifier : this.modifiers) {
+                if (!methodModifiers.contains(modifier)) return false;
+            }
+        }
+        return this.classPattern.matcher(method.getDeclaringClass().getName()).matches()
+                && this.methodNamePattern.matcher(method.getName()).matches()
+                && this.returnTypePattern.matcher(method.getReturnType().getTypeName()).matches()
+                && this.paramsPattern.matcher(joinParameterTypes(method)).matches();
+    }
+
+    private static String joinParameterTypes(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        if (parameterTypes.length == 0) return "";
+        StringBuilder sb = new StringBuilder(parameterTypes[0].getTypeName());
+        for (int i = 1; i < parameterTypes.length; i++) {
+            sb.append(',').append(parameterTypes[i].getTypeName());
+        }
+        return sb.toString();
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+}
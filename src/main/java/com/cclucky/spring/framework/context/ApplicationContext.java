@@ -1,18 +1,39 @@
 package com.cclucky.spring.framework.context;
 
+import com.cclucky.spring.beans.BeanCreationException;
 import com.cclucky.spring.beans.BeanWrapper;
 import com.cclucky.spring.beans.config.BeanDefinition;
+import com.cclucky.spring.beans.support.BeanDependencyGraph;
+import com.cclucky.spring.beans.support.BeanInstantiator;
+import com.cclucky.spring.beans.support.InjectionMetadata;
+import com.cclucky.spring.beans.support.SingletonBeanRegistry;
 import com.cclucky.spring.beans.support.BeanDefinitionReader;
-import com.cclucky.spring.framework.annotation.Autowired;
+import com.cclucky.spring.framework.aop.AopProxy;
 import com.cclucky.spring.framework.aop.JdkDynamicAopProxy;
+import com.cclucky.spring.framework.aop.SubclassAopProxy;
 import com.cclucky.spring.framework.aop.config.AopConfig;
 import com.cclucky.spring.framework.aop.support.AdviceSupport;
-
-import java.lang.reflect.Field;
+import com.cclucky.spring.framework.aop.support.AspectMetadata;
+import com.cclucky.spring.framework.aop.support.PointcutMatcher;
+import com.cclucky.spring.framework.context.index.ComponentIndex;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
 
 public class ApplicationContext {
 
@@ -21,41 +42,235 @@ public class ApplicationContext {
     private BeanDefinitionReader reader;
 
     private Map<String, BeanDefinition> beanDefinitionMap = new HashMap<>();
-    private final Map<String, BeanWrapper> factoryBeanInstanceCache = new HashMap<>();      // 一级缓存
-    private final Map<String, Object> factoryBeanObjectCache = new HashMap<>();           // 二级缓存
+    // 单例注册表，支持请求线程并发调用getBean
+    private final SingletonBeanRegistry singletonRegistry = new SingletonBeanRegistry();
+    // 每个Bean类的实例化器和注入点
+    private final ConcurrentMap<Class<?>, BeanInstantiator> instantiatorCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, InjectionMetadata> injectionMetadataCache = new ConcurrentHashMap<>();
+
+    // 当前线程正在创建的prototype、request作用域Bean，用于发现它们之间的循环依赖
+    private final ThreadLocal<Set<String>> scopedBeansInCreation = new ThreadLocal<Set<String>>() {
+        @Override
+        protected Set<String> initialValue() {
+            return new HashSet<>();
+        }
+    };
+
+    private AopConfig aopConfig;
+    private PointcutMatcher pointcutMatcher;
+    private AspectMetadata aspectMetadata;
+
+    // 从快照启动时的上下文快照，正常启动时为null
+    private ContextSnapshot snapshot;
+    // 生成快照需要的启动结果
+    private List<BeanDefinition> loadedBeanDefinitions;
+    private Set<String> beanClassNames;
+    private BeanDependencyGraph dependencyGraph;
 
     public ApplicationContext(String... configLocations) {
+        this(true, configLocations);
+    }
+
+    // useSnapshot为false时忽略上下文快照，生成快照时使用
+    ApplicationContext(boolean useSnapshot, String... configLocations) {
         // ApplicationContext 的初始化
         // 加载配置文件，读取 Bean 定义，创建 IoC 容器
         this.configLocations = configLocations;
+        long start = System.nanoTime();
 
         try {
             // 加载配置文件
             this.reader = new BeanDefinitionReader(this.configLocations);
-            List<BeanDefinition> beanDefinitions = this.reader.doLoadBeanDefinitions();
+            this.aopConfig = loadAopConfig();
+
+            // 有可用的上下文快照时直接使用快照中的Bean定义，否则扫描
+            this.snapshot = useSnapshot ? restoreSnapshot() : null;
+            this.loadedBeanDefinitions = this.snapshot != null
+                    ? this.snapshot.getBeanDefinitions()
+                    : this.reader.doLoadBeanDefinitions();
 
             // 将BeanDefinition对象放入缓存
-            doRegistryBeanDefinition(beanDefinitions);
+            doRegistryBeanDefinition(this.loadedBeanDefinitions);
+
+            // 切面类作为容器中的单例Bean注册，可以使用@Autowired
+            doRegistryAspectDefinition();
 
             // 创建IoC容器
             doCreateBean();
         } catch (Exception e) {
             e.printStackTrace();
         }
+
+        System.out.println("ApplicationContext started in " + (System.nanoTime() - start) / 1000000 + " ms"
+                + (this.snapshot != null ? " from context snapshot" : ""));
+    }
+
+    // 读取并恢复上下文快照，快照不存在、过期或无法恢复时返回null，按正常流程启动
+    private ContextSnapshot restoreSnapshot() {
+        String location = getConfig().getProperty("contextSnapshot", ContextSnapshot.DEFAULT_LOCATION).trim();
+        if (location.isEmpty() || "none".equals(location)) return null;
+
+        ClassLoader classLoader = this.getClass().getClassLoader();
+        try {
+            ContextSnapshot snapshot = ContextSnapshot.load(classLoader, location, this.reader);
+            if (snapshot == null) return null;
+
+            snapshot.restoreInjection(classLoader, this.instantiatorCache, this.injectionMetadataCache);
+            if (!isAopSkipped("")) {
+                PointcutMatcher matcher = new PointcutMatcher(this.aopConfig.getPointCut());
+                snapshot.restorePointcutMatches(classLoader, matcher);
+                this.pointcutMatcher = matcher;
+            }
+            return snapshot;
+        } catch (Exception e) {
+            System.out.println("Ignoring context snapshot " + location + ": " + e);
+            this.instantiatorCache.clear();
+            this.injectionMetadataCache.clear();
+            this.pointcutMatcher = null;
+            return null;
+        }
     }
 
+    private void doCreateBean() throws Exception {
+        // 切面配置和切面实例在并行创建前准备好，之后所有线程只读
+        prepareAopConfig();
 
-    private void doCreateBean() throws ClassNotFoundException {
-        // 加载 Bean 定义并创建 IoC 容器
+        // 同一个类注册了多个beanName，按类归组，一个类的所有beanName在同一个任务中创建；只有非延迟的单例在启动时创建
+        Map<String, List<String>> beanNamesByClass = new TreeMap<>();
+        Set<String> beanClasses = new TreeSet<>();
         for (Map.Entry<String, BeanDefinition> beanDefinition : this.beanDefinitionMap.entrySet()) {
-            String beanName = beanDefinition.getKey();
-            getBean(beanName);
+            String className = beanDefinition.getValue().getBeanClassName();
+            beanClasses.add(className);
+            if (!beanDefinition.getValue().isSingleton() || beanDefinition.getValue().isLazyInit()) continue;
+            if (!beanNamesByClass.containsKey(className)) {
+                beanNamesByClass.put(className, new ArrayList<String>());
+            }
+            beanNamesByClass.get(className).add(beanDefinition.getKey());
+        }
+
+        this.beanClassNames = beanClasses;
+
+        // 根据构造器参数和@Autowired字段、setter建立依赖图，按强连通分量拆分，互相依赖的Bean放在同一个任务中由字段注入解决
+        // 延迟创建和非单例的Bean也加入依赖图，它们被注入时会在依赖方的任务中创建，依赖顺序仍然成立
+        // 从快照启动时依赖图和创建顺序都已经算好
+        BeanDependencyGraph graph;
+        List<List<String>> components;
+        if (this.snapshot != null) {
+            graph = this.snapshot.getDependencyGraph();
+            components = this.snapshot.getComponents();
+        } else {
+            graph = new BeanDependencyGraph();
+            for (String className : beanClasses) {
+                graph.addNode(className);
+                for (String dependency : resolveDependencies(className)) {
+                    graph.addDependency(className, dependency);
+                }
+            }
+            components = graph.getComponents();
+        }
+        this.dependencyGraph = graph;
+
+        int parallelism = Integer.parseInt(getConfig().getProperty("beanCreationParallelism",
+                String.valueOf(Runtime.getRuntime().availableProcessors())).trim());
+        Map<String, Throwable> failures = new ConcurrentSkipListMap<>();
+
+        if (parallelism <= 1 || components.size() <= 1) {
+            for (List<String> component : components) {
+                doCreateComponent(component, beanNamesByClass, failures);
+            }
+        } else {
+            doCreateComponentsInParallel(components, graph, beanNamesByClass, failures, parallelism);
+        }
+
+        // 按beanName排序报告失败，多次启动结果一致
+        if (!failures.isEmpty()) {
+            Exception exception = new Exception("Failed to create beans " + failures.keySet());
+            for (Throwable failure : failures.values()) {
+                exception.addSuppressed(failure);
+            }
+            throw exception;
+        }
+    }
+
+    // 每个分量在其依赖的分量全部完成后才开始创建，没有依赖关系的分量在ForkJoinPool中并行创建
+    private void doCreateComponentsInParallel(List<List<String>> components, BeanDependencyGraph graph,
+                                              final Map<String, List<String>> beanNamesByClass,
+                                              final Map<String, Throwable> failures, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+            List<CompletableFuture<Void>> all = new ArrayList<>();
+            for (final List<String> component : components) {
+                List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+                for (String className : component) {
+                    for (String dependency : graph.getDependencies(className)) {
+                        if (!component.contains(dependency)) {
+                            dependencies.add(futures.get(dependency));
+                        }
+                    }
+                }
+                CompletableFuture<Void> future = CompletableFuture
+                        .allOf(dependencies.toArray(new CompletableFuture[0]))
+                        .thenRunAsync(new Runnable() {
+                            @Override
+                            public void run() {
+                                doCreateComponent(component, beanNamesByClass, failures);
+                            }
+                        }, pool);
+                for (String className : component) {
+                    futures.put(className, future);
+                }
+                all.add(future);
+            }
+            CompletableFuture.allOf(all.toArray(new CompletableFuture[0])).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void doCreateComponent(List<String> component, Map<String, List<String>> beanNamesByClass,
+                                   Map<String, Throwable> failures) {
+        for (String className : component) {
+            if (!beanNamesByClass.containsKey(className)) continue;
+            List<String> beanNames = new ArrayList<>(beanNamesByClass.get(className));
+            Collections.sort(beanNames);
+            for (String beanName : beanNames) {
+                try {
+                    getBean(beanName);
+                } catch (Throwable e) {
+                    failures.put(beanName, e);
+                }
+            }
+        }
+    }
+
+    // 类的构造器参数和注入点所依赖的Bean的类名
+    private List<String> resolveDependencies(String className) throws ClassNotFoundException {
+        Class<?> clazz = Class.forName(className);
+        List<String> beanNames = new ArrayList<>(Arrays.asList(findInstantiator(clazz).getParameterBeanNames()));
+        for (InjectionMetadata.InjectedElement element : findInjectionMetadata(clazz).getElements()) {
+            beanNames.add(element.getBeanName());
+        }
+        List<String> dependencies = new ArrayList<>();
+        for (String beanName : beanNames) {
+            BeanDefinition dependency = this.beanDefinitionMap.get(beanName);
+            if (dependency != null) {
+                dependencies.add(dependency.getBeanClassName());
+            }
         }
+        // 被切面匹配的Bean创建代理时需要切面实例
+        if (this.aspectMetadata != null && !isAopSkipped(className)) {
+            dependencies.add(this.aopConfig.getAspectClass());
+        }
+        return dependencies;
     }
 
     private void doRegistryBeanDefinition(List<BeanDefinition> beanDefinitions) throws Exception {
         // 注册 BeanDefinition
         for (BeanDefinition beanDefinition : beanDefinitions) {
+            if (!beanDefinition.isSingleton() && !beanDefinition.isPrototype() && !beanDefinition.isRequestScoped()) {
+                throw new Exception("Unknown scope '" + beanDefinition.getScope() + "' on " + beanDefinition.getBeanClassName());
+            }
             if (beanDefinitionMap.containsKey(beanDefinition.getFactoryBeanName())) {
                 throw new Exception("The " + beanDefinition.getFactoryBeanName() + " is exist");
             }
@@ -64,118 +279,234 @@ public class ApplicationContext {
         }
     }
 
-    // 创建bean实例和依赖注入
+    private void doRegistryAspectDefinition() {
+        String aspectClass = this.aopConfig.getAspectClass();
+        if (aspectClass == null || aspectClass.trim().isEmpty()) return;
+        if (this.beanDefinitionMap.containsKey(aspectClass)) return;
+
+        BeanDefinition beanDefinition = new BeanDefinition();
+        String simpleName = aspectClass.substring(aspectClass.lastIndexOf('.') + 1);
+        beanDefinition.setFactoryBeanName(ComponentIndex.defaultBeanName(simpleName));
+        beanDefinition.setBeanClassName(aspectClass);
+        if (!this.beanDefinitionMap.containsKey(beanDefinition.getFactoryBeanName())) {
+            this.beanDefinitionMap.put(beanDefinition.getFactoryBeanName(), beanDefinition);
+        }
+        this.beanDefinitionMap.put(aspectClass, beanDefinition);
+    }
+
+    // 创建bean实例和依赖注入，单例创建完成后只需一次读取
     public Object getBean(String beanName) throws ClassNotFoundException {
+        Object singleton = this.singletonRegistry.getSingleton(beanName);
+        if (singleton != null) return singleton;
+
         // 取出beanName对应的配置信息
-        BeanDefinition beanDefinition = this.beanDefinitionMap.get(beanName);
-        // 根据配置信息创建bean实例
-        Object instance = instantiateBean(beanName, beanDefinition);
-        // 如果实例为空
-        if (instance == null) return null;
-        // 不为空则封装成BeanWrapper
-        BeanWrapper beanWrapper = new BeanWrapper(instance);
-        // 将BeanWrapper对象缓存到IoC容器中
-        this.factoryBeanInstanceCache.put(beanName, beanWrapper);
-        // 完成依赖注入
-//        populateBean(beanName, beanDefinition, beanWrapper);
-        return this.factoryBeanInstanceCache.get(beanName).getWrapperInstance();
-    }
+        final BeanDefinition beanDefinition = this.beanDefinitionMap.get(beanName);
+        if (beanDefinition == null) return null;
 
-    private void populateBean(String beanName, BeanDefinition beanDefinition, BeanWrapper beanWrapper) {
-        // 遍历 Bean 类的字段，进行 Autowired 注解的依赖注入
-        Object instance = beanWrapper.getWrapperInstance();
-        Class<?> clazz = beanWrapper.getWrapperClass();
+        // 同一个类注册的多个beanName共用一个单例，注册表以类名为key
+        final String className = beanDefinition.getBeanClassName();
 
-        Field[] fields = clazz.getDeclaredFields();
+        // prototype每次创建新实例
+        if (beanDefinition.isPrototype()) {
+            return createScopedBean(className, beanDefinition);
+        }
 
-        for (Field field : fields) {
-            if (!field.isAnnotationPresent(Autowired.class)) continue;
+        // request作用域的Bean在一次请求内共用
+        if (beanDefinition.isRequestScoped()) {
+            Map<String, Object> requestBeans = RequestContextHolder.getRequestBeans();
+            if (requestBeans == null) {
+                throw new BeanCreationException(beanName, "Scope 'request' is not active for the current thread");
+            }
+            Object bean = requestBeans.get(className);
+            if (bean == null) {
+                bean = createScopedBean(className, beanDefinition);
+                requestBeans.put(className, bean);
+            }
+            return bean;
+        }
 
-            Autowired autowired = field.getAnnotation(Autowired.class);
-            String AutowiredBeanName = autowired.value().trim();
-            if (AutowiredBeanName.isEmpty()) {
-                AutowiredBeanName = field.getType().getName();
+        singleton = this.singletonRegistry.getSingleton(className, new SingletonBeanRegistry.SingletonFactory() {
+            @Override
+            public Object getObject() throws Exception {
+                return createBean(className, beanDefinition);
             }
+        });
+        // 创建完成后以beanName登记，之后按beanName直接命中；提前暴露的引用不登记
+        if (!this.singletonRegistry.isSingletonCurrentlyInCreation(className)) {
+            this.singletonRegistry.registerAlias(beanName, singleton);
+        }
+        return singleton;
+    }
 
-            // 只有public修饰的类才可以外部赋值，进行赋权操作
-            field.setAccessible(true);
+    // 非单例的Bean不提前暴露引用，它们之间的循环依赖无法解决，直接报错
+    private Object createScopedBean(String className, BeanDefinition beanDefinition) {
+        Set<String> inCreation = this.scopedBeansInCreation.get();
+        if (!inCreation.add(className)) {
+            throw new BeanCreationException(className, "Requested bean is currently in creation: is there an unresolvable circular reference?");
+        }
+        try {
+            return createBean(className, beanDefinition);
+        } catch (BeanCreationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BeanCreationException(className, e.getMessage(), e);
+        } finally {
+            inCreation.remove(className);
+        }
+    }
 
-            if (AutowiredBeanName.contains("ITestService")) {
-                System.out.println("==============");
-            }
-            if (AutowiredBeanName.contains("IDemoService")) {
-                System.out.println("==============");
+    private void populateBean(String beanName, BeanDefinition beanDefinition, BeanWrapper beanWrapper) throws Exception {
+        // 按预先解析好的注入点依次注入，字段和setter都已经设置为可访问
+        Object instance = beanWrapper.getWrapperInstance();
+        InjectionMetadata metadata = findInjectionMetadata(beanWrapper.getWrapperClass());
+
+        for (InjectionMetadata.InjectedElement element : metadata.getElements()) {
+            // 根据beanName从ioc容器获取实例对象并赋予，循环依赖时拿到的是提前暴露的引用
+            Object dependency = getBean(element.getBeanName());
+            if (dependency == null) {
+                throw new BeanCreationException(beanName, "No bean named '" + element.getBeanName() + "' for " + element.getDescription());
             }
-            try {
-                if (this.factoryBeanInstanceCache.containsKey(AutowiredBeanName)) {
-                    // 根据beanName从ioc容器获取实例对象并赋予
-                    field.set(instance, this.factoryBeanInstanceCache.get(AutowiredBeanName).getWrapperInstance());
-                } else if (this.factoryBeanObjectCache.containsKey(AutowiredBeanName)) {
-                    field.set(instance, this.factoryBeanObjectCache.get(AutowiredBeanName));
-                } else {
-                    getBean(AutowiredBeanName);
-                    field.set(instance, this.factoryBeanInstanceCache.get(AutowiredBeanName).getWrapperInstance());
-                }
-            } catch (IllegalAccessException e) {
-                e.printStackTrace();
-            } catch (ClassNotFoundException e) {
-                throw new RuntimeException(e);
+            element.inject(instance, dependency);
+        }
+    }
+
+    // 构造器参数在实例化前注入，此时还没有提前暴露的引用，构造器之间的循环依赖会直接报错
+    private Object instantiateBean(String beanName, Class<?> clazz) throws Exception {
+        BeanInstantiator instantiator = findInstantiator(clazz);
+        String[] parameterBeanNames = instantiator.getParameterBeanNames();
+        Object[] args = new Object[parameterBeanNames.length];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = getBean(parameterBeanNames[i]);
+            if (args[i] == null) {
+                throw new BeanCreationException(beanName, "No bean named '" + parameterBeanNames[i] + "' for constructor parameter " + i);
             }
         }
+        try {
+            return instantiator.instantiate(args);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // 既不是Exception也不是Error的Throwable
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    BeanInstantiator findInstantiator(Class<?> clazz) {
+        BeanInstantiator instantiator = this.instantiatorCache.get(clazz);
+        if (instantiator == null) {
+            instantiator = BeanInstantiator.forClass(clazz);
+            BeanInstantiator existing = this.instantiatorCache.putIfAbsent(clazz, instantiator);
+            if (existing != null) instantiator = existing;
+        }
+        return instantiator;
+    }
+
+    // 注入点按类缓存，prototype等重复创建的Bean不再重复反射解析
+    InjectionMetadata findInjectionMetadata(Class<?> clazz) {
+        InjectionMetadata metadata = this.injectionMetadataCache.get(clazz);
+        if (metadata == null) {
+            metadata = InjectionMetadata.forClass(clazz);
+            InjectionMetadata existing = this.injectionMetadataCache.putIfAbsent(clazz, metadata);
+            if (existing != null) metadata = existing;
+        }
+        return metadata;
     }
 
     // 创建 Bean 实例
-    private Object instantiateBean(String beanName, BeanDefinition beanDefinition) {
+    private Object createBean(String beanName, final BeanDefinition beanDefinition) throws Exception {
         // 通过反射创建原生对象，完成依赖注入，处理 AOP 相关配置，生成代理对象
         String className = beanDefinition.getBeanClassName();
-        Object instance = null;
+        final Class<?> clazz = Class.forName(className);
 
-        if (this.factoryBeanInstanceCache.containsKey(beanName)) {
-            return this.factoryBeanInstanceCache.get(beanName).getWrapperInstance();
-        }
+        // 创建原生对象：先取得构造器参数，再通过缓存的实例化器调用构造器
+        final Object instance = instantiateBean(beanName, clazz);
 
-        try {
-            //三级缓存
-            Class<?> clazz = Class.forName(className);
+        // 切面实例创建后立即生成共享的通知，这样切面自身依赖的Bean在注入时也能被代理
+        if (this.aspectMetadata == null && this.pointcutMatcher != null && className.equals(this.aopConfig.getAspectClass())) {
+            this.aspectMetadata = new AspectMetadata(this.aopConfig, instance);
+        }
 
-            // 创建原生对象
-            instance = clazz.newInstance();
+        // 提前暴露引用：循环依赖的另一方注入时如需代理则提前生成，保证双方拿到的是同一个最终对象
+        if (beanDefinition.isSingleton()) {
+            this.singletonRegistry.addSingletonFactory(beanName, new SingletonBeanRegistry.SingletonFactory() {
+                @Override
+                public Object getObject() {
+                    return wrapIfNecessary(beanDefinition, clazz, instance);
+                }
+            });
+        }
 
-            this.factoryBeanObjectCache.put(beanName, instance);
+        // 不为空则封装成BeanWrapper
+        BeanWrapper beanWrapper = new BeanWrapper(instance);
+        // 在创建代理类前完成依赖注入
+        populateBean(beanName, beanDefinition, beanWrapper);
 
-            // 不为空则封装成BeanWrapper
-            BeanWrapper beanWrapper = new BeanWrapper(instance);
-            // 在创建代理类前完成依赖注入
-            populateBean(beanName, beanDefinition, beanWrapper);
+        if (beanDefinition.isSingleton()) {
+            Object earlyReference = this.singletonRegistry.getEarlySingletonReference(beanName);
+            if (earlyReference != null) return earlyReference;
+        }
+        return wrapIfNecessary(beanDefinition, clazz, instance);
+    }
 
-            // AOP切面表达式匹配
-            AdviceSupport config = InstantiateAopConfig(beanDefinition);
+    // 满足切面规则则生成代理类，切面类本身不做代理
+    private Object wrapIfNecessary(BeanDefinition beanDefinition, Class<?> clazz, Object instance) {
+        if (isAopSkipped(clazz.getName())) return instance;
 
-            config.setTargetClass(clazz);
-            config.setTarget(instance);
+        // AOP切面表达式匹配
+        AdviceSupport config = InstantiateAopConfig(beanDefinition);
 
-            // 如果满足切面匹配规则则生成代理类
-            if (config.pointCutMatch()) {
-                instance = new JdkDynamicAopProxy(config).getProxy();
-            }
+        config.setTargetClass(clazz);
+        config.setTarget(instance);
 
-            this.factoryBeanObjectCache.put(beanName, instance);
-        } catch (Exception e) {
-            e.printStackTrace();
+        // 如果满足切面匹配规则则生成代理类
+        if (config.pointCutMatch()) {
+            return createAopProxy(config).getProxy();
         }
         return instance;
     }
 
+    // 选择代理引擎：先看 aopProxy.<类名> 的单独配置，再看全局的 aopProxy，默认jdk；没有接口的类只能生成子类
+    private AopProxy createAopProxy(AdviceSupport config) {
+        Class<?> targetClass = config.getTargetClass();
+        String proxyType = getConfig().getProperty("aopProxy." + targetClass.getName(),
+                getConfig().getProperty("aopProxy", AopProxy.JDK));
+        if (AopProxy.SUBCLASS.equals(proxyType.trim()) || targetClass.getInterfaces().length == 0) {
+            return new SubclassAopProxy(config);
+        }
+        return new JdkDynamicAopProxy(config);
+    }
+
+    private boolean isAopSkipped(String className) {
+        return this.aopConfig.getPointCut() == null || this.aopConfig.getAspectClass() == null
+                || className.equals(this.aopConfig.getAspectClass());
+    }
+
+    // 切面表达式和切面实例在容器内只解析一次，所有Bean共用
+    private void prepareAopConfig() throws ClassNotFoundException {
+        if (isAopSkipped("")) return;
+        if (this.pointcutMatcher == null) {
+            this.pointcutMatcher = new PointcutMatcher(this.aopConfig.getPointCut());
+        }
+        // 切面实例创建时会一并生成aspectMetadata
+        getBean(this.aopConfig.getAspectClass());
+    }
+
     // 实例化 AOP 配置
     private AdviceSupport InstantiateAopConfig(BeanDefinition beanDefinition) {
+        return new AdviceSupport(this.aopConfig, this.pointcutMatcher, this.aspectMetadata);
+    }
+
+    private AopConfig loadAopConfig() {
         AopConfig config = new AopConfig();
         config.setPointCut(this.reader.getConfig().getProperty("pointCut"));
         config.setAspectBefore(this.reader.getConfig().getProperty("aspectBefore"));
         config.setAspectAfter(this.reader.getConfig().getProperty("aspectAfter"));
         config.setAspectAfterThrow(this.reader.getConfig().getProperty("aspectAfterThrow"));
         config.setAspectAfterThrowingName(this.reader.getConfig().getProperty("aspectAfterThrowingName"));
+        config.setAspectAround(this.reader.getConfig().getProperty("aspectAround"));
         config.setAspectClass(this.reader.getConfig().getProperty("aspectClass"));
-        return new AdviceSupport(config);
+        config.setMethodInvoker(this.reader.getConfig().getProperty("methodInvoker"));
+        return config;
     }
 
     public Object getBean(Class className) throws ClassNotFoundException {
@@ -191,6 +522,10 @@ public class ApplicationContext {
         return this.beanDefinitionMap.size();
     }
 
+    public BeanDefinition getBeanDefinition(String beanName) {
+        return this.beanDefinitionMap.get(beanName);
+    }
+
     public String[] getBeanDefinitionNames() {
         return this.beanDefinitionMap.keySet().toArray(new String[0]);
     }
@@ -198,4 +533,33 @@ public class ApplicationContext {
     public Properties getConfig() {
         return this.reader.getConfig();
     }
+
+    BeanDefinitionReader getBeanDefinitionReader() {
+        return this.reader;
+    }
+
+    public ContextSnapshot getSnapshot() {
+        return this.snapshot;
+    }
+
+    List<BeanDefinition> getRegisteredBeanDefinitions() {
+        return this.loadedBeanDefinitions;
+    }
+
+    BeanDependencyGraph getDependencyGraph() {
+        return this.dependencyGraph;
+    }
+
+    PointcutMatcher getPointcutMatcher() {
+        return this.pointcutMatcher;
+    }
+
+    // 所有Bean类，类名 -> Class
+    Map<String, Class<?>> getBeanClasses() throws ClassNotFoundException {
+        Map<String, Class<?>> result = new TreeMap<>();
+        for (String className : this.beanClassNames) {
+            result.put(className, Class.forName(className));
+        }
+        return result;
+    }
 }
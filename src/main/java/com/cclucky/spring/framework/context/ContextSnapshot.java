@@ -0,0 +1,447 @@
+package com.cclucky.spring.framework.context;
+
+import com.cclucky.spring.beans.config.BeanDefinition;
+import com.cclucky.spring.beans.support.BeanDefinitionReader;
+import com.cclucky.spring.beans.support.BeanDependencyGraph;
+import com.cclucky.spring.beans.support.BeanInstantiator;
+import com.cclucky.spring.beans.support.ClassUtils;
+import com.cclucky.spring.beans.support.InjectionMetadata;
+import com.cclucky.spring.framework.aop.support.PointcutMatcher;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * 构建时生成的上下文快照：Bean定义、依赖图和创建顺序、每个Bean类的构造器和注入点、切面匹配结果以及映射方法表
+ * 以紧凑的二进制格式保存，启动时直接读取，不再扫描包、解析切面表达式和检查注解
+ * 快照记录了生成时的配置、候选组件列表、扫描包的类文件摘要和每个Bean类及其父类、接口的类文件CRC，任何一项不一致都视为过期，回到正常启动流程
+ */
+public class ContextSnapshot {
+
+    public static final String DEFAULT_LOCATION = "META-INF/cc-spring.snapshot";
+
+    private static final int MAGIC = 0x43435350;
+    private static final int VERSION = 4;
+
+    private static final byte FIELD = 'F';
+    private static final byte METHOD = 'M';
+
+    private final Map<String, String> config = new TreeMap<>();
+    // 索引或扫描得到的组件类名，以及扫描包下类文件的摘要
+    private final List<String> candidateComponents = new ArrayList<>();
+    private long classpathFingerprint;
+    private final List<BeanDefinition> beanDefinitions = new ArrayList<>();
+    private final Map<String, BeanClass> beanClasses = new LinkedHashMap<>();
+    private final List<List<String>> components = new ArrayList<>();
+    // 生成快照时没有指定MappedMethodDetector则为null，与“没有映射方法”区分开
+    private List<MappedMethod> mappedMethods;
+
+    private ContextSnapshot() {
+    }
+
+    /**
+     * 从一个已经完成启动的容器中提取快照，mappedMethods为null表示没有提取映射方法
+     */
+    static ContextSnapshot capture(ApplicationContext context, List<MappedMethod> mappedMethods)
+            throws IOException, ClassNotFoundException {
+        ContextSnapshot snapshot = new ContextSnapshot();
+        Properties properties = context.getConfig();
+        for (String key : properties.stringPropertyNames()) {
+            snapshot.config.put(key, properties.getProperty(key));
+        }
+        BeanDefinitionReader reader = context.getBeanDefinitionReader();
+        snapshot.candidateComponents.addAll(reader.getCandidateComponents());
+        snapshot.classpathFingerprint = reader.getClasspathFingerprint();
+        snapshot.beanDefinitions.addAll(context.getRegisteredBeanDefinitions());
+
+        BeanDependencyGraph graph = context.getDependencyGraph();
+        PointcutMatcher pointcutMatcher = context.getPointcutMatcher();
+        for (Map.Entry<String, Class<?>> entry : context.getBeanClasses().entrySet()) {
+            Class<?> clazz = entry.getValue();
+            BeanClass beanClass = new BeanClass(entry.getKey());
+            beanClass.supertypes = getSupertypeNames(clazz);
+            beanClass.crc = checksum(clazz.getClassLoader(), entry.getKey(), beanClass.supertypes);
+            beanClass.dependencies.addAll(graph.getDependencies(entry.getKey()));
+            beanClass.constructorParameterTypes = ClassUtils.getNames(
+                    context.findInstantiator(clazz).getConstructor().getParameterTypes());
+            for (InjectionMetadata.InjectedElement element : context.findInjectionMetadata(clazz).getElements()) {
+                beanClass.injectionPoints.add(InjectionPoint.of(element));
+            }
+            if (pointcutMatcher != null) {
+                beanClass.pointcutMatched = pointcutMatcher.matches(clazz);
+                for (Method method : pointcutMatcher.getMatchedMethods(clazz)) {
+                    beanClass.advisedMethods.add(new MethodSignature(method.getDeclaringClass().getName(),
+                            method.getName(), ClassUtils.getNames(method.getParameterTypes())));
+                }
+            }
+            snapshot.beanClasses.put(entry.getKey(), beanClass);
+        }
+        snapshot.components.addAll(graph.getComponents());
+        snapshot.mappedMethods = mappedMethods != null ? new ArrayList<>(mappedMethods) : null;
+        return snapshot;
+    }
+
+    /**
+     * 读取classpath上的快照，不存在或与当前配置、组件、类文件不一致时返回null
+     * 类文件摘要一致时不再扫描；不一致时（例如重新编译了非组件类）重新索引或扫描，比较候选组件列表
+     */
+    static ContextSnapshot load(ClassLoader classLoader, String location, BeanDefinitionReader reader) throws IOException {
+        InputStream in = classLoader.getResourceAsStream(location);
+        if (in == null) return null;
+
+        ContextSnapshot snapshot;
+        try {
+            snapshot = read(new DataInputStream(new BufferedInputStream(in)));
+        } finally {
+            in.close();
+        }
+        if (snapshot == null) {
+            System.out.println("Ignoring context snapshot " + location + ": unsupported format");
+            return null;
+        }
+
+        Properties currentConfig = reader.getConfig();
+        Map<String, String> config = new TreeMap<>();
+        for (String key : currentConfig.stringPropertyNames()) {
+            config.put(key, currentConfig.getProperty(key));
+        }
+        if (!config.equals(snapshot.config)) {
+            System.out.println("Ignoring context snapshot " + location + ": configuration changed");
+            return null;
+        }
+        if (reader.getClasspathFingerprint() != snapshot.classpathFingerprint
+                && !reader.getCandidateComponents().equals(snapshot.candidateComponents)) {
+            System.out.println("Ignoring context snapshot " + location + ": components changed");
+            return null;
+        }
+        for (BeanClass beanClass : snapshot.beanClasses.values()) {
+            // 父类或接口变化（例如父类新增了@Autowired字段）同样影响注入点，它们的类文件也计入CRC
+            if (checksum(classLoader, beanClass.className, beanClass.supertypes) != beanClass.crc) {
+                System.out.println("Ignoring context snapshot " + location + ": " + beanClass.className + " changed");
+                return null;
+            }
+        }
+        return snapshot;
+    }
+
+    // Bean类及其父类、接口的类文件内容的CRC，用于判断快照是否过期；Bean类文件不存在时返回-1
+    static long checksum(ClassLoader classLoader, String className, String[] supertypes) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[4096];
+        if (!update(crc, buffer, classLoader, className)) return -1;
+        for (String supertype : supertypes) {
+            update(crc, buffer, classLoader, supertype);
+        }
+        return crc.getValue();
+    }
+
+    private static boolean update(CRC32 crc, byte[] buffer, ClassLoader classLoader, String className) throws IOException {
+        InputStream in = classLoader.getResourceAsStream(className.replace('.', '/') + ".class");
+        if (in == null) return false;
+        try {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, n);
+            }
+        } finally {
+            in.close();
+        }
+        return true;
+    }
+
+    // 所有父类和接口（含间接的），跳过JDK的类型
+    static String[] getSupertypeNames(Class<?> clazz) {
+        Set<String> names = new LinkedHashSet<>();
+        collectSupertypes(clazz, names);
+        return names.toArray(new String[0]);
+    }
+
+    private static void collectSupertypes(Class<?> clazz, Set<String> names) {
+        List<Class<?>> supertypes = new ArrayList<>(Arrays.asList(clazz.getInterfaces()));
+        if (clazz.getSuperclass() != null) {
+            supertypes.add(0, clazz.getSuperclass());
+        }
+        for (Class<?> supertype : supertypes) {
+            if (supertype.getClassLoader() == null || supertype.getName().startsWith("java.")) continue;
+            if (names.add(supertype.getName())) {
+                collectSupertypes(supertype, names);
+            }
+        }
+    }
+
+    public void write(File file) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            write(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        out.writeInt(this.config.size());
+        for (Map.Entry<String, String> entry : this.config.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(entry.getValue());
+        }
+        writeStrings(out, this.candidateComponents.toArray(new String[0]));
+        out.writeLong(this.classpathFingerprint);
+
+        out.writeInt(this.beanDefinitions.size());
+        for (BeanDefinition beanDefinition : this.beanDefinitions) {
+            out.writeUTF(beanDefinition.getFactoryBeanName());
+            out.writeUTF(beanDefinition.getBeanClassName());
+            out.writeUTF(beanDefinition.getScope());
+            out.writeBoolean(beanDefinition.isLazyInit());
+        }
+
+        out.writeInt(this.beanClasses.size());
+        for (BeanClass beanClass : this.beanClasses.values()) {
+            out.writeUTF(beanClass.className);
+            out.writeLong(beanClass.crc);
+            writeStrings(out, beanClass.supertypes);
+            writeStrings(out, beanClass.dependencies.toArray(new String[0]));
+            writeStrings(out, beanClass.constructorParameterTypes);
+            out.writeInt(beanClass.injectionPoints.size());
+            for (InjectionPoint point : beanClass.injectionPoints) {
+                out.writeByte(point.kind);
+                out.writeUTF(point.declaringClass);
+                out.writeUTF(point.name);
+                out.writeUTF(point.parameterType);
+                out.writeUTF(point.beanName);
+            }
+            out.writeBoolean(beanClass.pointcutMatched);
+            out.writeInt(beanClass.advisedMethods.size());
+            for (MethodSignature method : beanClass.advisedMethods) {
+                out.writeUTF(method.declaringClass);
+                out.writeUTF(method.name);
+                writeStrings(out, method.parameterTypes);
+            }
+        }
+
+        out.writeInt(this.components.size());
+        for (List<String> component : this.components) {
+            writeStrings(out, component.toArray(new String[0]));
+        }
+
+        out.writeBoolean(this.mappedMethods != null);
+        if (this.mappedMethods == null) return;
+        out.writeInt(this.mappedMethods.size());
+        for (MappedMethod mappedMethod : this.mappedMethods) {
+            out.writeUTF(mappedMethod.getBeanName());
+            out.writeUTF(mappedMethod.getPath());
+            out.writeUTF(mappedMethod.getMethodName());
+            writeStrings(out, mappedMethod.getParameterTypeNames());
+        }
+    }
+
+    // 魔数或版本不符时返回null
+    private static ContextSnapshot read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+        ContextSnapshot snapshot = new ContextSnapshot();
+
+        int configCount = in.readInt();
+        for (int i = 0; i < configCount; i++) {
+            snapshot.config.put(in.readUTF(), in.readUTF());
+        }
+        snapshot.candidateComponents.addAll(Arrays.asList(readStrings(in)));
+        snapshot.classpathFingerprint = in.readLong();
+
+        int definitionCount = in.readInt();
+        for (int i = 0; i < definitionCount; i++) {
+            BeanDefinition beanDefinition = new BeanDefinition();
+            beanDefinition.setFactoryBeanName(in.readUTF());
+            beanDefinition.setBeanClassName(in.readUTF());
+            beanDefinition.setScope(in.readUTF());
+            beanDefinition.setLazyInit(in.readBoolean());
+            snapshot.beanDefinitions.add(beanDefinition);
+        }
+
+        int classCount = in.readInt();
+        for (int i = 0; i < classCount; i++) {
+            BeanClass beanClass = new BeanClass(in.readUTF());
+            beanClass.crc = in.readLong();
+            beanClass.supertypes = readStrings(in);
+            beanClass.dependencies.addAll(Arrays.asList(readStrings(in)));
+            beanClass.constructorParameterTypes = readStrings(in);
+            int pointCount = in.readInt();
+            for (int j = 0; j < pointCount; j++) {
+                beanClass.injectionPoints.add(new InjectionPoint(in.readByte(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF()));
+            }
+            beanClass.pointcutMatched = in.readBoolean();
+            int methodCount = in.readInt();
+            for (int j = 0; j < methodCount; j++) {
+                beanClass.advisedMethods.add(new MethodSignature(in.readUTF(), in.readUTF(), readStrings(in)));
+            }
+            snapshot.beanClasses.put(beanClass.className, beanClass);
+        }
+
+        int componentCount = in.readInt();
+        for (int i = 0; i < componentCount; i++) {
+            snapshot.components.add(Arrays.asList(readStrings(in)));
+        }
+
+        if (!in.readBoolean()) return snapshot;
+        snapshot.mappedMethods = new ArrayList<>();
+        int mappingCount = in.readInt();
+        for (int i = 0; i < mappingCount; i++) {
+            snapshot.mappedMethods.add(new MappedMethod(in.readUTF(), in.readUTF(), in.readUTF(), readStrings(in)));
+        }
+        return snapshot;
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values.length);
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        String[] values = new String[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readUTF();
+        }
+        return values;
+    }
+
+    public List<BeanDefinition> getBeanDefinitions() {
+        return beanDefinitions;
+    }
+
+    public List<List<String>> getComponents() {
+        return components;
+    }
+
+    // 生成快照时由 MappedMethodDetector 找到的映射方法，没有提取时返回null
+    public List<MappedMethod> getMappedMethods() {
+        return mappedMethods;
+    }
+
+    public BeanDependencyGraph getDependencyGraph() {
+        BeanDependencyGraph graph = new BeanDependencyGraph();
+        for (BeanClass beanClass : this.beanClasses.values()) {
+            graph.addNode(beanClass.className);
+            for (String dependency : beanClass.dependencies) {
+                graph.addDependency(beanClass.className, dependency);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * 把快照中的构造器和注入点恢复成可以直接使用的对象，成员找不到时抛出异常
+     */
+    void restoreInjection(ClassLoader classLoader, Map<Class<?>, BeanInstantiator> instantiators,
+                          Map<Class<?>, InjectionMetadata> injectionMetadata) throws ReflectiveOperationException {
+        for (BeanClass beanClass : this.beanClasses.values()) {
+            Class<?> clazz = Class.forName(beanClass.className, false, classLoader);
+            instantiators.put(clazz, BeanInstantiator.forConstructor(
+                    clazz.getDeclaredConstructor(ClassUtils.forNames(beanClass.constructorParameterTypes, classLoader))));
+
+            List<InjectionMetadata.InjectedElement> elements = new ArrayList<>();
+            for (InjectionPoint point : beanClass.injectionPoints) {
+                Class<?> declaringClass = Class.forName(point.declaringClass, false, classLoader);
+                if (point.kind == FIELD) {
+                    elements.add(InjectionMetadata.forField(declaringClass.getDeclaredField(point.name), point.beanName));
+                } else {
+                    Method method = declaringClass.getDeclaredMethod(point.name, ClassUtils.forName(point.parameterType, classLoader));
+                    elements.add(InjectionMetadata.forMethod(method, point.beanName));
+                }
+            }
+            injectionMetadata.put(clazz, InjectionMetadata.of(clazz, elements));
+        }
+    }
+
+    // 把快照中的切面匹配结果登记到匹配器
+    void restorePointcutMatches(ClassLoader classLoader, PointcutMatcher pointcutMatcher) throws ReflectiveOperationException {
+        for (BeanClass beanClass : this.beanClasses.values()) {
+            Method[] methods = new Method[beanClass.advisedMethods.size()];
+            for (int i = 0; i < methods.length; i++) {
+                MethodSignature signature = beanClass.advisedMethods.get(i);
+                methods[i] = Class.forName(signature.declaringClass, false, classLoader)
+                        .getMethod(signature.name, ClassUtils.forNames(signature.parameterTypes, classLoader));
+            }
+            pointcutMatcher.preload(Class.forName(beanClass.className, false, classLoader), beanClass.pointcutMatched, methods);
+        }
+    }
+
+    private static class BeanClass {
+        private final String className;
+        private long crc;
+        private String[] supertypes;
+        private final List<String> dependencies = new ArrayList<>();
+        private String[] constructorParameterTypes;
+        private final List<InjectionPoint> injectionPoints = new ArrayList<>();
+        private boolean pointcutMatched;
+        private final List<MethodSignature> advisedMethods = new ArrayList<>();
+
+        private BeanClass(String className) {
+            this.className = className;
+        }
+    }
+
+    private static class InjectionPoint {
+        private final byte kind;
+        private final String declaringClass;
+        private final String name;
+        // 字段为空串
+        private final String parameterType;
+        private final String beanName;
+
+        private InjectionPoint(byte kind, String declaringClass, String name, String parameterType, String beanName) {
+            this.kind = kind;
+            this.declaringClass = declaringClass;
+            this.name = name;
+            this.parameterType = parameterType;
+            this.beanName = beanName;
+        }
+
+        private static InjectionPoint of(InjectionMetadata.InjectedElement element) {
+            Member member = element.getMember();
+            if (member instanceof Field) {
+                return new InjectionPoint(FIELD, member.getDeclaringClass().getName(), member.getName(), "", element.getBeanName());
+            }
+            return new InjectionPoint(METHOD, member.getDeclaringClass().getName(), member.getName(),
+                    ((Method) member).getParameterTypes()[0].getName(), element.getBeanName());
+        }
+    }
+
+    private static class MethodSignature {
+        private final String declaringClass;
+        private final String name;
+        private final String[] parameterTypes;
+
+        private MethodSignature(String declaringClass, String name, String[] parameterTypes) {
+            this.declaringClass = declaringClass;
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.cclucky.spring.framework.context;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * 构建时生成上下文快照：按正常流程启动一次容器，把解析结果写入 target/classes/META-INF/cc-spring.snapshot
+ * 参数：[配置文件位置] [输出文件] [MappedMethodDetector实现类]，由 aot profile 在 process-classes 阶段执行
+ * 不指定实现类时快照中标记为未提取映射方法，启动时仍按注解查找
+ */
+public class ContextSnapshotWriter {
+
+    public static void main(String[] args) throws Exception {
+        String configLocation = args.length > 0 ? args[0] : "classpath:application.properties";
+        File output = new File(args.length > 1 ? args[1] : "target/classes/" + ContextSnapshot.DEFAULT_LOCATION);
+
+        // 忽略已有的快照，始终重新解析
+        ApplicationContext context = new ApplicationContext(false, configLocation);
+        List<MappedMethod> mappedMethods = null;
+        if (args.length > 2) {
+            MappedMethodDetector detector = (MappedMethodDetector) Class.forName(args[2]).getDeclaredConstructor().newInstance();
+            mappedMethods = detector.detect(context);
+        }
+        ContextSnapshot snapshot = ContextSnapshot.capture(context, mappedMethods);
+        snapshot.write(output);
+
+        System.out.println("Context snapshot written to " + output.getPath() + " (" + output.length() + " bytes)");
+    }
+}
@@ -0,0 +1,45 @@
+package com.cclucky.spring.framework.context;
+
+import com.cclucky.spring.beans.support.ClassUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * 映射到某个路径的Bean方法：所属的beanName、路径和方法签名
+ * 只记录名称，可以写入上下文快照；使用方启动时再解析成实际的方法
+ */
+public class MappedMethod {
+
+    private final String beanName;
+    private final String path;
+    private final String methodName;
+    private final String[] parameterTypeNames;
+
+    public MappedMethod(String beanName, String path, String methodName, String[] parameterTypeNames) {
+        this.beanName = beanName;
+        this.path = path;
+        this.methodName = methodName;
+        this.parameterTypeNames = parameterTypeNames;
+    }
+
+    // 在Bean的实际类型上找到映射的方法
+    public Method resolveMethod(Class<?> clazz) throws ClassNotFoundException, NoSuchMethodException {
+        return clazz.getMethod(this.methodName, ClassUtils.forNames(this.parameterTypeNames, clazz.getClassLoader()));
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public String[] getParameterTypeNames() {
+        return parameterTypeNames.clone();
+    }
+}
@@ -0,0 +1,12 @@
+package com.cclucky.spring.framework.context;
+
+import java.util.List;
+
+/**
+ * 在启动完成的容器中查找映射方法，结果可以写入上下文快照
+ * 由上层模块实现，例如 webmvc 的 RequestMappingDetector，容器本身不依赖它们
+ */
+public interface MappedMethodDetector {
+
+    List<MappedMethod> detect(ApplicationContext context) throws Exception;
+}
@@ -0,0 +1,25 @@
+package com.cclucky.spring.framework.context;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 绑定在当前请求线程上的request作用域Bean，由DispatcherServlet在请求开始时绑定、结束时清除
+ */
+public abstract class RequestContextHolder {
+
+    private static final ThreadLocal<Map<String, Object>> requestBeans = new ThreadLocal<>();
+
+    public static void bindRequest() {
+        requestBeans.set(new HashMap<String, Object>());
+    }
+
+    public static void resetRequest() {
+        requestBeans.remove();
+    }
+
+    // 当前线程没有绑定请求时返回null
+    public static Map<String, Object> getRequestBeans() {
+        return requestBeans.get();
+    }
+}
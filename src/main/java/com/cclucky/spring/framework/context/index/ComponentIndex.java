@@ -0,0 +1,185 @@
+package com.cclucky.spring.framework.context.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * 编译期生成的组件索引 META-INF/cc-spring.components
+ * 每行一个组件：类名=beanName,接口1,接口2...[;scope=prototype][;lazy=true]，作用域和延迟创建只在非默认值时写出
+ * META-INF/cc-spring.types 记录生成索引时编译的所有顶层类，每行一个类名
+ */
+public class ComponentIndex {
+
+    public static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/cc-spring.components";
+    public static final String TYPES_RESOURCE_LOCATION = "META-INF/cc-spring.types";
+
+    private final Map<String, Component> components;
+    // 生成索引时编译的顶层类，旧版本的索引没有记录时为null
+    private final Set<String> types;
+
+    private ComponentIndex(Map<String, Component> components, Set<String> types) {
+        this.components = components;
+        this.types = types;
+    }
+
+    // 类名首字母小写，注解处理器和扫描共用，保证两种方式得到的beanName相同
+    public static String defaultBeanName(String simpleName) {
+        return Character.toLowerCase(simpleName.charAt(0)) + simpleName.substring(1);
+    }
+
+    // 合并classpath上所有的索引文件，没有索引时返回null
+    public static ComponentIndex load(ClassLoader classLoader) throws IOException {
+        Enumeration<URL> urls = classLoader.getResources(COMPONENTS_RESOURCE_LOCATION);
+        if (!urls.hasMoreElements()) return null;
+
+        Map<String, Component> components = new TreeMap<>();
+        while (urls.hasMoreElements()) {
+            Properties properties = new Properties();
+            // 注解处理器以UTF-8写出索引，Properties.load(InputStream)会按ISO-8859-1读取
+            Reader reader = new InputStreamReader(urls.nextElement().openStream(), StandardCharsets.UTF_8);
+            try {
+                properties.load(reader);
+            } finally {
+                reader.close();
+            }
+            for (String className : properties.stringPropertyNames()) {
+                components.put(className, parse(className, properties.getProperty(className)));
+            }
+        }
+        return new ComponentIndex(components, loadTypes(classLoader));
+    }
+
+    private static Set<String> loadTypes(ClassLoader classLoader) throws IOException {
+        Enumeration<URL> urls = classLoader.getResources(TYPES_RESOURCE_LOCATION);
+        if (!urls.hasMoreElements()) return null;
+
+        Set<String> types = new HashSet<>();
+        while (urls.hasMoreElements()) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(urls.nextElement().openStream(), StandardCharsets.UTF_8));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.trim().isEmpty()) types.add(line.trim());
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return types;
+    }
+
+    // classpath上所有索引文件内容的CRC，没有索引时为0
+    public static long checksum(ClassLoader classLoader) throws IOException {
+        CRC32 crc = new CRC32();
+        Enumeration<URL> urls = classLoader.getResources(COMPONENTS_RESOURCE_LOCATION);
+        while (urls.hasMoreElements()) {
+            InputStream in = urls.nextElement().openStream();
+            try {
+                byte[] buffer = new byte[4096];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    crc.update(buffer, 0, n);
+                }
+            } finally {
+                in.close();
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static Component parse(String className, String value) {
+        String[] parts = value.split(";");
+        List<String> names = Arrays.asList(parts[0].split(","));
+        Component component = new Component(className, names.get(0), names.subList(1, names.size()));
+        for (int i = 1; i < parts.length; i++) {
+            int separator = parts[i].indexOf('=');
+            if (separator == -1) continue;
+            String key = parts[i].substring(0, separator).trim();
+            String attribute = parts[i].substring(separator + 1).trim();
+            if ("scope".equals(key)) {
+                component.scope = attribute;
+            } else if ("lazy".equals(key)) {
+                component.lazy = Boolean.parseBoolean(attribute);
+            }
+        }
+        return component;
+    }
+
+    /**
+     * 索引生成后扫描包下的类是否有增删：classNames为classpath上实际存在的顶层类
+     * 增量编译或未运行注解处理器的编译会留下过期的索引，此时不能使用
+     */
+    public boolean isUpToDate(String basePackage, Collection<String> classNames) {
+        if (this.types == null) return false;
+        Set<String> indexed = new HashSet<>();
+        String prefix = basePackage + ".";
+        for (String type : this.types) {
+            if (type.startsWith(prefix)) indexed.add(type);
+        }
+        return indexed.equals(new HashSet<>(classNames));
+    }
+
+    // 扫描包下的组件，按类名排序
+    public List<Component> getComponents(String basePackage) {
+        List<Component> result = new ArrayList<>();
+        String prefix = basePackage + ".";
+        for (Map.Entry<String, Component> component : this.components.entrySet()) {
+            if (component.getKey().startsWith(prefix)) {
+                result.add(component.getValue());
+            }
+        }
+        return result;
+    }
+
+    public static class Component {
+        private final String className;
+        private final String beanName;
+        private final List<String> interfaceNames;
+        private String scope;
+        private boolean lazy;
+
+        private Component(String className, String beanName, List<String> interfaceNames) {
+            this.className = className;
+            this.beanName = beanName;
+            this.interfaceNames = Collections.unmodifiableList(new ArrayList<>(interfaceNames));
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getBeanName() {
+            return beanName;
+        }
+
+        public List<String> getInterfaceNames() {
+            return interfaceNames;
+        }
+
+        // 索引中没有记录时为null，表示默认的单例
+        public String getScope() {
+            return scope;
+        }
+
+        public boolean isLazy() {
+            return lazy;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.cclucky.spring.framework.context.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 编译期注解处理器：收集@Service、@Controller标注的类，写入组件索引
+ * 同时记录本次编译的所有顶层类，启动时据此判断索引是否和类文件一致
+ * 启动时BeanDefinitionReader直接读取索引，不再扫描目录、加载每个类
+ */
+@SupportedAnnotationTypes({
+        "com.cclucky.spring.framework.annotation.Service",
+        "com.cclucky.spring.framework.annotation.Controller"
+})
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+    private final Map<String, String> components = new TreeMap<>();
+    private final Set<String> types = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            if (element instanceof TypeElement) this.types.add(binaryName((TypeElement) element));
+        }
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) continue;
+                TypeElement type = (TypeElement) element;
+                this.components.put(binaryName(type), describe(type, annotation));
+            }
+        }
+        if (roundEnv.processingOver() && !this.components.isEmpty()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    // beanName,接口1,接口2...[;scope=...][;lazy=true]
+    private String describe(TypeElement type, TypeElement annotation) {
+        String simpleName = type.getSimpleName().toString();
+        StringBuilder sb = new StringBuilder();
+        sb.append(ComponentIndex.defaultBeanName(simpleName));
+        for (TypeMirror i : type.getInterfaces()) {
+            sb.append(',').append(binaryName((TypeElement) ((DeclaredType) i).asElement()));
+        }
+        // 只记录注解上显式设置的属性，按名称取值，处理器不依赖注解类本身
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            if (!mirror.getAnnotationType().asElement().equals(annotation)) continue;
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : mirror.getElementValues().entrySet()) {
+                String name = value.getKey().getSimpleName().toString();
+                if ("scope".equals(name) || "lazy".equals(name)) {
+                    sb.append(';').append(name).append('=').append(value.getValue().getValue());
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private String binaryName(TypeElement type) {
+        return this.processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    private void writeIndex() {
+        try {
+            FileObject file = this.processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.COMPONENTS_RESOURCE_LOCATION);
+            Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8);
+            try {
+                for (Map.Entry<String, String> component : this.components.entrySet()) {
+                    writer.write(component.getKey() + "=" + component.getValue() + "\n");
+                }
+            } finally {
+                writer.close();
+            }
+
+            FileObject typesFile = this.processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.TYPES_RESOURCE_LOCATION);
+            Writer typesWriter = new OutputStreamWriter(typesFile.openOutputStream(), StandardCharsets.UTF_8);
+            try {
+                for (String type : this.types) {
+                    typesWriter.write(type + "\n");
+                }
+            } finally {
+                typesWriter.close();
+            }
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write component index: " + e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.cclucky.spring.framework.invoke;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 通过LambdaMetafactory为方法生成一个直接调用目标方法的类，调用路径上只剩一次接口调用和参数的类型转换
+ * 只支持public类的public实例方法、有返回值、参数不超过4个的情况，其余情况由MethodInvokers退回到MethodHandle
+ */
+public class GeneratedMethodInvoker implements MethodInvoker {
+
+    static final int MAX_ARITY = 4;
+
+    private static final Class<?>[] SAM_TYPES = {Invoker0.class, Invoker1.class, Invoker2.class, Invoker3.class, Invoker4.class};
+
+    private final Object invoker;
+    private final int arity;
+
+    public GeneratedMethodInvoker(Method method) throws Throwable {
+        if (!isSupported(method)) {
+            throw new IllegalArgumentException("Cannot generate invoker for " + method);
+        }
+        this.arity = method.getParameterTypes().length;
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle implMethod = lookup.unreflect(method);
+
+        Class<?>[] instantiatedParams = new Class<?>[this.arity + 1];
+        instantiatedParams[0] = method.getDeclaringClass();
+        for (int i = 0; i < this.arity; i++) {
+            instantiatedParams[i + 1] = MethodType.methodType(method.getParameterTypes()[i]).wrap().returnType();
+        }
+        MethodType instantiatedType = MethodType.methodType(
+                MethodType.methodType(method.getReturnType()).wrap().returnType(), instantiatedParams);
+
+        Class<?> samType = SAM_TYPES[this.arity];
+        CallSite callSite = LambdaMetafactory.metafactory(lookup, "invoke",
+                MethodType.methodType(samType), MethodType.genericMethodType(this.arity + 1),
+                implMethod, instantiatedType);
+        this.invoker = callSite.getTarget().invoke();
+    }
+
+    static boolean isSupported(Method method) {
+        return Modifier.isPublic(method.getModifiers())
+                && Modifier.isPublic(method.getDeclaringClass().getModifiers())
+                && !Modifier.isStatic(method.getModifiers())
+                && method.getReturnType() != void.class
+                && method.getParameterTypes().length <= MAX_ARITY;
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws Throwable {
+        switch (this.arity) {
+            case 0:
+                return ((Invoker0) this.invoker).invoke(target);
+            case 1:
+                return ((Invoker1) this.invoker).invoke(target, args[0]);
+            case 2:
+                return ((Invoker2) this.invoker).invoke(target, args[0], args[1]);
+            case 3:
+                return ((Invoker3) this.invoker).invoke(target, args[0], args[1], args[2]);
+            default:
+                return ((Invoker4) this.invoker).invoke(target, args[0], args[1], args[2], args[3]);
+        }
+    }
+
+    public interface Invoker0 {
+        Object invoke(Object target) throws Throwable;
+    }
+
+    public interface Invoker1 {
+        Object invoke(Object target, Object a0) throws Throwable;
+    }
+
+    public interface Invoker2 {
+        Object invoke(Object target, Object a0, Object a1) throws Throwable;
+    }
+
+    public interface Invoker3 {
+        Object invoke(Object target, Object a0, Object a1, Object a2) throws Throwable;
+    }
+
+    public interface Invoker4 {
+        Object invoke(Object target, Object a0, Object a1, Object a2, Object a3) throws Throwable;
+    }
+}
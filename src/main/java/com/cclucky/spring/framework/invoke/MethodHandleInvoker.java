@@ -0,0 +1,33 @@
+package com.cclucky.spring.framework.invoke;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 基于MethodHandle的调用器，创建时把方法统一适配成 (Object, Object[])Object，调用时invokeExact
+ */
+public class MethodHandleInvoker implements MethodInvoker {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final MethodHandle handle;
+
+    public MethodHandleInvoker(Method method) throws IllegalAccessException {
+        method.setAccessible(true);
+        MethodHandle mh = MethodHandles.lookup().unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            // 静态方法补一个忽略的接收者参数
+            mh = MethodHandles.dropArguments(mh, 0, Object.class);
+        }
+        this.handle = mh.asSpreader(Object[].class, method.getParameterTypes().length).asType(INVOKER_TYPE);
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws Throwable {
+        Object[] actualArgs = args == null ? MethodInvokers.NO_ARGS : args;
+        return (Object) this.handle.invokeExact(target, actualArgs);
+    }
+}
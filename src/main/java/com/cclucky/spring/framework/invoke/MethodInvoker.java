@@ -0,0 +1,9 @@
+package com.cclucky.spring.framework.invoke;
+
+/**
+ * 方法调用器，在创建HandlerMapping、代理对象时为每个方法生成一次，调用时不再经过反射的访问检查
+ * 目标方法抛出的异常原样抛出，不再包装成InvocationTargetException
+ */
+public interface MethodInvoker {
+    Object invoke(Object target, Object[] args) throws Throwable;
+}
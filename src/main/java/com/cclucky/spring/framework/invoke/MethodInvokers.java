@@ -0,0 +1,37 @@
+package com.cclucky.spring.framework.invoke;
+
+import java.lang.reflect.Method;
+
+/**
+ * 按配置的 methodInvoker 类型创建调用器：
+ * reflect - Method.invoke
+ * methodHandle - MethodHandle（默认）
+ * generated - LambdaMetafactory生成的直接调用类，不支持的方法退回到MethodHandle
+ */
+public class MethodInvokers {
+
+    public static final String REFLECT = "reflect";
+    public static final String METHOD_HANDLE = "methodHandle";
+    public static final String GENERATED = "generated";
+
+    static final Object[] NO_ARGS = new Object[0];
+
+    private MethodInvokers() {
+    }
+
+    public static MethodInvoker create(Method method, String type) {
+        if (REFLECT.equals(type)) {
+            return new ReflectiveMethodInvoker(method);
+        }
+        try {
+            if (GENERATED.equals(type) && GeneratedMethodInvoker.isSupported(method)) {
+                return new GeneratedMethodInvoker(method);
+            }
+            return new MethodHandleInvoker(method);
+        } catch (Throwable e) {
+            // 无法生成时退回到反射调用
+            e.printStackTrace();
+            return new ReflectiveMethodInvoker(method);
+        }
+    }
+}
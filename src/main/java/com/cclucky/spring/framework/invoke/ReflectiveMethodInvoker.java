@@ -0,0 +1,26 @@
+package com.cclucky.spring.framework.invoke;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * 基于Method.invoke的调用器，作为对照和兜底实现
+ */
+public class ReflectiveMethodInvoker implements MethodInvoker {
+
+    private final Method method;
+
+    public ReflectiveMethodInvoker(Method method) {
+        this.method = method;
+        this.method.setAccessible(true);
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws Throwable {
+        try {
+            return this.method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
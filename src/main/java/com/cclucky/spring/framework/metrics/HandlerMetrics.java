@@ -0,0 +1,66 @@
+package com.cclucky.spring.framework.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个Handler的请求耗时，按阶段分别记录：路由、参数绑定、Handler调用、视图渲染，单位纳秒
+ */
+public class HandlerMetrics {
+
+    private final String name;
+
+    private final Histogram routing = new Histogram();
+    private final Histogram binding = new Histogram();
+    private final Histogram invocation = new Histogram();
+    private final Histogram rendering = new Histogram();
+    // 抛出异常的请求数
+    private final LongAdder errors = new LongAdder();
+
+    public HandlerMetrics(String name) {
+        this.name = name;
+    }
+
+    public void recordRouting(long nanos) {
+        routing.record(nanos);
+    }
+
+    public void recordBinding(long nanos) {
+        binding.record(nanos);
+    }
+
+    public void recordInvocation(long nanos) {
+        invocation.record(nanos);
+    }
+
+    public void recordRendering(long nanos) {
+        rendering.record(nanos);
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Histogram getRouting() {
+        return routing;
+    }
+
+    public Histogram getBinding() {
+        return binding;
+    }
+
+    public Histogram getInvocation() {
+        return invocation;
+    }
+
+    public Histogram getRendering() {
+        return rendering;
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+}
@@ -0,0 +1,47 @@
+package com.cclucky.spring.framework.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个被代理方法的调用次数、异常次数和抽样得到的耗时分布，单位纳秒
+ */
+public class MethodMetrics {
+
+    private final String name;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Histogram latency = new Histogram();
+
+    public MethodMetrics(String name) {
+        this.name = name;
+    }
+
+    public void recordCall() {
+        calls.increment();
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    public void recordLatency(long nanos) {
+        latency.record(nanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+}
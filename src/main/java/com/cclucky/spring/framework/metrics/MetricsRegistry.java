@@ -0,0 +1,67 @@
+package com.cclucky.spring.framework.metrics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按名称登记的Handler指标，启动时为每个HandlerMapping注册一份，请求时直接使用不再查表
+ */
+public class MetricsRegistry {
+
+    // 没有匹配到Handler的请求
+    public static final String UNMATCHED = "<unmatched>";
+
+    private final ConcurrentMap<String, HandlerMetrics> handlers = new ConcurrentHashMap<>();
+
+    public HandlerMetrics getHandlerMetrics(String name) {
+        HandlerMetrics metrics = this.handlers.get(name);
+        if (metrics != null) return metrics;
+        HandlerMetrics created = new HandlerMetrics(name);
+        metrics = this.handlers.putIfAbsent(name, created);
+        return metrics == null ? created : metrics;
+    }
+
+    // 按名称排序
+    public List<HandlerMetrics> getAllHandlerMetrics() {
+        List<HandlerMetrics> result = new ArrayList<>(this.handlers.values());
+        Collections.sort(result, new Comparator<HandlerMetrics>() {
+            @Override
+            public int compare(HandlerMetrics o1, HandlerMetrics o2) {
+                return o1.getName().compareTo(o2.getName());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 文本格式输出，每个Handler每个阶段一行，时间单位微秒
+     * handler phase count mean p50 p90 p99 max
+     */
+    public void writeTo(Appendable out) throws IOException {
+        out.append("# handler phase count mean_us p50_us p90_us p99_us max_us errors\n");
+        for (HandlerMetrics metrics : getAllHandlerMetrics()) {
+            writePhase(out, metrics, "routing", metrics.getRouting());
+            writePhase(out, metrics, "binding", metrics.getBinding());
+            writePhase(out, metrics, "invocation", metrics.getInvocation());
+            writePhase(out, metrics, "rendering", metrics.getRendering());
+        }
+    }
+
+    private static void writePhase(Appendable out, HandlerMetrics metrics, String phase, Histogram histogram) throws IOException {
+        if (histogram.getCount() == 0) return;
+        out.append(String.format(Locale.ROOT, "%s %s %d %.1f %.1f %.1f %.1f %.1f %d%n",
+                metrics.getName(), phase, histogram.getCount(),
+                histogram.getMean() / 1000,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getMax() / 1000.0,
+                metrics.getErrorCount()));
+    }
+}
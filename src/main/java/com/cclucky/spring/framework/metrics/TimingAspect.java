@@ -0,0 +1,110 @@
+package com.cclucky.spring.framework.metrics;
+
+import com.cclucky.spring.framework.aop.aspect.ConditionalAspect;
+import com.cclucky.spring.framework.aop.aspect.JoinPoint;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 内置的计时切面，以环绕通知统计被代理方法的调用次数、异常次数和耗时分布
+ * 配置：aspectClass=com.cclucky.spring.framework.metrics.TimingAspect，aspectAround=around，可选 timingAspect.sampleInterval=n
+ * 耗时按 1/sampleInterval 的概率抽样，调用次数和异常次数每次都记录；sampleInterval为0时切面整体跳过，直接调用目标方法
+ * 统计按目标类的方法归并，名称为 目标类名#方法名，JDK代理和子类代理得到的名称相同
+ * 容器中的Bean名为timingAspect，可通过getBean获取后读取统计
+ */
+public class TimingAspect implements ConditionalAspect {
+
+    // 默认抽样间隔，DispatcherServlet启动时按配置 timingAspect.sampleInterval 设置
+    private static final int DEFAULT_SAMPLE_INTERVAL = 1;
+
+    // 目标类 -> 方法 -> 统计；继承来的方法在不同子类上分开统计
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, MethodMetrics>> methods = new ConcurrentHashMap<>();
+
+    private volatile int sampleInterval = DEFAULT_SAMPLE_INTERVAL;
+
+    @Override
+    public boolean isActive() {
+        return this.sampleInterval != 0;
+    }
+
+    public Object around(JoinPoint joinPoint) throws Throwable {
+        MethodMetrics metrics = getMethodMetrics(joinPoint.getTarget().getClass(), joinPoint.getMethod());
+        metrics.recordCall();
+
+        int interval = this.sampleInterval;
+        boolean sampled = interval == 1 || (interval > 1 && ThreadLocalRandom.current().nextInt(interval) == 0);
+        long start = sampled ? System.nanoTime() : 0;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            metrics.recordError();
+            throw e;
+        } finally {
+            if (sampled) metrics.recordLatency(System.nanoTime() - start);
+        }
+    }
+
+    private MethodMetrics getMethodMetrics(Class<?> targetClass, Method method) {
+        ConcurrentMap<Method, MethodMetrics> classMethods = this.methods.get(targetClass);
+        if (classMethods == null) {
+            ConcurrentMap<Method, MethodMetrics> created = new ConcurrentHashMap<>();
+            classMethods = this.methods.putIfAbsent(targetClass, created);
+            if (classMethods == null) classMethods = created;
+        }
+        MethodMetrics metrics = classMethods.get(method);
+        if (metrics != null) return metrics;
+        MethodMetrics created = new MethodMetrics(targetClass.getSimpleName() + "#" + method.getName());
+        metrics = classMethods.putIfAbsent(method, created);
+        return metrics == null ? created : metrics;
+    }
+
+    // 0关闭统计，1记录每次调用的耗时，n约每n次调用记录一次耗时
+    public void setSampleInterval(int sampleInterval) {
+        if (sampleInterval < 0) throw new IllegalArgumentException("sampleInterval must not be negative");
+        this.sampleInterval = sampleInterval;
+    }
+
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    // 按名称排序
+    public List<MethodMetrics> getAllMethodMetrics() {
+        List<MethodMetrics> result = new ArrayList<>();
+        for (ConcurrentMap<Method, MethodMetrics> classMethods : this.methods.values()) {
+            result.addAll(classMethods.values());
+        }
+        Collections.sort(result, new Comparator<MethodMetrics>() {
+            @Override
+            public int compare(MethodMetrics o1, MethodMetrics o2) {
+                return o1.getName().compareTo(o2.getName());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 文本格式输出，每个方法一行，时间单位微秒
+     */
+    public void writeTo(Appendable out) throws IOException {
+        out.append("# method calls errors sampled mean_us p50_us p99_us max_us\n");
+        for (MethodMetrics metrics : getAllMethodMetrics()) {
+            Histogram latency = metrics.getLatency();
+            out.append(String.format(Locale.ROOT, "%s %d %d %d %.1f %.1f %.1f %.1f%n",
+                    metrics.getName(), metrics.getCallCount(), metrics.getErrorCount(), latency.getCount(),
+                    latency.getMean() / 1000,
+                    latency.getValueAtPercentile(50) / 1000.0,
+                    latency.getValueAtPercentile(99) / 1000.0,
+                    latency.getMax() / 1000.0));
+        }
+    }
+}
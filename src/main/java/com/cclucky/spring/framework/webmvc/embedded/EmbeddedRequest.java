@@ -0,0 +1,641 @@
+package com.cclucky.spring.framework.webmvc.embedded;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.DispatcherType;
+import javax.servlet.ReadListener;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpUpgradeHandler;
+import javax.servlet.http.Part;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+/**
+ * 内置服务器解析出的HTTP/1.1请求，只实现DispatcherServlet和Handler用到的部分
+ * 会话、认证、multipart等容器功能不支持；不支持异步，返回CompletableFuture的Handler在工作线程上等待结果
+ */
+public class EmbeddedRequest implements HttpServletRequest {
+
+    // 请求行和请求头的最大长度
+    static final int MAX_HEADER_SIZE = 8192;
+    // 请求体的最大长度
+    static final int MAX_BODY_SIZE = 1024 * 1024;
+
+    private final String method;
+    private final String requestUri;
+    private final String queryString;
+    private final String protocol;
+    private final Map<String, List<String>> headers;
+    private final byte[] body;
+    // 本次请求在缓冲区中占用的字节数，其后是同一连接上的下一个请求
+    private final int consumed;
+
+    private Map<String, String[]> parameters;
+    private final Map<String, Object> attributes = new HashMap<>();
+    private String characterEncoding;
+
+    private InetSocketAddress localAddress;
+    private InetSocketAddress remoteAddress;
+
+    private EmbeddedRequest(String method, String requestUri, String queryString, String protocol,
+                            Map<String, List<String>> headers, byte[] body, int consumed) {
+        this.method = method;
+        this.requestUri = requestUri;
+        this.queryString = queryString;
+        this.protocol = protocol;
+        this.headers = headers;
+        this.body = body;
+        this.consumed = consumed;
+    }
+
+    /**
+     * 从缓冲区开头解析一个完整的请求，数据不完整时返回null
+     */
+    static EmbeddedRequest parse(byte[] data, int length) throws BadRequestException {
+        int headerEnd = indexOfHeaderEnd(data, length);
+        if (headerEnd == -1) {
+            if (length > MAX_HEADER_SIZE) throw new BadRequestException(431, "Request header too large");
+            return null;
+        }
+        if (headerEnd > MAX_HEADER_SIZE) throw new BadRequestException(431, "Request header too large");
+
+        // 请求头只允许ASCII，按ISO-8859-1解码
+        String head = new String(data, 0, headerEnd, StandardCharsets.ISO_8859_1);
+        String[] lines = head.split("\r\n");
+        String[] requestLine = lines[0].split(" ");
+        if (requestLine.length != 3 || !requestLine[2].startsWith("HTTP/1.")) {
+            throw new BadRequestException(400, "Malformed request line: " + lines[0]);
+        }
+
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon <= 0) throw new BadRequestException(400, "Malformed header: " + lines[i]);
+            String name = lines[i].substring(0, colon).trim();
+            List<String> values = headers.get(name);
+            if (values == null) {
+                values = new ArrayList<>(1);
+                headers.put(name, values);
+            }
+            values.add(lines[i].substring(colon + 1).trim());
+        }
+
+        if (headers.containsKey("Transfer-Encoding")) {
+            throw new BadRequestException(501, "Chunked request bodies are not supported");
+        }
+        int contentLength = 0;
+        List<String> contentLengths = headers.get("Content-Length");
+        if (contentLengths != null) {
+            // 多个Content-Length（多行或逗号分隔）必须相同，否则无法确定请求体的边界
+            String value = null;
+            for (String line : contentLengths) {
+                for (String item : line.split(",")) {
+                    item = item.trim();
+                    if (value != null && !value.equals(item)) {
+                        throw new BadRequestException(400, "Conflicting Content-Length: " + contentLengths);
+                    }
+                    value = item;
+                }
+            }
+            try {
+                contentLength = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new BadRequestException(400, "Malformed Content-Length: " + value);
+            }
+            if (contentLength < 0) throw new BadRequestException(400, "Malformed Content-Length: " + contentLength);
+            if (contentLength > MAX_BODY_SIZE) throw new BadRequestException(413, "Request body too large");
+        }
+
+        int bodyStart = headerEnd + 4;
+        if (length < bodyStart + contentLength) return null;
+        byte[] body = new byte[contentLength];
+        System.arraycopy(data, bodyStart, body, 0, contentLength);
+
+        String target = requestLine[1];
+        int question = target.indexOf('?');
+        String requestUri = question == -1 ? target : target.substring(0, question);
+        String queryString = question == -1 ? null : target.substring(question + 1);
+        return new EmbeddedRequest(requestLine[0], requestUri, queryString, requestLine[2], headers, body,
+                bodyStart + contentLength);
+    }
+
+    private static int indexOfHeaderEnd(byte[] data, int length) {
+        for (int i = 0; i + 3 < length; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n' && data[i + 2] == '\r' && data[i + 3] == '\n') return i;
+        }
+        return -1;
+    }
+
+    int getConsumed() {
+        return consumed;
+    }
+
+    void setAddresses(InetSocketAddress localAddress, InetSocketAddress remoteAddress) {
+        this.localAddress = localAddress;
+        this.remoteAddress = remoteAddress;
+    }
+
+    // HTTP/1.1默认保持连接，HTTP/1.0需要显式要求
+    boolean isKeepAlive() {
+        String connection = getHeader("Connection");
+        if ("HTTP/1.0".equals(this.protocol)) return "keep-alive".equalsIgnoreCase(connection);
+        return !"close".equalsIgnoreCase(connection);
+    }
+
+    // 查询参数和表单参数在第一次读取时解析
+    private Map<String, String[]> parameters() {
+        if (this.parameters != null) return this.parameters;
+        Map<String, List<String>> values = new LinkedHashMap<>();
+        addParameters(values, this.queryString);
+        String contentType = getContentType();
+        if (this.body.length > 0 && contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+            addParameters(values, new String(this.body, StandardCharsets.ISO_8859_1));
+        }
+        Map<String, String[]> parameters = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry : values.entrySet()) {
+            parameters.put(entry.getKey(), entry.getValue().toArray(new String[0]));
+        }
+        this.parameters = Collections.unmodifiableMap(parameters);
+        return this.parameters;
+    }
+
+    private void addParameters(Map<String, List<String>> values, String encoded) {
+        if (encoded == null || encoded.isEmpty()) return;
+        String charset = this.characterEncoding != null ? this.characterEncoding : "UTF-8";
+        for (String pair : encoded.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            try {
+                String name = URLDecoder.decode(eq == -1 ? pair : pair.substring(0, eq), charset);
+                String value = eq == -1 ? "" : URLDecoder.decode(pair.substring(eq + 1), charset);
+                List<String> list = values.get(name);
+                if (list == null) {
+                    list = new ArrayList<>(1);
+                    values.put(name, list);
+                }
+                list.add(value);
+            } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+                // 编码错误的参数忽略
+            }
+        }
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getRequestURI() {
+        return requestUri;
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    public String getProtocol() {
+        return protocol;
+    }
+
+    @Override
+    public String getContextPath() {
+        return "";
+    }
+
+    @Override
+    public String getServletPath() {
+        return "";
+    }
+
+    @Override
+    public String getPathInfo() {
+        return requestUri;
+    }
+
+    @Override
+    public String getPathTranslated() {
+        return null;
+    }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        StringBuffer url = new StringBuffer();
+        url.append(getScheme()).append("://").append(getServerName());
+        if (getServerPort() != 80) url.append(':').append(getServerPort());
+        return url.append(requestUri);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        List<String> values = headers.get(name);
+        return values == null ? null : values.get(0);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        List<String> values = headers.get(name);
+        return Collections.enumeration(values == null ? Collections.<String>emptyList() : values);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return Collections.enumeration(headers.keySet());
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        String value = getHeader(name);
+        return value == null ? -1 : Integer.parseInt(value);
+    }
+
+    @Override
+    public long getDateHeader(String name) {
+        String value = getHeader(name);
+        if (value == null) return -1;
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            return format.parse(value).getTime();
+        } catch (java.text.ParseException e) {
+            throw new IllegalArgumentException("Malformed date header " + name + ": " + value);
+        }
+    }
+
+    @Override
+    public Cookie[] getCookies() {
+        String header = getHeader("Cookie");
+        if (header == null) return null;
+        List<Cookie> cookies = new ArrayList<>();
+        for (String pair : header.split(";")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            try {
+                cookies.add(new Cookie(pair.substring(0, eq).trim(), pair.substring(eq + 1).trim()));
+            } catch (IllegalArgumentException e) {
+                // 名称不合法的Cookie忽略
+            }
+        }
+        return cookies.isEmpty() ? null : cookies.toArray(new Cookie[0]);
+    }
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = parameters().get(name);
+        return values == null ? null : values[0];
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(parameters().keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return parameters().get(name);
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        return parameters();
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(attributes.keySet());
+    }
+
+    @Override
+    public void setAttribute(String name, Object o) {
+        if (o == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, o);
+        }
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        if (characterEncoding != null) return characterEncoding;
+        String contentType = getContentType();
+        if (contentType == null) return null;
+        int charset = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+        return charset == -1 ? null : contentType.substring(charset + 8).trim();
+    }
+
+    @Override
+    public void setCharacterEncoding(String env) {
+        this.characterEncoding = env;
+    }
+
+    @Override
+    public int getContentLength() {
+        return body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return body.length;
+    }
+
+    @Override
+    public String getContentType() {
+        return getHeader("Content-Type");
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        final ByteArrayInputStream in = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return in.read(b, off, len);
+            }
+
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new IllegalStateException("Non-blocking reads are not supported");
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        String charset = getCharacterEncoding();
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset == null ? "ISO-8859-1" : charset));
+    }
+
+    @Override
+    public String getScheme() {
+        return "http";
+    }
+
+    @Override
+    public boolean isSecure() {
+        return false;
+    }
+
+    @Override
+    public String getServerName() {
+        String host = getHeader("Host");
+        if (host == null) return getLocalName();
+        int colon = host.lastIndexOf(':');
+        return colon > 0 && host.indexOf(']') < colon ? host.substring(0, colon) : host;
+    }
+
+    @Override
+    public int getServerPort() {
+        return getLocalPort();
+    }
+
+    @Override
+    public String getRemoteAddr() {
+        return remoteAddress == null ? null : remoteAddress.getAddress().getHostAddress();
+    }
+
+    @Override
+    public String getRemoteHost() {
+        return getRemoteAddr();
+    }
+
+    @Override
+    public int getRemotePort() {
+        return remoteAddress == null ? -1 : remoteAddress.getPort();
+    }
+
+    @Override
+    public String getLocalName() {
+        return localAddress == null ? "localhost" : localAddress.getHostString();
+    }
+
+    @Override
+    public String getLocalAddr() {
+        return localAddress == null ? null : localAddress.getAddress().getHostAddress();
+    }
+
+    @Override
+    public int getLocalPort() {
+        return localAddress == null ? -1 : localAddress.getPort();
+    }
+
+    @Override
+    public Locale getLocale() {
+        return Locale.getDefault();
+    }
+
+    @Override
+    public Enumeration<Locale> getLocales() {
+        return Collections.enumeration(Collections.singletonList(getLocale()));
+    }
+
+    @Override
+    public DispatcherType getDispatcherType() {
+        return DispatcherType.REQUEST;
+    }
+
+    @Override
+    public boolean isAsyncSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isAsyncStarted() {
+        return false;
+    }
+
+    @Override
+    public AsyncContext startAsync() {
+        throw new IllegalStateException("Async processing is not supported by the embedded server");
+    }
+
+    @Override
+    public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) {
+        throw new IllegalStateException("Async processing is not supported by the embedded server");
+    }
+
+    @Override
+    public AsyncContext getAsyncContext() {
+        throw new IllegalStateException("Async processing is not supported by the embedded server");
+    }
+
+    @Override
+    public ServletContext getServletContext() {
+        return null;
+    }
+
+    @Override
+    public RequestDispatcher getRequestDispatcher(String path) {
+        return null;
+    }
+
+    @Override
+    @Deprecated
+    public String getRealPath(String path) {
+        return null;
+    }
+
+    @Override
+    public String getAuthType() {
+        return null;
+    }
+
+    @Override
+    public String getRemoteUser() {
+        return null;
+    }
+
+    @Override
+    public boolean isUserInRole(String role) {
+        return false;
+    }
+
+    @Override
+    public Principal getUserPrincipal() {
+        return null;
+    }
+
+    @Override
+    public boolean authenticate(HttpServletResponse response) {
+        return false;
+    }
+
+    @Override
+    public void login(String username, String password) {
+        throw new UnsupportedOperationException("Authentication is not supported by the embedded server");
+    }
+
+    @Override
+    public void logout() {
+    }
+
+    @Override
+    public String getRequestedSessionId() {
+        return null;
+    }
+
+    @Override
+    public HttpSession getSession(boolean create) {
+        if (create) throw new UnsupportedOperationException("Sessions are not supported by the embedded server");
+        return null;
+    }
+
+    @Override
+    public HttpSession getSession() {
+        return getSession(true);
+    }
+
+    @Override
+    public String changeSessionId() {
+        throw new IllegalStateException("No session");
+    }
+
+    @Override
+    public boolean isRequestedSessionIdValid() {
+        return false;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdFromCookie() {
+        return false;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdFromURL() {
+        return false;
+    }
+
+    @Override
+    @Deprecated
+    public boolean isRequestedSessionIdFromUrl() {
+        return false;
+    }
+
+    @Override
+    public Collection<Part> getParts() {
+        throw new UnsupportedOperationException("Multipart requests are not supported by the embedded server");
+    }
+
+    @Override
+    public Part getPart(String name) {
+        throw new UnsupportedOperationException("Multipart requests are not supported by the embedded server");
+    }
+
+    @Override
+    public <T extends HttpUpgradeHandler> T upgrade(Class<T> handlerClass) {
+        throw new UnsupportedOperationException("Protocol upgrade is not supported by the embedded server");
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + requestUri + (queryString == null ? "" : "?" + queryString) + " " + protocol;
+    }
+
+    /**
+     * 请求无法解析，按status回复错误并关闭连接
+     */
+    static class BadRequestException extends IOException {
+        private final int status;
+
+        BadRequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        int getStatus() {
+            return status;
+        }
+    }
+}
@@ -0,0 +1,483 @@
+package com.cclucky.spring.framework.webmvc.embedded;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+/**
+ * 内置服务器的响应，响应体先写入内存，不超过flush阈值时Handler返回后连同响应头一次写出，带Content-Length
+ * 超过阈值后改为chunked编码：响应头和已缓冲的内容交给ChunkSink写出，之后每满一个阈值写出一块，内存中最多保留一个阈值的响应体
+ */
+public class EmbeddedResponse implements HttpServletResponse {
+
+    private static final String DEFAULT_CHARACTER_ENCODING = "ISO-8859-1";
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    // 由selector线程写出一段已经编码好的字节，阻塞到写完为止，连接已关闭时抛出IOException
+    interface ChunkSink {
+        void write(byte[] bytes) throws IOException;
+    }
+
+    // 为null时不分块，整个响应在Handler返回后写出
+    private final ChunkSink sink;
+    private final int flushThreshold;
+    private final boolean keepAlive;
+    // 响应头已经以chunked编码写出
+    private boolean chunked;
+
+    private int status = SC_OK;
+    private String reason;
+    private final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private String contentType;
+    private String characterEncoding;
+    private long contentLength = -1;
+    private Locale locale = Locale.getDefault();
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(8192);
+    // 输出流和writer都写到这里，达到阈值时写出一块
+    private final OutputStream bodyStream = new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+            body.write(b);
+            if (sink != null && body.size() >= flushThreshold) writeChunk();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            body.write(b, off, len);
+            if (sink != null && body.size() >= flushThreshold) writeChunk();
+        }
+    };
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+    private boolean committed;
+
+    // 整体写出的响应，用于HEAD、HTTP/1.0请求和错误响应
+    public EmbeddedResponse() {
+        this(null, 0, false);
+    }
+
+    // 响应体达到flushThreshold后通过sink分块写出，keepAlive用于提前写出的响应头
+    EmbeddedResponse(ChunkSink sink, int flushThreshold, boolean keepAlive) {
+        this.sink = sink;
+        this.flushThreshold = Math.max(flushThreshold, 1);
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * Handler返回后剩余的字节：未分块时是响应头和响应体，HEAD请求只写响应头，Content-Length取Handler设置的值
+     * 已经分块时是剩余内容和结束块，响应头已经写出，参数不再起作用
+     */
+    byte[] toBytes(boolean head, boolean keepAlive) {
+        if (this.writer != null) this.writer.flush();
+        if (this.chunked) {
+            byte[] rest = this.body.size() == 0 ? new byte[0] : chunk();
+            byte[] result = new byte[rest.length + LAST_CHUNK.length];
+            System.arraycopy(rest, 0, result, 0, rest.length);
+            System.arraycopy(LAST_CHUNK, 0, result, rest.length, LAST_CHUNK.length);
+            return result;
+        }
+        this.committed = true;
+
+        long length = head && this.body.size() == 0 && this.contentLength >= 0 ? this.contentLength : this.body.size();
+        byte[] headerBytes = header("Content-Length: " + length, keepAlive);
+        if (head) return headerBytes;
+        byte[] result = new byte[headerBytes.length + this.body.size()];
+        System.arraycopy(headerBytes, 0, result, 0, headerBytes.length);
+        System.arraycopy(this.body.toByteArray(), 0, result, headerBytes.length, this.body.size());
+        return result;
+    }
+
+    // 已经以chunked编码写出了响应头，Handler之后出错时只能断开连接
+    boolean isChunked() {
+        return chunked;
+    }
+
+    // 第一块之前带上响应头，之后响应头不能再修改
+    private void writeChunk() throws IOException {
+        byte[] chunk = chunk();
+        if (!this.chunked) {
+            this.chunked = true;
+            this.committed = true;
+            byte[] headerBytes = header("Transfer-Encoding: chunked", this.keepAlive);
+            byte[] result = new byte[headerBytes.length + chunk.length];
+            System.arraycopy(headerBytes, 0, result, 0, headerBytes.length);
+            System.arraycopy(chunk, 0, result, headerBytes.length, chunk.length);
+            chunk = result;
+        }
+        this.sink.write(chunk);
+    }
+
+    // 把缓冲的响应体编码成一块并清空缓冲区
+    private byte[] chunk() {
+        byte[] size = (Integer.toHexString(this.body.size()) + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+        byte[] result = new byte[size.length + this.body.size() + CRLF.length];
+        System.arraycopy(size, 0, result, 0, size.length);
+        System.arraycopy(this.body.toByteArray(), 0, result, size.length, this.body.size());
+        System.arraycopy(CRLF, 0, result, result.length - CRLF.length, CRLF.length);
+        this.body.reset();
+        return result;
+    }
+
+    private byte[] header(String framing, boolean keepAlive) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("HTTP/1.1 ").append(this.status).append(' ')
+                .append(this.reason != null ? this.reason : reasonPhrase(this.status)).append("\r\n");
+        if (this.contentType != null) {
+            sb.append("Content-Type: ").append(getContentType()).append("\r\n");
+        }
+        sb.append(framing).append("\r\n");
+        sb.append("Connection: ").append(keepAlive ? "keep-alive" : "close").append("\r\n");
+        for (Map.Entry<String, List<String>> entry : this.headers.entrySet()) {
+            for (String value : entry.getValue()) {
+                sb.append(entry.getKey()).append(": ").append(value).append("\r\n");
+            }
+        }
+        sb.append("\r\n");
+        return sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    static String reasonPhrase(int status) {
+        switch (status) {
+            case SC_OK:
+                return "OK";
+            case SC_NO_CONTENT:
+                return "No Content";
+            case SC_MOVED_PERMANENTLY:
+                return "Moved Permanently";
+            case SC_FOUND:
+                return "Found";
+            case SC_NOT_MODIFIED:
+                return "Not Modified";
+            case SC_BAD_REQUEST:
+                return "Bad Request";
+            case SC_FORBIDDEN:
+                return "Forbidden";
+            case SC_NOT_FOUND:
+                return "Not Found";
+            case SC_METHOD_NOT_ALLOWED:
+                return "Method Not Allowed";
+            case SC_REQUEST_ENTITY_TOO_LARGE:
+                return "Payload Too Large";
+            case 431:
+                return "Request Header Fields Too Large";
+            case SC_INTERNAL_SERVER_ERROR:
+                return "Internal Server Error";
+            case SC_NOT_IMPLEMENTED:
+                return "Not Implemented";
+            case SC_SERVICE_UNAVAILABLE:
+                return "Service Unavailable";
+            default:
+                return "Status " + status;
+        }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (this.writer != null) throw new IllegalStateException("getWriter() has already been called");
+        if (this.outputStream == null) {
+            this.outputStream = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    bodyStream.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    bodyStream.write(b, off, len);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    throw new IllegalStateException("Non-blocking writes are not supported");
+                }
+            };
+        }
+        return this.outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws UnsupportedEncodingException {
+        if (this.outputStream != null) throw new IllegalStateException("getOutputStream() has already been called");
+        if (this.writer == null) {
+            this.writer = new PrintWriter(new OutputStreamWriter(this.bodyStream, getCharacterEncoding()));
+        }
+        return this.writer;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return characterEncoding != null ? characterEncoding : DEFAULT_CHARACTER_ENCODING;
+    }
+
+    @Override
+    public void setCharacterEncoding(String charset) {
+        if (this.writer != null || this.committed) return;
+        this.characterEncoding = charset;
+    }
+
+    @Override
+    public String getContentType() {
+        if (contentType == null) return null;
+        if (characterEncoding == null || contentType.toLowerCase(Locale.ROOT).contains("charset=")) return contentType;
+        return contentType + ";charset=" + characterEncoding;
+    }
+
+    @Override
+    public void setContentType(String type) {
+        if (this.committed) return;
+        if (type == null) {
+            this.contentType = null;
+            return;
+        }
+        int charset = type.toLowerCase(Locale.ROOT).indexOf("charset=");
+        if (charset != -1 && this.writer == null) {
+            this.characterEncoding = type.substring(charset + 8).trim();
+        }
+        this.contentType = type;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        this.contentLength = len;
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        this.contentLength = len;
+    }
+
+    @Override
+    public void setBufferSize(int size) {
+    }
+
+    @Override
+    public int getBufferSize() {
+        return body.size();
+    }
+
+    // 只刷新writer，不足阈值的内容仍然在Handler返回后写出
+    @Override
+    public void flushBuffer() {
+        if (this.writer != null) this.writer.flush();
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (this.committed) throw new IllegalStateException("Response already committed");
+        if (this.writer != null) this.writer.flush();
+        this.body.reset();
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    @Override
+    public void reset() {
+        resetBuffer();
+        this.status = SC_OK;
+        this.reason = null;
+        this.headers.clear();
+        this.contentType = null;
+        this.contentLength = -1;
+    }
+
+    @Override
+    public void setLocale(Locale loc) {
+        this.locale = loc;
+    }
+
+    @Override
+    public Locale getLocale() {
+        return locale;
+    }
+
+    @Override
+    public void addCookie(Cookie cookie) {
+        StringBuilder value = new StringBuilder(cookie.getName()).append('=').append(cookie.getValue());
+        if (cookie.getPath() != null) value.append("; Path=").append(cookie.getPath());
+        if (cookie.getDomain() != null) value.append("; Domain=").append(cookie.getDomain());
+        if (cookie.getMaxAge() >= 0) value.append("; Max-Age=").append(cookie.getMaxAge());
+        if (cookie.getSecure()) value.append("; Secure");
+        if (cookie.isHttpOnly()) value.append("; HttpOnly");
+        addHeader("Set-Cookie", value.toString());
+    }
+
+    @Override
+    public boolean containsHeader(String name) {
+        return headers.containsKey(name);
+    }
+
+    @Override
+    public String encodeURL(String url) {
+        return url;
+    }
+
+    @Override
+    public String encodeRedirectURL(String url) {
+        return url;
+    }
+
+    @Override
+    @Deprecated
+    public String encodeUrl(String url) {
+        return url;
+    }
+
+    @Override
+    @Deprecated
+    public String encodeRedirectUrl(String url) {
+        return url;
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        if (this.committed) throw new IllegalStateException("Response already committed");
+        resetBuffer();
+        this.status = sc;
+        this.reason = null;
+        setContentType("text/plain;charset=UTF-8");
+        byte[] message = (msg != null ? msg : reasonPhrase(sc)).getBytes(StandardCharsets.UTF_8);
+        this.body.write(message);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        sendError(sc, null);
+    }
+
+    @Override
+    public void sendRedirect(String location) {
+        if (this.committed) throw new IllegalStateException("Response already committed");
+        resetBuffer();
+        this.status = SC_FOUND;
+        setHeader("Location", location);
+    }
+
+    @Override
+    public void setDateHeader(String name, long date) {
+        setHeader(name, formatDate(date));
+    }
+
+    @Override
+    public void addDateHeader(String name, long date) {
+        addHeader(name, formatDate(date));
+    }
+
+    private static String formatDate(long date) {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format.format(new Date(date));
+    }
+
+    // Content-Type、Content-Length 和 Connection 由响应本身生成
+    @Override
+    public void setHeader(String name, String value) {
+        if (handleSpecialHeader(name, value)) return;
+        if (value == null) {
+            headers.remove(name);
+            return;
+        }
+        List<String> values = new ArrayList<>(1);
+        values.add(value);
+        headers.put(name, values);
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (value == null || handleSpecialHeader(name, value)) return;
+        List<String> values = headers.get(name);
+        if (values == null) {
+            values = new ArrayList<>(1);
+            headers.put(name, values);
+        }
+        values.add(value);
+    }
+
+    private boolean handleSpecialHeader(String name, String value) {
+        if ("Content-Type".equalsIgnoreCase(name)) {
+            setContentType(value);
+            return true;
+        }
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            if (value != null) setContentLengthLong(Long.parseLong(value.trim()));
+            return true;
+        }
+        return "Connection".equalsIgnoreCase(name);
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        setHeader(name, String.valueOf(value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        addHeader(name, String.valueOf(value));
+    }
+
+    @Override
+    public void setStatus(int sc) {
+        if (this.committed) return;
+        this.status = sc;
+        this.reason = null;
+    }
+
+    @Override
+    @Deprecated
+    public void setStatus(int sc, String sm) {
+        if (this.committed) return;
+        this.status = sc;
+        this.reason = sm;
+    }
+
+    @Override
+    public int getStatus() {
+        return status;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        if ("Content-Type".equalsIgnoreCase(name)) return getContentType();
+        List<String> values = headers.get(name);
+        return values == null ? null : values.get(0);
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name) {
+        List<String> values = headers.get(name);
+        return values == null ? Collections.<String>emptyList() : new ArrayList<>(values);
+    }
+
+    @Override
+    public Collection<String> getHeaderNames() {
+        return new ArrayList<>(new LinkedHashMap<>(headers).keySet());
+    }
+}
@@ -0,0 +1,463 @@
+package com.cclucky.spring.framework.webmvc.embedded;
+
+import com.cclucky.spring.framework.webmvc.servlet.DispatcherServlet;
+import com.cclucky.spring.framework.webmvc.servlet.HandlerExecutors;
+import com.cclucky.spring.framework.webmvc.servlet.ResponseBufferPool;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServlet;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不依赖外部Servlet容器的HTTP/1.1服务器，请求直接交给DispatcherServlet处理
+ * 一个selector线程负责接收连接和读写，请求解析完整后交给工作线程执行Handler，响应生成后再交回selector线程写出
+ * 响应体超过flush阈值时以chunked编码分块交给selector线程，每块写完后工作线程才继续写
+ * 支持keep-alive和管道化请求（同一连接上按顺序处理），不支持TLS、chunked请求体和异步Servlet
+ *
+ * 启动：java -cp target/classes:servlet-api.jar:byte-buddy.jar com.cclucky.spring.framework.webmvc.embedded.EmbeddedServer [端口] [配置文件]
+ */
+public class EmbeddedServer implements Runnable {
+
+    // 空闲连接的超时时间
+    private static final long IDLE_TIMEOUT_MILLIS = 60000;
+    private static final int READ_BUFFER_SIZE = 16384;
+    // 停止时等待正在执行的Handler结束的时间
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final int port;
+    private final HttpServlet servlet;
+    private final ExecutorService workers;
+    // 响应体超过这个大小后分块写出
+    private final int flushThreshold;
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    // 工作线程生成的响应，由selector线程取出写出
+    private final Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<>();
+    // selector线程独占的读缓冲区
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private long lastIdleCheck;
+
+    public EmbeddedServer(int port, HttpServlet servlet, ExecutorService workers) {
+        this(port, servlet, workers, ResponseBufferPool.DEFAULT_BUFFER_SIZE);
+    }
+
+    public EmbeddedServer(int port, HttpServlet servlet, ExecutorService workers, int flushThreshold) {
+        this.port = port;
+        this.servlet = servlet;
+        this.workers = workers;
+        this.flushThreshold = flushThreshold;
+    }
+
+    public synchronized void start() throws IOException {
+        if (this.running) return;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.bind(new InetSocketAddress(this.port), 1024);
+        this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+
+        this.running = true;
+        this.selectorThread = new Thread(this, "embedded-selector");
+        this.selectorThread.start();
+        System.out.println("Embedded server started on port " + getPort());
+    }
+
+    // 实际监听的端口，构造时传入0则由系统分配
+    public int getPort() {
+        try {
+            return ((InetSocketAddress) this.serverChannel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return this.port;
+        }
+    }
+
+    public void stop() {
+        synchronized (this) {
+            if (!this.running) return;
+            this.running = false;
+        }
+        this.selector.wakeup();
+        try {
+            this.selectorThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Handler全部结束后才销毁Servlet
+        this.workers.shutdown();
+        try {
+            if (!this.workers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                this.workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            this.workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        this.servlet.destroy();
+        System.out.println("Embedded server stopped");
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (this.running) {
+                this.selector.select(1000);
+                runPendingTasks();
+
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Connection connection = (Connection) key.attachment();
+                            if (key.isReadable()) connection.read();
+                            if (key.isValid() && key.isWritable()) connection.write();
+                        }
+                    } catch (IOException e) {
+                        // 客户端断开
+                        if (key.attachment() != null) ((Connection) key.attachment()).close();
+                    } catch (RuntimeException e) {
+                        // 单个连接上的异常（如CancelledKeyException）只关闭该连接，selector线程继续服务其他连接
+                        e.printStackTrace();
+                        if (key.attachment() != null) ((Connection) key.attachment()).close();
+                    }
+                }
+                closeIdleConnections();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            for (SelectionKey key : this.selector.keys()) {
+                if (key.attachment() != null) ((Connection) key.attachment()).close();
+            }
+            try {
+                this.serverChannel.close();
+                this.selector.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = this.serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(this.selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    private void runPendingTasks() {
+        Runnable task;
+        while ((task = this.pendingTasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void closeIdleConnections() {
+        long now = System.currentTimeMillis();
+        if (now - this.lastIdleCheck < 1000) return;
+        this.lastIdleCheck = now;
+        for (SelectionKey key : this.selector.keys()) {
+            Connection connection = (Connection) key.attachment();
+            if (connection != null && connection.isIdle() && now - connection.lastActive > IDLE_TIMEOUT_MILLIS) {
+                connection.close();
+            }
+        }
+    }
+
+    // 除write(byte[])外只在selector线程上访问
+    private final class Connection implements EmbeddedResponse.ChunkSink {
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private byte[] in = new byte[4096];
+        private int inLength;
+        private ByteBuffer out;
+        private boolean closeAfterWrite;
+        // 有请求正在工作线程上执行，此时不再解析后续请求
+        private boolean processing;
+        // 正在写出的响应块，写完后唤醒等待的工作线程
+        private CountDownLatch chunkWritten;
+        private long lastActive = System.currentTimeMillis();
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        // 客户端长时间不读取响应块时也视为空闲，关闭连接后工作线程不再阻塞
+        boolean isIdle() {
+            return !this.processing && this.out == null || this.chunkWritten != null;
+        }
+
+        void read() throws IOException {
+            readBuffer.clear();
+            int n = this.channel.read(readBuffer);
+            if (n == -1) {
+                close();
+                return;
+            }
+            this.lastActive = System.currentTimeMillis();
+            readBuffer.flip();
+            if (this.inLength + n > this.in.length) {
+                byte[] grown = new byte[Math.max(this.in.length * 2, this.inLength + n)];
+                System.arraycopy(this.in, 0, grown, 0, this.inLength);
+                this.in = grown;
+            }
+            readBuffer.get(this.in, this.inLength, n);
+            this.inLength += n;
+            processNext();
+        }
+
+        // 解析缓冲区中的下一个请求并交给工作线程
+        void processNext() throws IOException {
+            if (this.processing || this.out != null) return;
+
+            final EmbeddedRequest request;
+            try {
+                request = EmbeddedRequest.parse(this.in, this.inLength);
+            } catch (EmbeddedRequest.BadRequestException e) {
+                byte[] message = e.getMessage().getBytes(StandardCharsets.UTF_8);
+                String head = "HTTP/1.1 " + e.getStatus() + " " + EmbeddedResponse.reasonPhrase(e.getStatus()) + "\r\n"
+                        + "Content-Type: text/plain;charset=UTF-8\r\n"
+                        + "Content-Length: " + message.length + "\r\n"
+                        + "Connection: close\r\n\r\n";
+                byte[] headBytes = head.getBytes(StandardCharsets.ISO_8859_1);
+                byte[] response = new byte[headBytes.length + message.length];
+                System.arraycopy(headBytes, 0, response, 0, headBytes.length);
+                System.arraycopy(message, 0, response, headBytes.length, message.length);
+                this.inLength = 0;
+                send(response, true);
+                return;
+            }
+            if (request == null) return;
+
+            // 移除已解析的字节，剩余的是管道化的后续请求
+            int consumed = request.getConsumed();
+            System.arraycopy(this.in, consumed, this.in, 0, this.inLength - consumed);
+            this.inLength -= consumed;
+
+            request.setAddresses((InetSocketAddress) this.channel.getLocalAddress(),
+                    (InetSocketAddress) this.channel.getRemoteAddress());
+            this.processing = true;
+            this.key.interestOps(0);
+            try {
+                workers.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        handle(request);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                close();
+            }
+        }
+
+        // 在工作线程上执行
+        private void handle(EmbeddedRequest request) {
+            boolean head = "HEAD".equals(request.getMethod());
+            boolean keepAlive = request.isKeepAlive() && running;
+            // HEAD没有响应体，HTTP/1.0客户端不支持chunked，都在Handler返回后整体写出
+            EmbeddedResponse response = head || !"HTTP/1.1".equals(request.getProtocol())
+                    ? new EmbeddedResponse()
+                    : new EmbeddedResponse(this, flushThreshold, keepAlive);
+            try {
+                servlet.service(request, response);
+            } catch (Throwable e) {
+                e.printStackTrace();
+                if (response.isChunked()) {
+                    // 响应头已经写出，无法再返回500
+                    pendingTasks.add(new Runnable() {
+                        @Override
+                        public void run() {
+                            close();
+                        }
+                    });
+                    selector.wakeup();
+                    return;
+                }
+                response = new EmbeddedResponse();
+                try {
+                    response.sendError(EmbeddedResponse.SC_INTERNAL_SERVER_ERROR);
+                } catch (IOException ignored) {
+                    // 写入内存不会失败
+                }
+                keepAlive = false;
+            }
+            final byte[] bytes = response.toBytes(head, keepAlive);
+            final boolean close = !keepAlive;
+            pendingTasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    processing = false;
+                    try {
+                        send(bytes, close);
+                    } catch (IOException | RuntimeException e) {
+                        close();
+                    }
+                }
+            });
+            selector.wakeup();
+        }
+
+        // 在工作线程上执行：交给selector线程写出并等待写完，每个连接同时只有一块在写
+        @Override
+        public void write(final byte[] chunk) throws IOException {
+            final CountDownLatch written = new CountDownLatch(1);
+            pendingTasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        sendChunk(chunk, written);
+                    } catch (IOException | RuntimeException e) {
+                        close();
+                    }
+                }
+            });
+            selector.wakeup();
+            try {
+                written.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            if (!this.channel.isOpen()) throw new IOException("Connection closed");
+        }
+
+        private void sendChunk(byte[] chunk, CountDownLatch written) throws IOException {
+            if (!this.key.isValid()) {
+                written.countDown();
+                return;
+            }
+            this.chunkWritten = written;
+            this.out = ByteBuffer.wrap(chunk);
+            this.closeAfterWrite = false;
+            write();
+        }
+
+        void send(byte[] response, boolean close) throws IOException {
+            if (!this.key.isValid()) return;
+            this.out = ByteBuffer.wrap(response);
+            this.closeAfterWrite = close;
+            write();
+        }
+
+        void write() throws IOException {
+            this.channel.write(this.out);
+            this.lastActive = System.currentTimeMillis();
+            if (this.out.hasRemaining()) {
+                this.key.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+            this.out = null;
+            if (this.chunkWritten != null) {
+                // 响应块写完，Handler仍在执行
+                this.key.interestOps(0);
+                this.chunkWritten.countDown();
+                this.chunkWritten = null;
+                return;
+            }
+            if (this.closeAfterWrite) {
+                close();
+                return;
+            }
+            this.key.interestOps(SelectionKey.OP_READ);
+            processNext();
+        }
+
+        void close() {
+            if (this.key != null) this.key.cancel();
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                // 忽略
+            }
+            if (this.chunkWritten != null) {
+                this.chunkWritten.countDown();
+                this.chunkWritten = null;
+            }
+        }
+    }
+
+    /**
+     * 端口默认8080，配置文件默认classpath:application.properties
+     * 工作线程：Java 21及以上使用虚拟线程，否则为配置文件中 server.workerThreads（默认200）个平台线程
+     * 响应体超过 viewFlushThreshold（默认8192字节）后以chunked编码分块写出
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        final String configLocation = args.length > 1 ? args[1] : "classpath:application.properties";
+
+        DispatcherServlet servlet = new DispatcherServlet();
+        servlet.init(new ServletConfig() {
+            @Override
+            public String getServletName() {
+                return "cc-mvc";
+            }
+
+            @Override
+            public ServletContext getServletContext() {
+                return null;
+            }
+
+            @Override
+            public String getInitParameter(String name) {
+                return "contextConfigLocation".equals(name) ? configLocation : null;
+            }
+
+            @Override
+            public Enumeration<String> getInitParameterNames() {
+                return Collections.enumeration(Collections.singletonList("contextConfigLocation"));
+            }
+        });
+
+        Properties config = servlet.getApplicationContext().getConfig();
+        ExecutorService workers = HandlerExecutors.newVirtualThreadExecutor();
+        if (workers == null) {
+            workers = HandlerExecutors.newFixedThreadPool(
+                    Integer.parseInt(config.getProperty("server.workerThreads", "200").trim()), "http-worker");
+        }
+        int flushThreshold = Integer.parseInt(config.getProperty("viewFlushThreshold",
+                String.valueOf(ResponseBufferPool.DEFAULT_BUFFER_SIZE)).trim());
+
+        final EmbeddedServer server = new EmbeddedServer(port, servlet, workers, flushThreshold);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                server.stop();
+            }
+        }, "embedded-shutdown"));
+    }
+}
@@ -0,0 +1,11 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 为Handler方法的一个形参取值，启动时按形参解析好，请求时直接调用
+ */
+public interface ArgumentBinder {
+    Object bind(HttpServletRequest req, HttpServletResponse resp);
+}
@@ -0,0 +1,156 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import com.cclucky.spring.framework.annotation.RequestParam;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+public class ArgumentBinders {
+
+    private static final ArgumentBinder REQUEST_BINDER = new ArgumentBinder() {
+        @Override
+        public Object bind(HttpServletRequest req, HttpServletResponse resp) {
+            return req;
+        }
+    };
+
+    private static final ArgumentBinder RESPONSE_BINDER = new ArgumentBinder() {
+        @Override
+        public Object bind(HttpServletRequest req, HttpServletResponse resp) {
+            return resp;
+        }
+    };
+
+    private ArgumentBinders() {
+    }
+
+    public static ArgumentBinder[] resolve(Method method) {
+        return resolve(method, ForkJoinPool.commonPool());
+    }
+
+    // 根据方法签名为每个形参生成对应的binder，只在启动时调用一次；Executor类型的形参绑定为传入的线程池
+    public static ArgumentBinder[] resolve(Method method, ExecutorService executor) {
+        Class<?>[] paramTypes = method.getParameterTypes();
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+
+        ArgumentBinder[] binders = new ArgumentBinder[paramTypes.length];
+        for (int i = 0; i < paramTypes.length; i++) {
+            Class<?> paramType = paramTypes[i];
+            if (paramType == HttpServletRequest.class) {
+                binders[i] = REQUEST_BINDER;
+            } else if (paramType == HttpServletResponse.class) {
+                binders[i] = RESPONSE_BINDER;
+            } else if (paramType == Executor.class || paramType == ExecutorService.class) {
+                // 异步Handler用它执行CompletableFuture的任务
+                binders[i] = new ConstantBinder(executor);
+            } else {
+                RequestParam requestParam = null;
+                for (Annotation a : parameterAnnotations[i]) {
+                    if (a instanceof RequestParam) {
+                        requestParam = (RequestParam) a;
+                    }
+                }
+                if (requestParam != null && paramType == String.class) {
+                    binders[i] = new NamedParamBinder(requestParam.value());
+                } else if (requestParam != null) {
+                    binders[i] = new TypedParamBinder(requestParam.value(), paramType);
+                } else {
+                    // 没有注解的形参不做赋值，基本类型给默认值避免调用时报错
+                    binders[i] = new ConstantBinder(defaultValue(paramType));
+                }
+            }
+        }
+        return binders;
+    }
+
+    static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive()) return null;
+        if (type == boolean.class) return Boolean.FALSE;
+        if (type == char.class) return '\0';
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0F;
+        if (type == double.class) return 0D;
+        return null;
+    }
+
+    // 字符串参数，多值时用逗号拼接
+    private static class NamedParamBinder implements ArgumentBinder {
+        private final String name;
+
+        private NamedParamBinder(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Object bind(HttpServletRequest req, HttpServletResponse resp) {
+            String[] values = req.getParameterValues(this.name);
+            if (values == null || values.length == 0) return null;
+            if (values.length == 1) return values[0];
+
+            StringBuilder sb = new StringBuilder(values[0]);
+            for (int i = 1; i < values.length; i++) {
+                sb.append(',').append(values[i]);
+            }
+            return sb.toString();
+        }
+    }
+
+    // 需要类型转换的参数，取第一个值转换
+    private static class TypedParamBinder implements ArgumentBinder {
+        private final String name;
+        private final Class<?> type;
+        private final Object defaultValue;
+
+        private TypedParamBinder(String name, Class<?> type) {
+            this.name = name;
+            this.type = type;
+            this.defaultValue = defaultValue(type);
+        }
+
+        @Override
+        public Object bind(HttpServletRequest req, HttpServletResponse resp) {
+            String value = req.getParameter(this.name);
+            if (value == null || value.isEmpty()) return this.defaultValue;
+            try {
+                return convert(value.trim());
+            } catch (NumberFormatException e) {
+                // 客户端传入的值格式不对，返回400而不是500
+                throw new ParameterBindingException(this.name, value, this.type, e);
+            }
+        }
+
+        private Object convert(String value) {
+            if (type == Integer.class || type == int.class) return Integer.valueOf(value);
+            if (type == Long.class || type == long.class) return Long.valueOf(value);
+            if (type == Boolean.class || type == boolean.class) return Boolean.valueOf(value);
+            if (type == Double.class || type == double.class) return Double.valueOf(value);
+            if (type == Float.class || type == float.class) return Float.valueOf(value);
+            if (type == Short.class || type == short.class) return Short.valueOf(value);
+            if (type == Byte.class || type == byte.class) return Byte.valueOf(value);
+            if (type == Character.class || type == char.class) return value.isEmpty() ? this.defaultValue : value.charAt(0);
+            // 不支持转换的类型不赋值
+            return this.defaultValue;
+        }
+    }
+
+    private static class ConstantBinder implements ArgumentBinder {
+        private final Object value;
+
+        private ConstantBinder(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object bind(HttpServletRequest req, HttpServletResponse resp) {
+            return this.value;
+        }
+    }
+}
@@ -1,8 +1,18 @@
 package com.cclucky.spring.framework.webmvc.servlet;
 
+import com.cclucky.spring.beans.config.BeanDefinition;
 import com.cclucky.spring.framework.annotation.*;
 import com.cclucky.spring.framework.context.ApplicationContext;
-
+import com.cclucky.spring.framework.context.ContextSnapshot;
+import com.cclucky.spring.framework.context.MappedMethod;
+import com.cclucky.spring.framework.context.RequestContextHolder;
+import com.cclucky.spring.framework.metrics.HandlerMetrics;
+import com.cclucky.spring.framework.metrics.MetricsRegistry;
+import com.cclucky.spring.framework.metrics.TimingAspect;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -10,10 +20,16 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.File;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
-import java.util.regex.Matcher;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 import java.util.regex.Pattern;
 
 
@@ -23,10 +39,35 @@ public class DispatcherServlet extends HttpServlet {
 
     private final List<HandlerMapping> handlerMappings = new ArrayList<>();
 
-    private final List<ViewResolver> viewResolvers = new ArrayList<>();
+    // 启动时根据handlerMappings构建的路由树
+    private final HandlerRouter router = new HandlerRouter();
+
+    // 启动时构建的视图映射表
+    private ViewRegistry viewRegistry;
+
+    // viewReload=true 时监听模板目录
+    private TemplateReloader templateReloader;
 
     private final Map<HandlerMapping, HandlerAdapter> handlerAdapters = new HashMap<>();
 
+    // 请求耗时指标，metrics.enabled=false 时为null
+    private MetricsRegistry metricsRegistry;
+    private HandlerMetrics unmatchedMetrics;
+    // metrics.path 配置的指标地址，未配置时不对外暴露
+    private String metricsPath;
+    // 配置了内置计时切面时，其方法统计一并输出
+    private TimingAspect timingAspect;
+
+    // 异步请求的超时时间，asyncTimeout 毫秒
+    private long asyncTimeout = DEFAULT_ASYNC_TIMEOUT;
+    private static final long DEFAULT_ASYNC_TIMEOUT = 30000;
+
+    // handlerExecutor 配置的Handler执行线程池，未配置时在容器线程上执行
+    private ExecutorService handlerExecutor;
+
+    // 视图输出缓存，只有配置了TTL的视图会使用
+    private ViewOutputCache viewOutputCache;
+
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
         // 调用
@@ -36,14 +77,14 @@ public class DispatcherServlet extends HttpServlet {
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
         // 真正调用，负责请求分发，匹配url和方法
+        // 绑定request作用域
+        RequestContextHolder.bindRequest();
         try {
             doDispatch(req, resp);
         } catch (Exception e) {
-            e.printStackTrace();
-            Map<String, Object> map = new HashMap<>();
-            map.put("detail", "500 Exception");
-            map.put("stackTrace", Arrays.toString(e.getStackTrace()));
-            processDispatchResult(req, resp, new ModelAndView("500", map));
+            processDispatchError(req, resp, e);
+        } finally {
+            RequestContextHolder.resetRequest();
         }
     }
 
@@ -97,58 +138,232 @@ public class DispatcherServlet extends HttpServlet {
 //        method.invoke(this.context.getBean(method.getDeclaringClass()), paramValues);
 //    }
 
-    private void doDispatch(HttpServletRequest req, HttpServletResponse resp) throws InvocationTargetException, IllegalAccessException, IOException {
+    private void doDispatch(HttpServletRequest req, HttpServletResponse resp) throws Exception {
+        if (this.metricsPath != null && this.metricsPath.equals(HandlerRouter.normalize(req.getRequestURI(), req.getContextPath()))) {
+            writeMetrics(resp);
+            return;
+        }
+
+        long start = this.metricsRegistry == null ? 0 : System.nanoTime();
         // 根据url获取handlerMapping对象
         HandlerMapping mappedHandler = getHandler(req);
+        HandlerMetrics metrics = mappedHandler == null ? this.unmatchedMetrics : mappedHandler.getMetrics();
+        if (metrics != null) metrics.recordRouting(System.nanoTime() - start);
         if (mappedHandler == null) {
             // 返回404
             processDispatchResult(req, resp, new ModelAndView("404"));
             return;
         }
 
-        // 根据HandlerMapping, 获取一个handlerAdapter
-        HandlerAdapter ha = getHandlerAdapter(mappedHandler);
+        try {
+            // 根据HandlerMapping, 获取一个handlerAdapter
+            HandlerAdapter ha = Objects.requireNonNull(getHandlerAdapter(mappedHandler));
+
+            // 配置了执行线程池时，Handler调用和视图渲染都交给线程池，容器线程立即返回
+            if (this.handlerExecutor != null && req.isAsyncSupported()) {
+                dispatchOn(this.handlerExecutor, ha, req, resp, mappedHandler, metrics);
+                return;
+            }
 
-        // 根据HandlerAdapter的方法动态匹配参数并得到返回值ModelAndView
-        ModelAndView mv = Objects.requireNonNull(ha).handle(req, resp, mappedHandler);
+            // 返回CompletableFuture的Handler：释放容器线程，结果完成后在完成线程上渲染
+            if (mappedHandler.isReturnAsync() && req.isAsyncSupported()) {
+                // Handler在返回CompletionStage之前抛出的异常同样通过异步完成处理，否则AsyncContext要等到超时
+                AsyncDispatch dispatch = startAsync(req, metrics);
+                try {
+                    dispatch.completeWhen(ha.handleAsync(req, resp, mappedHandler));
+                } catch (Throwable e) {
+                    dispatch.complete(null, e);
+                }
+                return;
+            }
 
-        // 根据ModelAndView决定选择哪个ViewResolver进行解析和渲染
-        processDispatchResult(req, resp, mv);
+            // 根据HandlerAdapter的方法动态匹配参数并得到返回值ModelAndView
+            ModelAndView mv = ha.handle(req, resp, mappedHandler);
 
+            // 根据ModelAndView决定选择哪个ViewResolver进行解析和渲染
+            long renderStart = metrics == null ? 0 : System.nanoTime();
+            processDispatchResult(req, resp, mv);
+            if (metrics != null) metrics.recordRendering(System.nanoTime() - renderStart);
+        } catch (Exception e) {
+            if (metrics != null) metrics.recordError();
+            throw e;
+        }
     }
 
-    private void processDispatchResult(HttpServletRequest req, HttpServletResponse resp, ModelAndView mv) throws IOException {
-        if (null == mv) return;
-        if (this.viewResolvers.isEmpty()) return;
+    // 先进入异步模式再提交任务，Handler调用和视图渲染都在线程池上执行，完成后调用AsyncContext.complete()
+    private void dispatchOn(ExecutorService executor, final HandlerAdapter ha,
+                            final HttpServletRequest req, final HttpServletResponse resp,
+                            final HandlerMapping mappedHandler, HandlerMetrics metrics) {
+        final AsyncDispatch dispatch = startAsync(req, metrics);
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    // request作用域绑定在执行Handler和渲染的线程上
+                    RequestContextHolder.bindRequest();
+                    try {
+                        // 异步Handler不在线程池上等待结果，避免占满线程池
+                        if (mappedHandler.isReturnAsync()) {
+                            dispatch.completeWhen(ha.handleAsync(req, resp, mappedHandler));
+                            return;
+                        }
+                        dispatch.complete(ha.handle(req, resp, mappedHandler), null);
+                    } catch (Throwable e) {
+                        dispatch.complete(null, e);
+                    } finally {
+                        RequestContextHolder.resetRequest();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            dispatch.complete(null, e);
+        }
+    }
 
-        for (ViewResolver viewResolver : this.viewResolvers) {
-            if (!mv.getViewName().equals(viewResolver.getName())) continue;
+    private AsyncDispatch startAsync(HttpServletRequest req, HandlerMetrics metrics) {
+        final AsyncDispatch dispatch = new AsyncDispatch(req.startAsync(), metrics);
+        dispatch.asyncContext.setTimeout(this.asyncTimeout);
+        dispatch.asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                dispatch.fail(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                        new TimeoutException("Async request timed out after " + asyncTimeout + " ms"));
+            }
 
-            View view = viewResolver.resolverViewName(mv.getViewName());
-            view.render(mv.getModel(), req, resp);
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                dispatch.fail(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, event.getThrowable());
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        return dispatch;
+    }
+
+    // 一次异步请求，超时和完成只处理先到的一个
+    private final class AsyncDispatch {
+        private final AsyncContext asyncContext;
+        private final HandlerMetrics metrics;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        AsyncDispatch(AsyncContext asyncContext, HandlerMetrics metrics) {
+            this.asyncContext = asyncContext;
+            this.metrics = metrics;
+        }
+
+        void completeWhen(CompletionStage<?> stage) {
+            stage.whenComplete(new BiConsumer<Object, Throwable>() {
+                @Override
+                public void accept(Object result, Throwable error) {
+                    complete(result, error);
+                }
+            });
+        }
+
+        void complete(Object result, Throwable error) {
+            if (!this.finished.compareAndSet(false, true)) return;
+            completeAsync(this.asyncContext, result, error, this.metrics);
+        }
+
+        // 超时或容器报告错误时不再渲染视图，直接返回状态码
+        void fail(int status, Throwable error) {
+            if (!this.finished.compareAndSet(false, true)) return;
+            if (error != null) error.printStackTrace();
+            if (this.metrics != null) this.metrics.recordError();
+            try {
+                HttpServletResponse resp = (HttpServletResponse) this.asyncContext.getResponse();
+                if (!resp.isCommitted()) resp.sendError(status);
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                this.asyncContext.complete();
+            }
         }
     }
 
+    // 在完成线程上渲染结果
+    private void completeAsync(AsyncContext asyncContext, Object result, Throwable error, HandlerMetrics metrics) {
+        try {
+            HttpServletRequest req = (HttpServletRequest) asyncContext.getRequest();
+            HttpServletResponse resp = (HttpServletResponse) asyncContext.getResponse();
+            if (error == null) {
+                long renderStart = metrics == null ? 0 : System.nanoTime();
+                processDispatchResult(req, resp, result instanceof ModelAndView ? (ModelAndView) result : null);
+                if (metrics != null) metrics.recordRendering(System.nanoTime() - renderStart);
+            } else {
+                if (error instanceof CompletionException && error.getCause() != null) error = error.getCause();
+                if (metrics != null) metrics.recordError();
+                processDispatchError(req, resp, error);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            asyncContext.complete();
+        }
+    }
+
+    // 请求参数无法转换时返回400，其他异常渲染500页面
+    private void processDispatchError(HttpServletRequest req, HttpServletResponse resp, Throwable e) throws IOException {
+        if (e instanceof ParameterBindingException) {
+            if (!resp.isCommitted()) resp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        e.printStackTrace();
+        processDispatchResult(req, resp, errorView(e));
+    }
+
+    private static ModelAndView errorView(Throwable e) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("detail", "500 Exception");
+        map.put("stackTrace", Arrays.toString(e.getStackTrace()));
+        return new ModelAndView("500", map);
+    }
+
+    private void writeMetrics(HttpServletResponse resp) throws IOException {
+        resp.setContentType("text/plain;charset=UTF-8");
+        StringBuilder body = new StringBuilder();
+        this.metricsRegistry.writeTo(body);
+        if (this.timingAspect != null) {
+            body.append('\n');
+            this.timingAspect.writeTo(body);
+        }
+        resp.getOutputStream().write(body.toString().getBytes("UTF-8"));
+    }
+
+    private void processDispatchResult(HttpServletRequest req, HttpServletResponse resp, ModelAndView mv) throws IOException {
+        if (null == mv) return;
+        if (this.viewRegistry == null) return;
+
+        // 一次哈希查找得到启动时编译好的视图
+        View view = this.viewRegistry.resolve(mv.getViewName());
+        if (view == null) return;
+        view.render(mv.getModel(), req, resp);
+    }
+
     private HandlerAdapter getHandlerAdapter(HandlerMapping mappedHandler) {
         if (this.handlerAdapters.isEmpty()) return null;
         return this.handlerAdapters.get(mappedHandler);
     }
 
     private HandlerMapping getHandler(HttpServletRequest req) {
-        // 获取用户请求的url
-        String url = req.getRequestURI();
-        // 转换为相对路径
-        String contextPath = req.getContextPath();
-        url = url.replaceAll(contextPath, "").replaceAll("/+", "/");
-        for (HandlerMapping handlerMapping : this.handlerMappings) {
-            Matcher matcher = handlerMapping.getPattern().matcher(url);
-            if (!matcher.matches()) continue;
-            return handlerMapping;
-        }
-        return null;
+        // 按路径段查找路由树，url的相对路径转换在路由内一次完成
+        return this.router.route(req.getRequestURI(), req.getContextPath());
     }
 
-    private void initStrategies(ApplicationContext applicationContext) throws ClassNotFoundException {
+    private void initStrategies(ApplicationContext applicationContext) throws Exception {
+        // 请求耗时指标，需在HandlerMapping之前创建
+        initMetrics(applicationContext);
+
+        this.asyncTimeout = Long.parseLong(applicationContext.getConfig()
+                .getProperty("asyncTimeout", String.valueOf(DEFAULT_ASYNC_TIMEOUT)).trim());
+
+        initHandlerExecutor(applicationContext);
 
         //通过HandlerMapping 将请求影射到控制器
         //HandlerMapping用来保存Controller中配置的RequestMapping和Method的一个对应关系
@@ -166,9 +381,93 @@ public class DispatcherServlet extends HttpServlet {
         String templateRootPath = Objects.requireNonNull(this.getClass().getClassLoader().getResource(templateRoot)).getFile();
         File templateRootDir = new File(templateRootPath);
 
+        // 所有视图共用一个输出缓冲池，viewFlushThreshold为缓冲区大小，即每次写出的字节数
+        Properties config = context.getConfig();
+        ResponseBufferPool bufferPool = new ResponseBufferPool(
+                Integer.parseInt(config.getProperty("viewFlushThreshold", String.valueOf(ResponseBufferPool.DEFAULT_BUFFER_SIZE)).trim()),
+                Integer.parseInt(config.getProperty("viewBufferPoolSize", String.valueOf(ResponseBufferPool.DEFAULT_POOL_SIZE)).trim()));
+
+        // 输出缓存按视图开启：viewCache.ttl.<视图名>=毫秒，所有视图共用viewCache.maxEntries个条目
+        this.viewOutputCache = new ViewOutputCache(Integer.parseInt(
+                config.getProperty("viewCache.maxEntries", String.valueOf(ViewOutputCache.DEFAULT_MAX_ENTRIES)).trim()));
+
+        ViewResolverFactory viewResolverFactory = new ViewResolverFactory() {
+            @Override
+            public ViewResolver create(String fileName) throws IOException {
+                if (!new File(templateRootDir, fileName).isFile()) return null;
+                String viewName = fileName.replace(".html", "");
+                long cacheTtlMillis = Long.parseLong(config.getProperty("viewCache.ttl." + viewName, "0").trim());
+                return new ViewResolver(templateRoot, fileName, bufferPool, viewOutputCache, cacheTtlMillis);
+            }
+        };
+
+        List<ViewResolver> viewResolvers = new ArrayList<>();
         for (File file : Objects.requireNonNull(templateRootDir.listFiles())) {
-            this.viewResolvers.add(new ViewResolver(templateRoot, file.getName()));
+            // 模板在此处一次性编译，请求时不再读取文件
+            try {
+                ViewResolver viewResolver = viewResolverFactory.create(file.getName());
+                if (viewResolver != null) viewResolvers.add(viewResolver);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        this.viewRegistry = new ViewRegistry(viewResolvers, viewResolverFactory);
+
+        // viewReload=true 时后台监听模板修改并重新编译，请求线程始终只查映射表
+        if (Boolean.parseBoolean(config.getProperty("viewReload", "false").trim())) {
+            try {
+                this.templateReloader = new TemplateReloader(templateRootDir, this.viewRegistry);
+                this.templateReloader.start();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * handlerExecutor=virtual 每个请求一个虚拟线程，需要运行在Java 21及以上，否则仍使用容器线程
+     * handlerExecutor=fixed 固定大小的平台线程池，大小为 handlerExecutor.threads，用于对比
+     */
+    private void initHandlerExecutor(ApplicationContext applicationContext) {
+        Properties config = applicationContext.getConfig();
+        String type = config.getProperty("handlerExecutor", "").trim();
+        if (type.isEmpty()) return;
+        if (HandlerExecutors.VIRTUAL.equals(type)) {
+            this.handlerExecutor = HandlerExecutors.newVirtualThreadExecutor();
+            if (this.handlerExecutor == null) {
+                System.out.println("Virtual threads require Java 21, handlers run on container threads");
+                return;
+            }
+        } else if (HandlerExecutors.FIXED.equals(type)) {
+            this.handlerExecutor = HandlerExecutors.newFixedThreadPool(
+                    Integer.parseInt(config.getProperty("handlerExecutor.threads", "200").trim()), "handler");
+        } else {
+            throw new IllegalArgumentException("Unknown handlerExecutor: " + type);
+        }
+        System.out.println("Handler executor:" + type);
+    }
+
+    private void initMetrics(ApplicationContext applicationContext) throws Exception {
+        Properties config = applicationContext.getConfig();
+        // 计时切面的抽样间隔与是否输出统计无关，配置了切面就生效
+        TimingAspect timingAspect = null;
+        if (TimingAspect.class.getName().equals(config.getProperty("aspectClass"))) {
+            timingAspect = (TimingAspect) applicationContext.getBean(TimingAspect.class);
+            String sampleInterval = config.getProperty("timingAspect.sampleInterval");
+            if (sampleInterval != null && !sampleInterval.trim().isEmpty()) {
+                timingAspect.setSampleInterval(Integer.parseInt(sampleInterval.trim()));
+            }
+        }
+        if (!Boolean.parseBoolean(config.getProperty("metrics.enabled", "true").trim())) return;
+        this.metricsRegistry = new MetricsRegistry();
+        this.unmatchedMetrics = this.metricsRegistry.getHandlerMetrics(MetricsRegistry.UNMATCHED);
+        String path = config.getProperty("metrics.path");
+        if (path != null && !path.trim().isEmpty()) {
+            this.metricsPath = HandlerRouter.normalize(path.trim(), null);
+            System.out.println("Metrics:" + this.metricsPath);
         }
+        this.timingAspect = timingAspect;
     }
 
     private void initHandlerAdapters(ApplicationContext applicationContext) {
@@ -178,49 +477,87 @@ public class DispatcherServlet extends HttpServlet {
         }
     }
 
-    private void initHandlerMappings(ApplicationContext applicationContext) throws ClassNotFoundException {
+    private void initHandlerMappings(ApplicationContext applicationContext) throws Exception {
         if (this.context.getBeanDefinitionCount() == 0) return;
 
-        String[] beanNames = this.context.getBeanDefinitionNames();
-        for (String beanName : beanNames) {
-            Object instance = this.context.getBean(beanName);
-            Class<?> clazz = instance.getClass();
-
-            if (!clazz.isAnnotationPresent(Controller.class)) continue;
-
-            String baseUrl = "";
-            if (clazz.isAnnotationPresent(RequestMapping.class)) {
-                baseUrl = clazz.getAnnotation(RequestMapping.class).value();
+        String invokerType = this.context.getConfig().getProperty("methodInvoker");
+        // 异步Handler的Executor形参：配置的Handler线程池，未配置时为公共ForkJoinPool
+        ExecutorService asyncExecutor = this.handlerExecutor != null ? this.handlerExecutor : ForkJoinPool.commonPool();
+        // 从上下文快照启动时直接使用快照中的映射表，不再逐个检查Bean的注解；快照没有提取映射方法时仍按注解查找
+        ContextSnapshot snapshot = this.context.getSnapshot();
+        List<MappedMethod> requestMappings = snapshot != null && snapshot.getMappedMethods() != null
+                ? snapshot.getMappedMethods()
+                : new RequestMappingDetector().detect(this.context);
+
+        for (MappedMethod requestMapping : requestMappings) {
+            BeanDefinition beanDefinition = this.context.getBeanDefinition(requestMapping.getBeanName());
+
+            // 单例Controller此时创建并映射实际实例的方法；其他作用域按原始类映射，请求时从容器获取实例
+            Object instance = null;
+            Class<?> clazz;
+            if (beanDefinition.isSingleton()) {
+                instance = this.context.getBean(requestMapping.getBeanName());
+                clazz = instance.getClass();
+            } else {
+                clazz = Class.forName(beanDefinition.getBeanClassName());
+            }
+            Method method = requestMapping.resolveMethod(clazz);
+
+            String url = requestMapping.getPath();
+            String regex = url.replaceAll("\\*", ".*");
+            Pattern pattern = Pattern.compile(regex);
+
+            HandlerMapping handlerMapping = instance != null
+                    ? new HandlerMapping(pattern, instance, method, invokerType, asyncExecutor)
+                    : new HandlerMapping(pattern, this.context, requestMapping.getBeanName(), method, invokerType, asyncExecutor);
+            if (this.metricsRegistry != null) {
+                handlerMapping.setMetrics(this.metricsRegistry.getHandlerMetrics(
+                        url + ":" + clazz.getSimpleName() + "#" + method.getName()));
             }
+            handlerMappings.add(handlerMapping);
+            router.register(url, handlerMapping);
 
-            for (Method method : clazz.getMethods()) {
-                if (!method.isAnnotationPresent(RequestMapping.class)) continue;
+            System.out.println("Mapped:" + pattern + ", " + method);
+        }
+    }
 
-                RequestMapping requestMapping = method.getAnnotation(RequestMapping.class);
-                String regex = ("/" + baseUrl + "/" + requestMapping.value())
-                        .replaceAll("\\*", ".*")
-                        .replaceAll("/+", "/");
-                Pattern pattern = Pattern.compile(regex);
+    // 未开启指标时返回null
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
 
-                handlerMappings.add(new HandlerMapping(pattern, instance, method));
+    public ViewOutputCache getViewOutputCache() {
+        return viewOutputCache;
+    }
 
-                System.out.println("Mapped:" + pattern + ", " + method);
-            }
-        }
+    // 内置服务器从上下文配置中读取自己的参数
+    public ApplicationContext getApplicationContext() {
+        return context;
     }
 
     @Override
     public void init(ServletConfig config) {
+        long start = System.nanoTime();
         // IoC、 Di
         context = new ApplicationContext(config.getInitParameter("contextConfigLocation"));
 
         // MVC
         try {
             initStrategies(context);
-        } catch (ClassNotFoundException e) {
+        } catch (Exception e) {
             e.printStackTrace();
         }
 
-        System.out.println("spring framework is init");
+        System.out.println("spring framework is init in " + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+
+    @Override
+    public void destroy() {
+        if (this.handlerExecutor != null) {
+            this.handlerExecutor.shutdown();
+        }
+        if (this.templateReloader != null) {
+            this.templateReloader.close();
+        }
     }
 }
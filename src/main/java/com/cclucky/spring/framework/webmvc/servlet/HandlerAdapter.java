@@ -1,59 +1,75 @@
 package com.cclucky.spring.framework.webmvc.servlet;
 
-import com.cclucky.spring.framework.annotation.RequestParam;
+import com.cclucky.spring.framework.metrics.HandlerMetrics;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.Map;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
 
 public class HandlerAdapter {
     // 完成动态参数的匹配
     public ModelAndView handle(HttpServletRequest req, HttpServletResponse resp, HandlerMapping mappedHandler)
-            throws InvocationTargetException, IllegalAccessException {
-        // 获取参数
-        Map<String, String[]> params = req.getParameterMap();
+            throws Exception {
+        Object result = invokeHandler(req, resp, mappedHandler);
+        if (mappedHandler.isReturnAsync()) {
+            // 容器不支持异步时在当前线程等待结果
+            result = await((CompletionStage<?>) result);
+        } else if (!mappedHandler.isReturnModelAndView()) {
+            return null;
+        }
+        return result instanceof ModelAndView ? (ModelAndView) result : null;
+    }
 
-        Method method = mappedHandler.getMethod();
+    // 异步Handler：只完成参数绑定和调用，返回值由调用方在完成时处理
+    public CompletionStage<?> handleAsync(HttpServletRequest req, HttpServletResponse resp, HandlerMapping mappedHandler)
+            throws Exception {
+        CompletionStage<?> stage = (CompletionStage<?>) invokeHandler(req, resp, mappedHandler);
+        return stage == null ? CompletableFuture.completedFuture(null) : stage;
+    }
 
-        // Method的形参列表
-        Class<?>[] paramTypes = method.getParameterTypes();
+    private static Object await(CompletionStage<?> stage) throws Exception {
+        if (stage == null) return null;
+        try {
+            return stage.toCompletableFuture().get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+            throw e;
+        }
+    }
+
+    private Object invokeHandler(HttpServletRequest req, HttpServletResponse resp, HandlerMapping mappedHandler)
+            throws Exception {
+        HandlerMetrics metrics = mappedHandler.getMetrics();
+        long start = metrics == null ? 0 : System.nanoTime();
+
+        // 形参绑定器在启动时已经解析好，这里只需依次取值
+        ArgumentBinder[] binders = mappedHandler.getArgumentBinders();
         // Method的实参列表
-        Object[] paramValues = new Object[paramTypes.length];
-
-        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
-
-        // 为形参赋值
-        for (int i = 0; i < paramTypes.length; i++) {
-            Class<?> paramType = paramTypes[i];
-            if (paramType == HttpServletRequest.class) {
-                paramValues[i] = req;
-            } else if (paramType == HttpServletResponse.class) {
-                paramValues[i] = resp;
-            } else if (paramType == String.class) {
-                for (Annotation a : parameterAnnotations[i]) {
-                    if (a instanceof RequestParam) {
-                        String paramName = ((RequestParam) a).value();
-                        String value = Arrays.toString(params.get(paramName))
-                                .replaceAll("[\\[\\]]", "")
-                                .replaceAll("\\s", "");
-                        paramValues[i] = value;
-                    }
-                }
-            } else {
-                paramValues[i] = null;
-            }
+        Object[] paramValues = new Object[binders.length];
+        for (int i = 0; i < binders.length; i++) {
+            paramValues[i] = binders[i].bind(req, resp);
+        }
+
+        long bound = 0;
+        if (metrics != null) {
+            bound = System.nanoTime();
+            metrics.recordBinding(bound - start);
         }
 
-        Object result = method.invoke(mappedHandler.getController(), paramValues);
-        if (result == null || result instanceof Void) return null;
-        boolean isModelAndView = mappedHandler.getMethod().getReturnType() == ModelAndView.class;
-        if (isModelAndView) {
-            return (ModelAndView) result;
+        Object result;
+        try {
+            result = mappedHandler.getInvoker().invoke(mappedHandler.resolveController(), paramValues);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // 既不是Exception也不是Error的Throwable
+            throw new UndeclaredThrowableException(e);
+        } finally {
+            if (metrics != null) metrics.recordInvocation(System.nanoTime() - bound);
         }
-        return null;
+        return result;
     }
 }
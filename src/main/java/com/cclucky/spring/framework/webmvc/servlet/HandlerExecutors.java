@@ -0,0 +1,44 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 执行Handler的线程池
+ */
+public class HandlerExecutors {
+
+    public static final String VIRTUAL = "virtual";
+    public static final String FIXED = "fixed";
+
+    private HandlerExecutors() {
+    }
+
+    // 每个任务一个虚拟线程，需要运行在Java 21及以上，否则返回null
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            // 编译目标仍为Java 8，通过反射获取
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // 固定大小的平台线程池，守护线程，名称为 prefix-序号
+    public static ExecutorService newFixedThreadPool(int threads, final String prefix) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, prefix + "-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
@@ -1,28 +1,99 @@
 package com.cclucky.spring.framework.webmvc.servlet;
 
+import com.cclucky.spring.framework.context.ApplicationContext;
+import com.cclucky.spring.framework.invoke.MethodInvoker;
+import com.cclucky.spring.framework.invoke.MethodInvokers;
+import com.cclucky.spring.framework.metrics.HandlerMetrics;
+
 import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Pattern;
 
 public class HandlerMapping {
     private final Pattern pattern;
     private final Object controller;
     private final Method method;
+    // 启动时为Handler方法生成的调用器
+    private final MethodInvoker invoker;
+    // 启动时解析好的形参绑定器，请求时按顺序执行
+    private final ArgumentBinder[] argumentBinders;
+    private final boolean returnModelAndView;
+    // 返回CompletableFuture<ModelAndView>等CompletionStage的Handler
+    private final boolean returnAsync;
+    // prototype、request作用域的Controller每次请求从容器获取实例
+    private final ApplicationContext context;
+    private final String beanName;
+    // 未开启指标时为null
+    private HandlerMetrics metrics;
 
     public Pattern getPattern() {
         return pattern;
     }
 
     public HandlerMapping(Pattern pattern, Object controller, Method method) {
+        this(pattern, controller, method, MethodInvokers.METHOD_HANDLE);
+    }
+
+    public HandlerMapping(Pattern pattern, Object controller, Method method, String invokerType) {
+        this(pattern, controller, method, invokerType, ForkJoinPool.commonPool());
+    }
+
+    // executor 绑定到Handler的Executor类型形参
+    public HandlerMapping(Pattern pattern, Object controller, Method method, String invokerType, ExecutorService executor) {
+        this(pattern, controller, null, null, method, invokerType, executor);
+    }
+
+    public HandlerMapping(Pattern pattern, ApplicationContext context, String beanName, Method method, String invokerType,
+                          ExecutorService executor) {
+        this(pattern, null, context, beanName, method, invokerType, executor);
+    }
+
+    private HandlerMapping(Pattern pattern, Object controller, ApplicationContext context, String beanName,
+                           Method method, String invokerType, ExecutorService executor) {
         this.pattern = pattern;
         this.controller = controller;
+        this.context = context;
+        this.beanName = beanName;
         this.method = method;
+        this.invoker = MethodInvokers.create(method, invokerType);
+        this.argumentBinders = ArgumentBinders.resolve(method, executor);
+        this.returnModelAndView = method.getReturnType() == ModelAndView.class;
+        this.returnAsync = CompletionStage.class.isAssignableFrom(method.getReturnType());
     }
 
-    public Object getController() {
-        return controller;
+    // 单例Controller直接返回，否则按作用域从容器获取
+    public Object resolveController() throws Exception {
+        if (this.context == null) return this.controller;
+        return this.context.getBean(this.beanName);
     }
 
     public Method getMethod() {
         return method;
     }
+
+    public MethodInvoker getInvoker() {
+        return invoker;
+    }
+
+    public ArgumentBinder[] getArgumentBinders() {
+        return argumentBinders;
+    }
+
+    public boolean isReturnModelAndView() {
+        return returnModelAndView;
+    }
+
+    public boolean isReturnAsync() {
+        return returnAsync;
+    }
+
+    public HandlerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(HandlerMetrics metrics) {
+        this.metrics = metrics;
+    }
 }
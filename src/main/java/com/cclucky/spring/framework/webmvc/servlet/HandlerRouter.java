@@ -0,0 +1,120 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按路径段建立的前缀树路由，启动时构建
+ * 普通路径段直接按哈希查找，只有包含 * 的映射才退回到正则匹配
+ */
+public class HandlerRouter {
+
+    private final Node root = new Node();
+
+    // url 为已经规整过的映射路径，如 /test/query、/test/*
+    public void register(String url, HandlerMapping handlerMapping) {
+        Node node = this.root;
+        int from = 0;
+        int length = url.length();
+        while (from < length) {
+            int end = url.indexOf('/', from);
+            if (end == -1) end = length;
+            if (end > from) {
+                String segment = url.substring(from, end);
+                // 从第一个通配段开始，剩余部分交给正则
+                if (segment.indexOf('*') != -1) {
+                    node.addWildcard(handlerMapping);
+                    return;
+                }
+                Node child = node.children.get(segment);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(segment, child);
+                }
+                node = child;
+            }
+            from = end + 1;
+        }
+        // 同一路径重复映射时保留先注册的，和原先按顺序匹配的行为一致
+        if (node.handler == null) {
+            node.handler = handlerMapping;
+        }
+    }
+
+    public HandlerMapping route(String requestUri, String contextPath) {
+        String url = normalize(requestUri, contextPath);
+
+        Node node = this.root;
+        List<Node> wildcardNodes = null;
+        int from = 0;
+        int length = url.length();
+        while (node != null && from < length) {
+            int end = url.indexOf('/', from);
+            if (end == -1) end = length;
+            if (end > from) {
+                if (node.wildcards != null) {
+                    if (wildcardNodes == null) wildcardNodes = new ArrayList<>(2);
+                    wildcardNodes.add(node);
+                }
+                node = node.children.get(url.substring(from, end));
+            }
+            from = end + 1;
+        }
+        if (node != null) {
+            // 末尾的'/'和映射的正则一样不匹配精确路径，/test/query/ 只可能由通配映射处理
+            boolean trailingSlash = length > 1 && url.charAt(length - 1) == '/';
+            if (node.handler != null && !trailingSlash) return node.handler;
+            if (node.wildcards != null) {
+                if (wildcardNodes == null) wildcardNodes = new ArrayList<>(1);
+                wildcardNodes.add(node);
+            }
+        }
+        if (wildcardNodes == null) return null;
+
+        // 精确匹配失败，从最深的通配节点开始尝试正则
+        for (int i = wildcardNodes.size() - 1; i >= 0; i--) {
+            for (HandlerMapping handlerMapping : wildcardNodes.get(i).wildcards) {
+                if (handlerMapping.getPattern().matcher(url).matches()) return handlerMapping;
+            }
+        }
+        return null;
+    }
+
+    // 去掉contextPath并合并连续的'/'，只扫描一遍，路径本身干净时不产生新字符串
+    static String normalize(String requestUri, String contextPath) {
+        int start = 0;
+        if (contextPath != null && !contextPath.isEmpty() && requestUri.startsWith(contextPath)) {
+            start = contextPath.length();
+        }
+        int length = requestUri.length();
+        int i = start + 1;
+        while (i < length && !(requestUri.charAt(i) == '/' && requestUri.charAt(i - 1) == '/')) {
+            i++;
+        }
+        if (i >= length) {
+            return start == 0 ? requestUri : requestUri.substring(start);
+        }
+
+        StringBuilder sb = new StringBuilder(length - start);
+        sb.append(requestUri, start, i);
+        for (; i < length; i++) {
+            char c = requestUri.charAt(i);
+            if (c == '/' && requestUri.charAt(i - 1) == '/') continue;
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private HandlerMapping handler;
+        private List<HandlerMapping> wildcards;
+
+        private void addWildcard(HandlerMapping handlerMapping) {
+            if (this.wildcards == null) this.wildcards = new ArrayList<>();
+            this.wildcards.add(handlerMapping);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+/**
+ * 请求参数无法转换为形参类型时抛出，DispatcherServlet返回400
+ */
+public class ParameterBindingException extends RuntimeException {
+
+    private final String parameterName;
+
+    public ParameterBindingException(String parameterName, String value, Class<?> type, Throwable cause) {
+        super("Invalid value '" + value + "' for request parameter '" + parameterName + "' of type " + type.getSimpleName(), cause);
+        this.parameterName = parameterName;
+    }
+
+    public String getParameterName() {
+        return parameterName;
+    }
+}
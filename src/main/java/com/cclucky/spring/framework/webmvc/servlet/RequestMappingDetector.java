@@ -0,0 +1,60 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import com.cclucky.spring.beans.config.BeanDefinition;
+import com.cclucky.spring.beans.support.ClassUtils;
+import com.cclucky.spring.framework.annotation.Controller;
+import com.cclucky.spring.framework.annotation.RequestMapping;
+import com.cclucky.spring.framework.context.ApplicationContext;
+import com.cclucky.spring.framework.context.MappedMethod;
+import com.cclucky.spring.framework.context.MappedMethodDetector;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 查找容器中所有Controller的@RequestMapping方法，路径为完整的映射url
+ * 结果可以写入上下文快照；DispatcherServlet启动时再解析成HandlerMapping
+ */
+public class RequestMappingDetector implements MappedMethodDetector {
+
+    @Override
+    public List<MappedMethod> detect(ApplicationContext context) throws ClassNotFoundException {
+        List<MappedMethod> result = new ArrayList<>();
+        // 同一个类的多个beanName对应同一个Bean，只映射一次
+        Set<String> mappedControllers = new HashSet<>();
+        for (String beanName : context.getBeanDefinitionNames()) {
+            BeanDefinition beanDefinition = context.getBeanDefinition(beanName);
+            if (!mappedControllers.add(beanDefinition.getBeanClassName())) continue;
+
+            // 先按类判断是否是Controller，不为其他Bean创建实例，延迟创建的Bean保持延迟
+            Class<?> beanClass = Class.forName(beanDefinition.getBeanClassName(), false, RequestMappingDetector.class.getClassLoader());
+            if (!beanClass.isAnnotationPresent(Controller.class)) continue;
+
+            // 单例Controller按实际实例的类型查找方法；其他作用域按原始类查找
+            Class<?> clazz = beanClass;
+            if (beanDefinition.isSingleton()) {
+                Object instance = context.getBean(beanName);
+                if (instance == null) continue;
+                clazz = instance.getClass();
+                if (!clazz.isAnnotationPresent(Controller.class)) continue;
+            }
+
+            String baseUrl = "";
+            if (clazz.isAnnotationPresent(RequestMapping.class)) {
+                baseUrl = clazz.getAnnotation(RequestMapping.class).value();
+            }
+
+            for (Method method : clazz.getMethods()) {
+                if (!method.isAnnotationPresent(RequestMapping.class)) continue;
+
+                RequestMapping requestMapping = method.getAnnotation(RequestMapping.class);
+                String url = ("/" + baseUrl + "/" + requestMapping.value()).replaceAll("/+", "/");
+                result.add(new MappedMethod(beanName, url, method.getName(), ClassUtils.getNames(method.getParameterTypes())));
+            }
+        }
+        return result;
+    }
+}
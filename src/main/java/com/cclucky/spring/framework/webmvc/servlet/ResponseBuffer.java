@@ -0,0 +1,85 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 渲染用的UTF-8输出缓冲，字面量字节块直接拷贝，字符串直接编码进缓冲区，不产生中间的byte[]和String
+ * 缓冲区写满（达到flush阈值）时写出到底层输出流，缓冲区本身由ResponseBufferPool复用
+ */
+public class ResponseBuffer {
+
+    private final byte[] buffer;
+    private int count;
+    private OutputStream out;
+
+    public ResponseBuffer(int size) {
+        // 至少能放下一个完整的UTF-8字符
+        this.buffer = new byte[Math.max(size, 16)];
+    }
+
+    void bind(OutputStream out) {
+        this.out = out;
+        this.count = 0;
+    }
+
+    void unbind() {
+        this.out = null;
+        this.count = 0;
+    }
+
+    public void write(byte[] bytes) throws IOException {
+        if (bytes.length > this.buffer.length - this.count) {
+            flushBuffer();
+            // 比缓冲区还大的块直接写出
+            if (bytes.length >= this.buffer.length) {
+                this.out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, this.buffer, this.count, bytes.length);
+        this.count += bytes.length;
+    }
+
+    // 按UTF-8编码写入字符串
+    public void write(String s) throws IOException {
+        byte[] buf = this.buffer;
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            if (buf.length - this.count < 4) flushBuffer();
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buf[this.count++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[this.count++] = (byte) (0xC0 | (c >> 6));
+                buf[this.count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                buf[this.count++] = (byte) (0xF0 | (codePoint >> 18));
+                buf[this.count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buf[this.count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buf[this.count++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // 不成对的代理字符，与String.getBytes一样替换为'?'
+                buf[this.count++] = '?';
+            } else {
+                buf[this.count++] = (byte) (0xE0 | (c >> 12));
+                buf[this.count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[this.count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    // 写出缓冲区中的内容并刷新底层输出流
+    public void flush() throws IOException {
+        flushBuffer();
+        this.out.flush();
+    }
+
+    private void flushBuffer() throws IOException {
+        if (this.count > 0) {
+            this.out.write(this.buffer, 0, this.count);
+            this.count = 0;
+        }
+    }
+}
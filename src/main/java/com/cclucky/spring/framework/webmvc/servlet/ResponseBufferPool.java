@@ -0,0 +1,41 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 渲染缓冲池：每次渲染借出一个固定大小的缓冲区，用完归还，池满时丢弃
+ * bufferSize即flush阈值，页面超过这个大小时分多次写出，不会为整页分配内存
+ */
+public class ResponseBufferPool {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    public static final int DEFAULT_POOL_SIZE = 64;
+
+    private final int bufferSize;
+    private final BlockingQueue<ResponseBuffer> buffers;
+
+    public ResponseBufferPool(int bufferSize, int poolSize) {
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(Math.max(poolSize, 1));
+    }
+
+    public ResponseBuffer acquire(OutputStream out) {
+        ResponseBuffer buffer = this.buffers.poll();
+        if (buffer == null) {
+            buffer = new ResponseBuffer(this.bufferSize);
+        }
+        buffer.bind(out);
+        return buffer;
+    }
+
+    public void release(ResponseBuffer buffer) {
+        buffer.unbind();
+        this.buffers.offer(buffer);
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
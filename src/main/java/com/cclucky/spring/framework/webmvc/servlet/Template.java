@@ -0,0 +1,80 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的模板：启动时解析一次，拆成字面量字节块和占位符两类片段，渲染时按顺序直接写出
+ */
+public class Template {
+
+    private static final String PLACEHOLDER_PREFIX = "￥{";
+    private static final char PLACEHOLDER_SUFFIX = '}';
+
+    // 字面量片段，已按UTF-8编码好；与 names 交替排列：literals[0] names[0] literals[1] ... literals[n]
+    private final byte[][] literals;
+    // 占位符名称
+    private final String[] names;
+
+    private Template(byte[][] literals, String[] names) {
+        this.literals = literals;
+        this.names = names;
+    }
+
+    public static Template compile(File templateFile) throws IOException {
+        return compile(new String(Files.readAllBytes(templateFile.toPath()), StandardCharsets.UTF_8));
+    }
+
+    public static Template compile(String source) {
+        List<byte[]> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+
+        int from = 0;
+        int search = 0;
+        int start;
+        while ((start = source.indexOf(PLACEHOLDER_PREFIX, search)) != -1) {
+            int nameStart = start + PLACEHOLDER_PREFIX.length();
+            int end = source.indexOf(PLACEHOLDER_SUFFIX, nameStart);
+            // 占位符没有闭合、名称为空或跨行时按普通文本处理
+            if (end == -1) break;
+            int lineEnd = source.indexOf('\n', nameStart);
+            if (end == nameStart || (lineEnd != -1 && lineEnd < end)) {
+                search = nameStart;
+                continue;
+            }
+            literals.add(source.substring(from, start).getBytes(StandardCharsets.UTF_8));
+            names.add(source.substring(nameStart, end));
+            from = search = end + 1;
+        }
+        literals.add(source.substring(from).getBytes(StandardCharsets.UTF_8));
+
+        return new Template(literals.toArray(new byte[0][]), names.toArray(new String[0]));
+    }
+
+    // 模板实际用到的占位符的值，渲染结果只取决于它们，用作输出缓存的key
+    public String[] valuesOf(Map<String, ?> model) {
+        String[] values = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            Object value = model == null ? null : model.get(names[i]);
+            values[i] = value == null ? null : value.toString();
+        }
+        return values;
+    }
+
+    // 字面量直接拷贝已编码好的字节，占位符的值直接编码进缓冲区
+    public void render(Map<String, ?> model, ResponseBuffer out) throws IOException {
+        for (int i = 0; i < names.length; i++) {
+            out.write(literals[i]);
+            Object value = model == null ? null : model.get(names[i]);
+            if (value != null) {
+                out.write(value.toString());
+            }
+        }
+        out.write(literals[names.length]);
+    }
+}
@@ -0,0 +1,91 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * 监听模板目录，模板文件被修改或重新创建（编辑器常用先写临时文件再改名的方式保存）时
+ * 在后台线程重新编译并替换ViewRegistry中的视图；新增的模板文件编译后登记为新视图
+ */
+public class TemplateReloader implements Runnable {
+
+    private final File templateRootDir;
+    private final ViewRegistry viewRegistry;
+    private final WatchService watchService;
+    private Thread thread;
+
+    public TemplateReloader(File templateRootDir, ViewRegistry viewRegistry) throws IOException {
+        this.templateRootDir = templateRootDir;
+        this.viewRegistry = viewRegistry;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        templateRootDir.toPath().register(this.watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    public synchronized void start() {
+        if (this.thread != null) return;
+        this.thread = new Thread(this, "template-reloader");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        System.out.println("Watching templates: " + this.templateRootDir);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                WatchKey key = this.watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    // 事件过多时会丢失具体文件，此时逐个检查所有模板
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        reloadAll();
+                        continue;
+                    }
+                    reload(((Path) event.context()).getFileName().toString());
+                }
+                if (!key.reset()) {
+                    System.out.println("Template directory is no longer accessible: " + this.templateRootDir);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // 已关闭
+        }
+    }
+
+    private void reloadAll() {
+        File[] files = this.templateRootDir.listFiles();
+        if (files == null) return;
+        for (File file : files) {
+            reload(file.getName());
+        }
+    }
+
+    private void reload(String fileName) {
+        try {
+            if (this.viewRegistry.reload(fileName)) {
+                System.out.println("Reloaded view: " + fileName);
+            }
+        } catch (IOException e) {
+            // 编译失败时保留原来的视图
+            e.printStackTrace();
+        }
+    }
+
+    public void close() {
+        try {
+            this.watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -2,45 +2,69 @@ package com.cclucky.spring.framework.webmvc.servlet;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
-import java.nio.charset.StandardCharsets;
 import java.util.Map;
-import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class View {
     private final File viewFile;
 
-    public View(File templateFile) {
-        this.viewFile = templateFile;
-    }
+    // 模板只在创建View时编译一次，渲染时不再读文件、不再做正则匹配
+    private final Template template;
 
-    public void render(Map<String, ?> model, HttpServletRequest req, HttpServletResponse resp) throws IOException {
-        StringBuilder sb = new StringBuilder();
+    // 渲染时借用的输出缓冲
+    private final ResponseBufferPool bufferPool;
 
-        RandomAccessFile ra = new RandomAccessFile(this.viewFile, "r");
+    // 输出缓存，未开启时为null
+    private final ViewOutputCache outputCache;
+    private final long cacheTtlMillis;
 
-        String line;
-        while (null != (line = ra.readLine())) {
-            line = new String(line.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8);
+    public View(File templateFile, ResponseBufferPool bufferPool, ViewOutputCache outputCache, long cacheTtlMillis) throws IOException {
+        this.viewFile = templateFile;
+        this.template = Template.compile(templateFile);
+        this.bufferPool = bufferPool;
+        this.outputCache = cacheTtlMillis > 0 ? outputCache : null;
+        this.cacheTtlMillis = cacheTtlMillis;
+    }
 
-            Pattern pattern = Pattern.compile("￥\\{[^}]+\\}", Pattern.CASE_INSENSITIVE);
+    // 直接流式写入响应输出流，整页内容不会在内存中拼出来
+    public void render(Map<String, ?> model, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        resp.setCharacterEncoding("UTF-8");
+        if (this.outputCache != null) {
+            renderCached(model, resp);
+            return;
+        }
+        ResponseBuffer buffer = this.bufferPool.acquire(resp.getOutputStream());
+        try {
+            this.template.render(model, buffer);
+            buffer.flush();
+        } finally {
+            this.bufferPool.release(buffer);
+        }
+    }
 
-            Matcher matcher = pattern.matcher(line);
-            while (matcher.find()) {
-                String paramName = matcher.group();
-                paramName = paramName.replaceAll("￥\\{|\\}", "");
-                Object paramValue = model.get(paramName);
-                paramValue = paramValue == null ? "" : paramValue.toString();
-                line = matcher.replaceFirst((String) paramValue);
-                matcher = pattern.matcher(Objects.requireNonNull(line));
+    // 命中时一次写出缓存的字节；未命中时渲染到内存，写出后放入缓存
+    private void renderCached(Map<String, ?> model, HttpServletResponse resp) throws IOException {
+        String[] values = this.template.valuesOf(model);
+        byte[] body = this.outputCache.get(this, values);
+        if (body == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(this.bufferPool.getBufferSize());
+            ResponseBuffer buffer = this.bufferPool.acquire(out);
+            try {
+                this.template.render(model, buffer);
+                buffer.flush();
+            } finally {
+                this.bufferPool.release(buffer);
             }
-            sb.append(line);
+            body = out.toByteArray();
+            this.outputCache.put(this, values, body, this.cacheTtlMillis);
         }
-        resp.setCharacterEncoding("UTF-8");
-        resp.getWriter().write(sb.toString());
+        resp.setContentLength(body.length);
+        resp.getOutputStream().write(body);
+    }
+
+    public File getViewFile() {
+        return viewFile;
     }
 }
@@ -0,0 +1,135 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 渲染结果缓存：以视图实例和模板中各占位符的值为key，保存编码好的完整响应字节，命中时一次写出
+ * 模板重新编译后得到新的View，旧View上仍在进行的渲染写入的条目不会被新View读到
+ * 容量有上限，超出时淘汰最久未使用的条目；每条记录按所属视图的TTL过期
+ */
+public class ViewOutputCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private final int maxEntries;
+    private final Map<Key, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ViewOutputCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() <= ViewOutputCache.this.maxEntries) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    // 未命中或已过期时返回null
+    public byte[] get(View view, String[] values) {
+        Key key = new Key(view, values);
+        long now = System.currentTimeMillis();
+        synchronized (this.entries) {
+            Entry entry = this.entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits.increment();
+                return entry.body;
+            }
+            if (entry != null) {
+                this.entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(View view, String[] values, byte[] body, long ttlMillis) {
+        Entry entry = new Entry(body, System.currentTimeMillis() + ttlMillis);
+        synchronized (this.entries) {
+            this.entries.put(new Key(view, values), entry);
+        }
+    }
+
+    // 视图被替换后清除它的所有条目
+    public void invalidate(View view) {
+        synchronized (this.entries) {
+            Iterator<Key> keys = this.entries.keySet().iterator();
+            while (keys.hasNext()) {
+                if (keys.next().view == view) keys.remove();
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ViewOutputCache{" +
+                "size=" + size() +
+                ", hits=" + getHitCount() +
+                ", misses=" + getMissCount() +
+                ", evictions=" + getEvictionCount() +
+                '}';
+    }
+
+    private static class Key {
+        private final View view;
+        private final String[] values;
+        private final int hash;
+
+        private Key(View view, String[] values) {
+            this.view = view;
+            this.values = values;
+            this.hash = 31 * System.identityHashCode(view) + Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return hash == key.hash && view == key.view && Arrays.equals(values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static class Entry {
+        private final byte[] body;
+        private final long expiresAt;
+
+        private Entry(byte[] body, long expiresAt) {
+            this.body = body;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
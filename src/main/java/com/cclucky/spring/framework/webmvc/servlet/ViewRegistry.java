@@ -0,0 +1,68 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 视图名到视图的映射表，启动时构建，渲染时只需一次哈希查找
+ * 视图名和带后缀的文件名（index、index.html）都登记为key，查找时不需要处理字符串
+ * 模板修改或新增后由TemplateReloader在后台编译并整体替换映射表，请求线程不读磁盘，正在渲染的请求仍使用旧的视图
+ */
+public class ViewRegistry {
+
+    private volatile Map<String, ViewResolver> resolvers;
+
+    // 运行中新增的模板用它创建ViewResolver，为null时只处理已登记的模板
+    private final ViewResolverFactory viewResolverFactory;
+
+    public ViewRegistry(List<ViewResolver> viewResolvers, ViewResolverFactory viewResolverFactory) {
+        Map<String, ViewResolver> resolvers = new HashMap<>();
+        for (ViewResolver viewResolver : viewResolvers) {
+            register(resolvers, viewResolver);
+        }
+        this.resolvers = Collections.unmodifiableMap(resolvers);
+        this.viewResolverFactory = viewResolverFactory;
+    }
+
+    private static void register(Map<String, ViewResolver> resolvers, ViewResolver viewResolver) {
+        resolvers.put(viewResolver.getName(), viewResolver);
+        resolvers.put(viewResolver.getFileName(), viewResolver);
+    }
+
+    public View resolve(String viewName) {
+        if (viewName == null) return null;
+        ViewResolver viewResolver = this.resolvers.get(viewName);
+        return viewResolver == null ? null : viewResolver.getView();
+    }
+
+    /**
+     * 重新编译指定的模板文件并替换映射表，没有修改过的文件直接忽略
+     * 编辑器保存一次可能产生多个事件，按修改时间去重
+     */
+    public synchronized boolean reload(String fileName) throws IOException {
+        Map<String, ViewResolver> current = this.resolvers;
+        ViewResolver viewResolver = current.get(fileName);
+        if (viewResolver == null) return add(current, fileName);
+        if (!viewResolver.isModified()) return false;
+
+        Map<String, ViewResolver> updated = new HashMap<>(current);
+        register(updated, viewResolver.reload());
+        this.resolvers = Collections.unmodifiableMap(updated);
+        return true;
+    }
+
+    // 新增的模板，编辑器的临时文件、备份文件等不是模板，不登记
+    private boolean add(Map<String, ViewResolver> current, String fileName) throws IOException {
+        if (this.viewResolverFactory == null || !fileName.endsWith(ViewResolver.DEFAULT_TEMPLATE_SUFFIX)) return false;
+        ViewResolver viewResolver = this.viewResolverFactory.create(fileName);
+        if (viewResolver == null) return false;
+
+        Map<String, ViewResolver> updated = new HashMap<>(current);
+        register(updated, viewResolver);
+        this.resolvers = Collections.unmodifiableMap(updated);
+        return true;
+    }
+}
@@ -1,26 +1,66 @@
 package com.cclucky.spring.framework.webmvc.servlet;
 
 import java.io.File;
+import java.io.IOException;
 
 public class ViewResolver {
 
     private final File templateRootDir;
     private final String name;
 
-    private final String DEFAULT_TEMPLATE_SUFFIX = ".html";
+    static final String DEFAULT_TEMPLATE_SUFFIX = ".html";
 
-    public ViewResolver(String templateRoot, String fileName) {
+    // 重新编译时沿用的参数
+    private final String templateRoot;
+    private final String fileName;
+    private final ResponseBufferPool bufferPool;
+    private final ViewOutputCache outputCache;
+    private final long cacheTtlMillis;
+
+    // 编译时模板文件的修改时间
+    private final long lastModified;
+
+    // 启动时编译好的视图
+    private final View view;
+
+    // cacheTtlMillis大于0时该视图的渲染结果放入outputCache
+    public ViewResolver(String templateRoot, String fileName, ResponseBufferPool bufferPool,
+                        ViewOutputCache outputCache, long cacheTtlMillis) throws IOException {
         String templateRootPath = this.getClass().getClassLoader().getResource(templateRoot).getFile();
         this.templateRootDir = new File(templateRootPath);
 
+        this.templateRoot = templateRoot;
+        this.fileName = fileName;
+        this.bufferPool = bufferPool;
+        this.outputCache = outputCache;
+        this.cacheTtlMillis = cacheTtlMillis;
+
         this.name = fileName.replace(DEFAULT_TEMPLATE_SUFFIX, "");
+        File templateFile = new File(this.templateRootDir, fileName);
+        this.lastModified = templateFile.lastModified();
+        this.view = new View(templateFile, bufferPool, outputCache, cacheTtlMillis);
+    }
+
+    // 重新编译模板得到新的ViewResolver，原有的View不受影响；原View已缓存的输出一并失效
+    public ViewResolver reload() throws IOException {
+        ViewResolver reloaded = new ViewResolver(this.templateRoot, this.fileName, this.bufferPool, this.outputCache, this.cacheTtlMillis);
+        if (this.outputCache != null) {
+            this.outputCache.invalidate(this.view);
+        }
+        return reloaded;
+    }
+
+    // 模板文件在编译之后是否被修改过
+    public boolean isModified() {
+        return this.view.getViewFile().lastModified() != this.lastModified;
+    }
+
+    public View getView() {
+        return view;
     }
 
-    public View resolverViewName(String viewName) {
-        if (viewName == null || viewName.isEmpty()) return null;
-        viewName = viewName.endsWith(DEFAULT_TEMPLATE_SUFFIX) ? viewName : (viewName + DEFAULT_TEMPLATE_SUFFIX);
-        File templateFile = new File((this.templateRootDir + "/" + viewName).replaceAll("/+", "/"));
-        return new View(templateFile);
+    public String getFileName() {
+        return fileName;
     }
 
     public String getName() {
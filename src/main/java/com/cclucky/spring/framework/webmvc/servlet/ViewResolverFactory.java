@@ -0,0 +1,12 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import java.io.IOException;
+
+/**
+ * 按模板文件名创建ViewResolver，启动时和运行中新增模板时使用同一套参数
+ */
+public interface ViewResolverFactory {
+
+    // 文件不存在或不是普通文件时返回null
+    ViewResolver create(String fileName) throws IOException;
+}
@@ -0,0 +1,95 @@
+package com.cclucky.spring.beans.support;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BeanDependencyGraphTest {
+
+    @Test
+    public void ordersDependenciesBeforeDependents() {
+        BeanDependencyGraph graph = new BeanDependencyGraph();
+        graph.addDependency("controller", "service");
+        graph.addDependency("service", "dao");
+        graph.addNode("standalone");
+
+        assertEquals(Arrays.asList(
+                Collections.singletonList("dao"),
+                Collections.singletonList("service"),
+                Collections.singletonList("controller"),
+                Collections.singletonList("standalone")), graph.getComponents());
+    }
+
+    @Test
+    public void groupsCycleIntoOneComponent() {
+        BeanDependencyGraph graph = new BeanDependencyGraph();
+        graph.addDependency("a", "b");
+        graph.addDependency("b", "c");
+        graph.addDependency("c", "a");
+        graph.addDependency("c", "d");
+        graph.addDependency("e", "b");
+
+        List<List<String>> components = graph.getComponents();
+        assertEquals(Arrays.asList(
+                Collections.singletonList("d"),
+                Arrays.asList("a", "b", "c"),
+                Collections.singletonList("e")), components);
+    }
+
+    @Test
+    public void ignoresSelfDependency() {
+        BeanDependencyGraph graph = new BeanDependencyGraph();
+        graph.addDependency("a", "a");
+
+        assertTrue(graph.getDependencies("a").isEmpty());
+        assertEquals(Collections.singletonList(Collections.singletonList("a")), graph.getComponents());
+    }
+
+    @Test
+    public void orderIsIndependentOfInsertionOrder() {
+        String[][] edges = {{"x", "y"}, {"y", "x"}, {"z", "x"}, {"w", "z"}, {"v", "w"}, {"y", "u"}};
+        BeanDependencyGraph forward = new BeanDependencyGraph();
+        for (String[] edge : edges) {
+            forward.addDependency(edge[0], edge[1]);
+        }
+        BeanDependencyGraph backward = new BeanDependencyGraph();
+        for (int i = edges.length - 1; i >= 0; i--) {
+            backward.addDependency(edges[i][0], edges[i][1]);
+        }
+        assertEquals(forward.getComponents(), backward.getComponents());
+    }
+
+    @Test
+    public void everyDependencyOutsideComponentComesEarlier() {
+        BeanDependencyGraph graph = new BeanDependencyGraph();
+        for (int i = 0; i < 200; i++) {
+            graph.addDependency("bean" + i, "bean" + (i * 7 + 3) % 200);
+            graph.addDependency("bean" + i, "bean" + (i * 13 + 5) % 200);
+        }
+        List<List<String>> components = graph.getComponents();
+
+        Map<String, Integer> position = new HashMap<>();
+        List<String> all = new ArrayList<>();
+        for (int i = 0; i < components.size(); i++) {
+            for (String node : components.get(i)) {
+                position.put(node, i);
+                all.add(node);
+            }
+        }
+        assertEquals(200, all.size());
+        assertEquals(200, position.size());
+        for (String node : all) {
+            for (String dependency : graph.getDependencies(node)) {
+                assertTrue(node + " -> " + dependency, position.get(dependency) <= position.get(node));
+            }
+        }
+    }
+}
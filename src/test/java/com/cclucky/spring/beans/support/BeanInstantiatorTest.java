@@ -0,0 +1,151 @@
+package com.cclucky.spring.beans.support;
+
+import com.cclucky.spring.beans.BeanCreationException;
+import com.cclucky.spring.framework.annotation.Autowired;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BeanInstantiatorTest {
+
+    static class AutowiredPreferred {
+        final String via;
+
+        AutowiredPreferred() {
+            this.via = "default";
+        }
+
+        @Autowired("namedRepository")
+        AutowiredPreferred(Object repository) {
+            this.via = "autowired:" + repository;
+        }
+    }
+
+    static class DefaultPreferred {
+        final String via;
+
+        DefaultPreferred() {
+            this.via = "default";
+        }
+
+        DefaultPreferred(String name) {
+            this.via = name;
+        }
+    }
+
+    static class SingleConstructor {
+        final String name;
+        final Integer count;
+
+        SingleConstructor(String name, Integer count) {
+            this.name = name;
+            this.count = count;
+        }
+    }
+
+    static class TwoAutowired {
+        @Autowired
+        TwoAutowired(String name) {
+        }
+
+        @Autowired
+        TwoAutowired(Integer count) {
+        }
+    }
+
+    static class NoCandidate {
+        NoCandidate(String name) {
+        }
+
+        NoCandidate(Integer count) {
+        }
+    }
+
+    static class PrivateDefault {
+        private PrivateDefault() {
+        }
+    }
+
+    static class FailingConstructor {
+        static Throwable failure;
+
+        FailingConstructor() throws Throwable {
+            throw failure;
+        }
+    }
+
+    @Test
+    public void prefersAutowiredConstructor() throws Throwable {
+        BeanInstantiator instantiator = BeanInstantiator.forClass(AutowiredPreferred.class);
+
+        assertEquals(1, instantiator.getConstructor().getParameterTypes().length);
+        // 只有一个参数时使用@Autowired指定的beanName
+        assertArrayEquals(new String[]{"namedRepository"}, instantiator.getParameterBeanNames());
+        AutowiredPreferred bean = (AutowiredPreferred) instantiator.instantiate(new Object[]{"repo"});
+        assertEquals("autowired:repo", bean.via);
+    }
+
+    @Test
+    public void fallsBackToDefaultConstructor() throws Throwable {
+        BeanInstantiator instantiator = BeanInstantiator.forClass(DefaultPreferred.class);
+
+        assertEquals(0, instantiator.getParameterBeanNames().length);
+        assertEquals("default", ((DefaultPreferred) instantiator.instantiate(new Object[0])).via);
+    }
+
+    @Test
+    public void usesOnlyConstructorAndResolvesParametersByType() throws Throwable {
+        BeanInstantiator instantiator = BeanInstantiator.forClass(SingleConstructor.class);
+
+        assertArrayEquals(new String[]{String.class.getName(), Integer.class.getName()}, instantiator.getParameterBeanNames());
+        SingleConstructor bean = (SingleConstructor) instantiator.instantiate(new Object[]{"tom", 3});
+        assertEquals("tom", bean.name);
+        assertEquals(Integer.valueOf(3), bean.count);
+    }
+
+    @Test
+    public void rejectsAmbiguousConstructors() {
+        try {
+            BeanInstantiator.forClass(TwoAutowired.class);
+            fail();
+        } catch (BeanCreationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Multiple @Autowired constructors"));
+        }
+        try {
+            BeanInstantiator.forClass(NoCandidate.class);
+            fail();
+        } catch (BeanCreationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("No default constructor found"));
+        }
+    }
+
+    @Test
+    public void instantiatesThroughPrivateDefaultConstructor() throws Throwable {
+        BeanInstantiator instantiator = BeanInstantiator.forClass(PrivateDefault.class);
+
+        assertTrue(instantiator.instantiate(new Object[0]) instanceof PrivateDefault);
+    }
+
+    @Test
+    public void constructorFailuresPropagateUnwrapped() {
+        BeanInstantiator instantiator = BeanInstantiator.forClass(FailingConstructor.class);
+
+        Throwable[] failures = {new IllegalStateException("runtime"), new IOException("checked"), new AssertionError("error")};
+        for (Throwable failure : failures) {
+            FailingConstructor.failure = failure;
+            try {
+                instantiator.instantiate(new Object[0]);
+                fail();
+            } catch (Throwable e) {
+                // 不包装成InvocationTargetException
+                assertSame(failure, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.cclucky.spring.beans.support;
+
+import com.cclucky.spring.framework.annotation.Controller;
+import com.cclucky.spring.framework.annotation.Service;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ClassMetadataTest {
+
+    private static final Collection<String> COMPONENT_TYPES =
+            Arrays.asList(Service.class.getName(), Controller.class.getName());
+
+    @Service(scope = "prototype", lazy = true)
+    static class ScopedService extends Number implements Runnable, Serializable {
+        private long value = 42L;
+        private static final double RATIO = 1.5;
+
+        @Override
+        public void run() {
+        }
+
+        @Override
+        public int intValue() {
+            return (int) value;
+        }
+
+        @Override
+        public long longValue() {
+            return value;
+        }
+
+        @Override
+        public float floatValue() {
+            return value;
+        }
+
+        @Override
+        public double doubleValue() {
+            return value * RATIO;
+        }
+    }
+
+    @Controller
+    abstract static class AbstractController {
+    }
+
+    @Service
+    interface AnnotatedInterface {
+    }
+
+    static class PlainClass {
+    }
+
+    private static ClassMetadata read(Class<?> clazz, Collection<String> annotationTypes) throws IOException {
+        InputStream in = clazz.getClassLoader().getResourceAsStream(clazz.getName().replace('.', '/') + ".class");
+        assertNotNull(in);
+        try {
+            return ClassMetadata.read(in, annotationTypes);
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void readsNamesAndExplicitAnnotationValues() throws IOException {
+        ClassMetadata metadata = read(ScopedService.class, COMPONENT_TYPES);
+        assertNotNull(metadata);
+        assertEquals(ScopedService.class.getName(), metadata.getClassName());
+        assertEquals("ScopedService", metadata.getSimpleName());
+        assertEquals(Number.class.getName(), metadata.getSuperClassName());
+        assertArrayEquals(new String[]{Runnable.class.getName(), Serializable.class.getName()}, metadata.getInterfaceNames());
+        assertFalse(metadata.isInterface());
+        assertFalse(metadata.isAbstract());
+        assertTrue(metadata.hasAnnotation(Service.class.getName()));
+        assertEquals("prototype", metadata.getAnnotationValue(Service.class.getName(), "scope"));
+        assertEquals(Boolean.TRUE, metadata.getAnnotationValue(Service.class.getName(), "lazy"));
+    }
+
+    @Test
+    public void defaultAnnotationValuesAreNotRecorded() throws IOException {
+        ClassMetadata metadata = read(AbstractController.class, COMPONENT_TYPES);
+        assertNotNull(metadata);
+        assertTrue(metadata.hasAnnotation(Controller.class.getName()));
+        assertNull(metadata.getAnnotationValue(Controller.class.getName(), "scope"));
+        assertNull(metadata.getAnnotationValue(Service.class.getName(), "scope"));
+    }
+
+    @Test
+    public void detectsAbstractClassesAndInterfaces() throws IOException {
+        assertTrue(read(AbstractController.class, COMPONENT_TYPES).isAbstract());
+        assertTrue(read(AnnotatedInterface.class, COMPONENT_TYPES).isInterface());
+    }
+
+    @Test
+    public void skipsClassesWithoutRequestedAnnotations() throws IOException {
+        assertNull(read(PlainClass.class, COMPONENT_TYPES));
+        assertNull(read(ScopedService.class, Collections.singletonList(Controller.class.getName())));
+    }
+
+    @Test
+    public void readsEveryClassWhenNoAnnotationTypesGiven() throws IOException {
+        ClassMetadata metadata = read(PlainClass.class, Collections.<String>emptyList());
+        assertNotNull(metadata);
+        assertEquals(Object.class.getName(), metadata.getSuperClassName());
+        assertEquals(0, metadata.getInterfaceNames().length);
+        assertFalse(metadata.hasAnnotation(Service.class.getName()));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsNonClassFiles() throws IOException {
+        ClassMetadata.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}), COMPONENT_TYPES);
+    }
+}
@@ -0,0 +1,120 @@
+package com.cclucky.spring.beans.support;
+
+import com.cclucky.spring.framework.annotation.Controller;
+import com.cclucky.spring.framework.annotation.Service;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.dynamic.DynamicType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 在临时目录中生成几千个类的包，对比读取类文件和逐个Class.forName的扫描耗时
+ */
+public class ClassPathScannerTest {
+
+    private static final String PACKAGE = "synthetic.scan";
+    private static final int CLASS_COUNT = 3000;
+    // 每隔多少个类有一个@Service
+    private static final int COMPONENT_EVERY = 10;
+    private static final Collection<String> COMPONENT_TYPES =
+            Arrays.asList(Service.class.getName(), Controller.class.getName());
+
+    private File root;
+    private List<String> classNames;
+
+    // 记录经过它定义的类，扫描后应为空
+    private static class RecordingClassLoader extends URLClassLoader {
+        final Set<String> defined = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+        RecordingClassLoader(URL[] urls) {
+            super(urls, ClassPathScannerTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            defined.add(name);
+            return super.findClass(name);
+        }
+    }
+
+    @Before
+    public void generateClasses() throws Exception {
+        root = Files.createTempDirectory("cc-spring-scan").toFile();
+        classNames = new ArrayList<>();
+        AnnotationDescription service = AnnotationDescription.Builder.ofType(Service.class).build();
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            String name = PACKAGE + ".Synthetic" + i;
+            DynamicType.Builder<Object> builder = new ByteBuddy().subclass(Object.class).name(name);
+            if (i % COMPONENT_EVERY == 0) builder = builder.annotateType(service);
+            builder.make().saveIn(root);
+            classNames.add(name);
+        }
+    }
+
+    @After
+    public void deleteClasses() {
+        File dir = new File(root, PACKAGE.replace('.', '/'));
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) file.delete();
+        }
+        for (File current = dir; current != null && !current.equals(root.getParentFile()); current = current.getParentFile()) {
+            current.delete();
+        }
+    }
+
+    @Test
+    public void scansSyntheticPackageWithoutLoadingClasses() throws Exception {
+        long best = Long.MAX_VALUE;
+        List<ClassMetadata> candidates = null;
+        for (int round = 0; round < 5; round++) {
+            RecordingClassLoader classLoader = new RecordingClassLoader(new URL[]{root.toURI().toURL()});
+            long start = System.nanoTime();
+            candidates = new ClassPathScanner(classLoader, COMPONENT_TYPES, Runtime.getRuntime().availableProcessors()).scan(PACKAGE);
+            best = Math.min(best, System.nanoTime() - start);
+            // 只读取类文件，不定义任何类
+            assertTrue(classLoader.defined.toString(), classLoader.defined.isEmpty());
+            classLoader.close();
+        }
+        assertEquals(CLASS_COUNT / COMPONENT_EVERY, candidates.size());
+        for (ClassMetadata candidate : candidates) {
+            assertTrue(candidate.hasAnnotation(Service.class.getName()));
+        }
+
+        // 原来的做法：逐个加载并初始化类，再检查注解
+        long bestForName = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            URLClassLoader classLoader = new URLClassLoader(new URL[]{root.toURI().toURL()}, ClassPathScannerTest.class.getClassLoader());
+            long start = System.nanoTime();
+            int found = 0;
+            for (String className : classNames) {
+                Class<?> clazz = Class.forName(className, true, classLoader);
+                if (clazz.isAnnotationPresent(Service.class) || clazz.isAnnotationPresent(Controller.class)) found++;
+            }
+            bestForName = Math.min(bestForName, System.nanoTime() - start);
+            assertEquals(CLASS_COUNT / COMPONENT_EVERY, found);
+            classLoader.close();
+        }
+
+        System.out.println(String.format(Locale.ROOT, "ClassPathScanner %d classes: bytecode scan %.1f ms, Class.forName %.1f ms",
+                CLASS_COUNT, best / 1e6, bestForName / 1e6));
+    }
+}
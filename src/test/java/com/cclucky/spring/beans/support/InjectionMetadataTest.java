@@ -0,0 +1,90 @@
+package com.cclucky.spring.beans.support;
+
+import com.cclucky.spring.beans.support.fixture.InjectionBase;
+import com.cclucky.spring.framework.annotation.Autowired;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class InjectionMetadataTest {
+
+    // 与父类的方法同签名，但都不构成覆盖：父类的是其他包的包级别方法和private方法
+    static class CrossPackageChild extends InjectionBase {
+        void setRepository(Object repository) {
+        }
+
+        public void setCache(Object cache) {
+        }
+
+        // 覆盖了父类的public方法，没有@Autowired就不再注入
+        @Override
+        public void setClock(Object clock) {
+        }
+    }
+
+    static class SamePackageBase {
+        @Autowired("repository")
+        void setRepository(Object repository) {
+        }
+
+        @Autowired("cache")
+        private void setCache(Object cache) {
+        }
+    }
+
+    static class SamePackageChild extends SamePackageBase {
+        // 同一个包中覆盖了包级别方法
+        @Override
+        void setRepository(Object repository) {
+        }
+
+        // private方法不会遮住父类的private注入点，自身的@Autowired照常注入
+        @Autowired("localCache")
+        private void setCache(Object cache) {
+        }
+    }
+
+    @Test
+    public void packagePrivateMethodInOtherPackageIsNotOverridden() {
+        InjectionMetadata metadata = InjectionMetadata.forClass(CrossPackageChild.class);
+
+        List<String> expected = new ArrayList<>();
+        expected.add(InjectionBase.class.getSimpleName() + ".setRepository->repository");
+        expected.add(InjectionBase.class.getSimpleName() + ".setCache->cache");
+        assertEquals(expected, sorted(describe(metadata), expected));
+    }
+
+    @Test
+    public void privateMethodsNeverMaskOrGetMasked() {
+        InjectionMetadata metadata = InjectionMetadata.forClass(SamePackageChild.class);
+
+        List<String> expected = new ArrayList<>();
+        expected.add("SamePackageBase.setCache->cache");
+        expected.add("SamePackageChild.setCache->localCache");
+        assertEquals(expected, sorted(describe(metadata), expected));
+    }
+
+    private static List<String> describe(InjectionMetadata metadata) {
+        List<String> result = new ArrayList<>();
+        for (InjectionMetadata.InjectedElement element : metadata.getElements()) {
+            result.add(element.getMember().getDeclaringClass().getSimpleName() + "."
+                    + element.getMember().getName() + "->" + element.getBeanName());
+        }
+        return result;
+    }
+
+    // 同一个类中方法的顺序由getDeclaredMethods决定，按期望的顺序排列后再比较
+    private static List<String> sorted(List<String> actual, List<String> order) {
+        List<String> result = new ArrayList<>();
+        for (String item : order) {
+            if (actual.contains(item)) result.add(item);
+        }
+        for (String item : actual) {
+            if (!order.contains(item)) result.add(item);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,132 @@
+package com.cclucky.spring.beans.support;
+
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class SingletonBeanRegistryTest {
+
+    static class Node {
+        volatile Node dependency;
+    }
+
+    // 模拟字段注入：实例化后提前暴露引用，在barrier处等另一个线程也开始创建，再获取依赖
+    private static SingletonBeanRegistry.SingletonFactory factory(final SingletonBeanRegistry registry, final String beanName,
+                                                                  final String dependencyName, final AtomicInteger created,
+                                                                  final CyclicBarrier barrier,
+                                                                  final SingletonBeanRegistry.SingletonFactory dependencyFactory) {
+        return new SingletonBeanRegistry.SingletonFactory() {
+            @Override
+            public Object getObject() throws Exception {
+                created.incrementAndGet();
+                final Node node = new Node();
+                registry.addSingletonFactory(beanName, new SingletonBeanRegistry.SingletonFactory() {
+                    @Override
+                    public Object getObject() {
+                        return node;
+                    }
+                });
+                if (barrier != null) barrier.await(5, TimeUnit.SECONDS);
+                node.dependency = (Node) registry.getSingleton(dependencyName, dependencyFactory);
+                return node;
+            }
+        };
+    }
+
+    @Test
+    public void crossDependentLookupsFromTwoThreadsDoNotDeadlock() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            final SingletonBeanRegistry registry = new SingletonBeanRegistry();
+            final AtomicInteger createdA = new AtomicInteger();
+            final AtomicInteger createdB = new AtomicInteger();
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            // 两个线程分别从a和b开始；依赖方的工厂不再等待barrier
+            final SingletonBeanRegistry.SingletonFactory fromA = factory(registry, "a", "b", createdA, barrier,
+                    factory(registry, "b", "a", createdB, null, null));
+            final SingletonBeanRegistry.SingletonFactory fromB = factory(registry, "b", "a", createdB, barrier,
+                    factory(registry, "a", "b", createdA, null, null));
+
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                Future<Object> a = executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() {
+                        return registry.getSingleton("a", fromA);
+                    }
+                });
+                Future<Object> b = executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() {
+                        return registry.getSingleton("b", fromB);
+                    }
+                });
+                Node nodeA = (Node) a.get(5, TimeUnit.SECONDS);
+                Node nodeB = (Node) b.get(5, TimeUnit.SECONDS);
+
+                assertEquals(1, createdA.get());
+                assertEquals(1, createdB.get());
+                assertSame(nodeA, registry.getSingleton("a"));
+                assertSame(nodeB, registry.getSingleton("b"));
+                assertSame(nodeB, nodeA.dependency);
+                assertSame(nodeA, nodeB.dependency);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void concurrentLookupsCreateOneInstance() throws Exception {
+        final SingletonBeanRegistry registry = new SingletonBeanRegistry();
+        final AtomicInteger created = new AtomicInteger();
+        final SingletonBeanRegistry.SingletonFactory slow = new SingletonBeanRegistry.SingletonFactory() {
+            @Override
+            public Object getObject() throws Exception {
+                created.incrementAndGet();
+                Thread.sleep(20);
+                return new Node();
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() {
+                        return registry.getSingleton("slow", slow);
+                    }
+                });
+            }
+            Object first = futures[0].get(5, TimeUnit.SECONDS);
+            for (Future<?> future : futures) {
+                assertSame(first, future.get(5, TimeUnit.SECONDS));
+            }
+            assertSame(first, registry.getSingleton("slow"));
+            assertEquals(1, created.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void sameThreadCycleReturnsEarlyReference() {
+        final SingletonBeanRegistry registry = new SingletonBeanRegistry();
+        AtomicInteger createdA = new AtomicInteger();
+        AtomicInteger createdB = new AtomicInteger();
+        Node a = (Node) registry.getSingleton("a", factory(registry, "a", "b", createdA, null,
+                factory(registry, "b", "a", createdB, null, null)));
+        assertSame(a, a.dependency.dependency);
+        assertEquals(1, createdA.get());
+        assertEquals(1, createdB.get());
+    }
+}
@@ -0,0 +1,21 @@
+package com.cclucky.spring.beans.support.fixture;
+
+import com.cclucky.spring.framework.annotation.Autowired;
+
+/**
+ * InjectionMetadataTest用的父类，放在另一个包中，子类无法覆盖它的包级别方法
+ */
+public class InjectionBase {
+
+    @Autowired("repository")
+    void setRepository(Object repository) {
+    }
+
+    @Autowired("cache")
+    private void setCache(Object cache) {
+    }
+
+    @Autowired("clock")
+    public void setClock(Object clock) {
+    }
+}
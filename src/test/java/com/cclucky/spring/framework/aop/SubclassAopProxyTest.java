@@ -0,0 +1,125 @@
+package com.cclucky.spring.framework.aop;
+
+import com.cclucky.spring.framework.aop.config.AopConfig;
+import com.cclucky.spring.framework.aop.support.AdviceSupport;
+import com.cclucky.spring.framework.aop.support.AspectMetadata;
+import com.cclucky.spring.framework.aop.support.PointcutMatcher;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SubclassAopProxyTest {
+
+    public static class Pricing {
+        public int price(String item) {
+            return item.length();
+        }
+    }
+
+    // 没有实现接口，依赖通过构造器注入
+    public static class Inventory {
+        private final Pricing pricing;
+
+        public Inventory(Pricing pricing) {
+            this.pricing = pricing;
+        }
+
+        public int total(String item, int quantity) {
+            return this.pricing.price(item) * quantity;
+        }
+
+        public int totalWithTax(String item) {
+            return tax(total(item, 1));
+        }
+
+        private int tax(int amount) {
+            return amount * 2;
+        }
+
+        public final Pricing getPricing() {
+            return this.pricing;
+        }
+
+        protected Pricing pricing() {
+            return this.pricing;
+        }
+    }
+
+    public static class RecordingAspect {
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+        public void before() {
+            events.add("before");
+        }
+
+        public void after() {
+            events.add("after");
+        }
+    }
+
+    private Pricing pricing;
+    private Inventory target;
+    private RecordingAspect aspect;
+    private Inventory proxy;
+
+    @Before
+    public void createProxy() {
+        this.pricing = new Pricing();
+        this.target = new Inventory(this.pricing);
+        this.aspect = new RecordingAspect();
+
+        AopConfig config = new AopConfig();
+        // 不限定修饰符，final和private方法同样满足切面表达式
+        config.setPointCut(".* .*SubclassAopProxyTest\\$Inventory..*(.*)");
+        config.setAspectBefore("before");
+        config.setAspectAfter("after");
+        AdviceSupport support = new AdviceSupport(config, new PointcutMatcher(config.getPointCut()), new AspectMetadata(config, this.aspect));
+        support.setTargetClass(Inventory.class);
+        support.setTarget(this.target);
+        this.proxy = new SubclassAopProxy(support).getProxy();
+    }
+
+    @Test
+    public void proxiesClassWithoutInterface() {
+        assertTrue(this.proxy instanceof Inventory);
+        assertNotSame(Inventory.class, this.proxy.getClass());
+    }
+
+    @Test
+    public void adviceFiresAroundTargetUsingConstructorInjectedDependency() {
+        assertEquals(12, this.proxy.total("four", 3));
+        assertEquals(Arrays.asList("before", "after"), this.aspect.events);
+    }
+
+    // 切面只匹配public方法，protected方法不加通知，但同样转发给目标对象
+    @Test
+    public void protectedMethodIsForwardedToTarget() {
+        assertSame(this.pricing, this.proxy.pricing());
+        assertTrue(this.aspect.events.isEmpty());
+    }
+
+    // 目标对象内部调用的total和private的tax都不经过代理
+    @Test
+    public void privateAndSelfInvokedMethodsAreNotIntercepted() {
+        assertEquals(8, this.proxy.totalWithTax("four"));
+        assertEquals(Arrays.asList("before", "after"), this.aspect.events);
+    }
+
+    // final方法无法重写，在没有执行构造器的代理对象自身上执行
+    @Test
+    public void finalMethodIsNotIntercepted() {
+        assertSame(this.pricing, this.target.getPricing());
+        assertNull(this.proxy.getPricing());
+        assertTrue(this.aspect.events.isEmpty());
+    }
+}
@@ -0,0 +1,141 @@
+package com.cclucky.spring.framework.aop.support;
+
+import com.cclucky.spring.framework.aop.JdkDynamicAopProxy;
+import com.cclucky.spring.framework.aop.aspect.JoinPoint;
+import com.cclucky.spring.framework.aop.config.AopConfig;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AdviceChainTest {
+
+    public interface Greeting {
+        String greet(String name);
+    }
+
+    public static class GreetingImpl implements Greeting {
+        final List<String> events;
+        boolean fail;
+
+        GreetingImpl(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public String greet(String name) {
+            events.add("target");
+            if (fail) throw new IllegalStateException("target failed");
+            return "hello " + name;
+        }
+    }
+
+    // 记录通知的执行顺序，环绕通知调用proceed()的次数由calls决定
+    public static class RecordingAspect {
+        final List<String> events;
+        int calls = 1;
+        boolean fail;
+
+        RecordingAspect(List<String> events) {
+            this.events = events;
+        }
+
+        public void before() {
+            events.add("before");
+        }
+
+        public void after() {
+            events.add("after");
+        }
+
+        public void afterThrowing() {
+            events.add("afterThrowing");
+        }
+
+        public Object around(JoinPoint joinPoint) throws Throwable {
+            events.add("around:start");
+            if (fail) throw new IllegalArgumentException("around failed");
+            Object result = "skipped";
+            for (int i = 0; i < calls; i++) {
+                result = joinPoint.proceed();
+            }
+            events.add("around:end");
+            return result;
+        }
+    }
+
+    private static Greeting proxy(GreetingImpl target, RecordingAspect aspect, String invokerType) {
+        AopConfig config = new AopConfig();
+        config.setPointCut("public .* .*AdviceChainTest\\$GreetingImpl..*(.*)");
+        config.setAspectBefore("before");
+        config.setAspectAfter("after");
+        config.setAspectAfterThrow("afterThrowing");
+        config.setAspectAround("around");
+        config.setMethodInvoker(invokerType);
+
+        AdviceSupport support = new AdviceSupport(config, new PointcutMatcher(config.getPointCut()), new AspectMetadata(config, aspect));
+        support.setTargetClass(target.getClass());
+        support.setTarget(target);
+        return new JdkDynamicAopProxy(support).getProxy();
+    }
+
+    @Test
+    public void runsAdvicesInOrder() {
+        for (String invokerType : new String[]{"reflect", "methodHandle", "generated"}) {
+            List<String> events = new ArrayList<>();
+            Greeting greeting = proxy(new GreetingImpl(events), new RecordingAspect(events), invokerType);
+
+            assertEquals("hello tom", greeting.greet("tom"));
+            assertEquals(invokerType, Arrays.asList("before", "around:start", "target", "around:end", "after"), events);
+        }
+    }
+
+    @Test
+    public void aroundWithoutProceedSkipsTarget() {
+        List<String> events = new ArrayList<>();
+        RecordingAspect aspect = new RecordingAspect(events);
+        aspect.calls = 0;
+        Greeting greeting = proxy(new GreetingImpl(events), aspect, null);
+
+        assertEquals("skipped", greeting.greet("tom"));
+        assertEquals(Arrays.asList("before", "around:start", "around:end", "after"), events);
+    }
+
+    @Test
+    public void aroundProceedingTwiceInvokesTargetTwice() {
+        List<String> events = new ArrayList<>();
+        RecordingAspect aspect = new RecordingAspect(events);
+        aspect.calls = 2;
+        Greeting greeting = proxy(new GreetingImpl(events), aspect, null);
+
+        assertEquals("hello tom", greeting.greet("tom"));
+        assertEquals(Arrays.asList("before", "around:start", "target", "target", "around:end", "after"), events);
+    }
+
+    // 与原来的代理一样，异常由afterThrowing通知处理，不再抛给调用方，返回null
+    @Test
+    public void exceptionFromAroundRunsAfterThrowing() {
+        List<String> events = new ArrayList<>();
+        RecordingAspect aspect = new RecordingAspect(events);
+        aspect.fail = true;
+        Greeting greeting = proxy(new GreetingImpl(events), aspect, null);
+
+        assertNull(greeting.greet("tom"));
+        assertEquals(Arrays.asList("before", "around:start", "afterThrowing", "after"), events);
+    }
+
+    @Test
+    public void exceptionFromTargetPassesThroughAround() {
+        List<String> events = new ArrayList<>();
+        GreetingImpl target = new GreetingImpl(events);
+        target.fail = true;
+        Greeting greeting = proxy(target, new RecordingAspect(events), null);
+
+        assertNull(greeting.greet("tom"));
+        assertEquals(Arrays.asList("before", "around:start", "target", "afterThrowing", "after"), events);
+    }
+}
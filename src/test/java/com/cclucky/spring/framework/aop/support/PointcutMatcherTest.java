@@ -0,0 +1,105 @@
+package com.cclucky.spring.framework.aop.support;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PointcutMatcherTest {
+
+    private static final String PACKAGE = PointcutMatcherTest.class.getPackage().getName().replace(".", "\\.");
+
+    public static class OrderService {
+        public String find(String id) {
+            return id;
+        }
+
+        public void save(String id, int quantity) {
+        }
+
+        public int count() {
+            return 0;
+        }
+
+        protected void audit() {
+        }
+    }
+
+    public static class Repository {
+        public String find(String id) {
+            return id;
+        }
+    }
+
+    private static Set<String> names(Method[] methods) {
+        Set<String> names = new HashSet<>();
+        for (Method method : methods) {
+            names.add(method.getName());
+        }
+        return names;
+    }
+
+    @Test
+    public void matchesClassByPattern() {
+        PointcutMatcher matcher = new PointcutMatcher("public .* " + PACKAGE + "\\.PointcutMatcherTest\\$.*Service..*(.*)");
+        assertTrue(matcher.matches(OrderService.class));
+        assertFalse(matcher.matches(Repository.class));
+    }
+
+    @Test
+    public void matchesMethodsByNameReturnTypeAndParameters() throws NoSuchMethodException {
+        PointcutMatcher matcher = new PointcutMatcher("public java.lang.String .*OrderService.find(java.lang.String)");
+        assertTrue(matcher.matches(OrderService.class.getMethod("find", String.class)));
+        assertFalse(matcher.matches(OrderService.class.getMethod("count")));
+        assertFalse(matcher.matches(Repository.class.getMethod("find", String.class)));
+
+        PointcutMatcher params = new PointcutMatcher(".* .*OrderService..*(java.lang.String,int)");
+        assertTrue(params.matches(OrderService.class.getMethod("save", String.class, int.class)));
+        assertFalse(params.matches(OrderService.class.getMethod("find", String.class)));
+    }
+
+    @Test
+    public void noParametersMatchesEmptyList() throws NoSuchMethodException {
+        PointcutMatcher matcher = new PointcutMatcher("public .* .*OrderService..*()");
+        assertTrue(matcher.matches(OrderService.class.getMethod("count")));
+        assertFalse(matcher.matches(OrderService.class.getMethod("find", String.class)));
+    }
+
+    @Test
+    public void modifiersMustAllBePresent() throws NoSuchMethodException {
+        PointcutMatcher matcher = new PointcutMatcher("public .* .*OrderService..*(.*)");
+        assertFalse(matcher.matches(OrderService.class.getDeclaredMethod("audit")));
+        assertTrue(new PointcutMatcher("protected .* .*OrderService..*(.*)")
+                .matches(OrderService.class.getDeclaredMethod("audit")));
+    }
+
+    @Test
+    public void matchedMethodsAreDeclaredOnMatchingClassAndCached() {
+        PointcutMatcher matcher = new PointcutMatcher("public .* .*OrderService..*(.*)");
+        Method[] methods = matcher.getMatchedMethods(OrderService.class);
+        assertEquals(new HashSet<>(Arrays.asList("find", "save", "count")), names(methods));
+        assertSame(methods, matcher.getMatchedMethods(OrderService.class));
+        assertEquals(0, matcher.getMatchedMethods(Repository.class).length);
+    }
+
+    @Test
+    public void preloadedResultsReplaceMatching() throws NoSuchMethodException {
+        PointcutMatcher matcher = new PointcutMatcher("public .* .*OrderService..*(.*)");
+        Method find = Repository.class.getMethod("find", String.class);
+        matcher.preload(Repository.class, true, new Method[]{find});
+        assertTrue(matcher.matches(Repository.class));
+        assertEquals(Arrays.asList(find), Arrays.asList(matcher.getMatchedMethods(Repository.class)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsExpressionWithoutParameters() {
+        new PointcutMatcher("public .* com.example.Service.find");
+    }
+}
@@ -0,0 +1,110 @@
+package com.cclucky.spring.framework.context;
+
+import com.cclucky.spring.beans.BeanCreationException;
+import com.cclucky.spring.framework.context.scopeapp.CyclicPrototypeA;
+import com.cclucky.spring.framework.context.scopeapp.FlakyPrototype;
+import com.cclucky.spring.framework.context.scopeapp.LazyBean;
+import com.cclucky.spring.framework.context.scopeapp.PrototypeBean;
+import com.cclucky.spring.framework.context.scopeapp.RequestBean;
+import com.cclucky.spring.framework.context.scopeapp.SingletonHolder;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ApplicationContextScopeTest {
+
+    private static ApplicationContext context;
+
+    @BeforeClass
+    public static void init() {
+        context = new ApplicationContext("classpath:scope-test.properties");
+    }
+
+    @After
+    public void reset() {
+        RequestContextHolder.resetRequest();
+        FlakyPrototype.failNext = false;
+    }
+
+    @Test
+    public void prototypeCreatesNewInstanceEachTime() throws Exception {
+        Object first = context.getBean(PrototypeBean.class.getName());
+        Object second = context.getBean("prototypeBean");
+
+        assertTrue(first instanceof PrototypeBean);
+        assertNotSame(first, second);
+        // 注入到单例中的是另一个实例
+        SingletonHolder holder = (SingletonHolder) context.getBean(SingletonHolder.class.getName());
+        assertTrue(holder.prototypeBean instanceof PrototypeBean);
+        assertNotSame(first, holder.prototypeBean);
+    }
+
+    @Test
+    public void requestScopeIsSharedWithinOneRequest() throws Exception {
+        try {
+            context.getBean(RequestBean.class.getName());
+            fail();
+        } catch (BeanCreationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Scope 'request' is not active"));
+        }
+
+        RequestContextHolder.bindRequest();
+        Object first = context.getBean(RequestBean.class.getName());
+        assertSame(first, context.getBean("requestBean"));
+
+        // 下一次请求重新创建
+        RequestContextHolder.resetRequest();
+        RequestContextHolder.bindRequest();
+        assertNotSame(first, context.getBean(RequestBean.class.getName()));
+    }
+
+    @Test
+    public void lazySingletonIsCreatedOnFirstLookup() throws Exception {
+        // 启动时不创建
+        assertEquals(0, LazyBean.CREATED.get());
+
+        Object first = context.getBean("lazyBean");
+        assertSame(first, context.getBean(LazyBean.class.getName()));
+        assertEquals(1, LazyBean.CREATED.get());
+    }
+
+    @Test
+    public void prototypeCycleIsReportedEveryTime() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            try {
+                context.getBean(CyclicPrototypeA.class.getName());
+                fail();
+            } catch (BeanCreationException e) {
+                assertTrue(e.getMessage(), rootMessage(e).contains("currently in creation"));
+            }
+        }
+        // 循环依赖失败后，当前线程的创建中记录已经清空
+        assertTrue(context.getBean(PrototypeBean.class.getName()) instanceof PrototypeBean);
+        assertTrue(context.getBean(FlakyPrototype.class.getName()) instanceof FlakyPrototype);
+    }
+
+    @Test
+    public void failedPrototypeCreationDoesNotPoisonCurrentThread() throws Exception {
+        FlakyPrototype.failNext = true;
+        try {
+            context.getBean(FlakyPrototype.class.getName());
+            fail();
+        } catch (BeanCreationException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        // 同一个线程再次创建不会被误判为循环依赖
+        assertTrue(context.getBean(FlakyPrototype.class.getName()) instanceof FlakyPrototype);
+    }
+
+    private static String rootMessage(Throwable e) {
+        while (e.getCause() != null) e = e.getCause();
+        return e.getMessage();
+    }
+}
@@ -0,0 +1,123 @@
+package com.cclucky.spring.framework.context;
+
+import com.cclucky.spring.framework.webmvc.servlet.testapp.AbstractGreetingService;
+import com.cclucky.spring.framework.webmvc.servlet.testapp.GreetingService;
+import com.cclucky.spring.framework.webmvc.servlet.testapp.Greeter;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+public class ContextSnapshotTest {
+
+    private static final String LOCATION = "test/cc-spring.snapshot";
+
+    private static ApplicationContext context;
+    private static File file;
+
+    @BeforeClass
+    public static void capture() throws Exception {
+        context = new ApplicationContext(false, "classpath:servlet-test.properties");
+        file = File.createTempFile("cc-spring", ".snapshot");
+        ContextSnapshot.capture(context, Collections.<MappedMethod>emptyList()).write(file);
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        file.delete();
+    }
+
+    @Test
+    public void collectsNonJdkSupertypes() {
+        assertEquals(Arrays.asList(AbstractGreetingService.class.getName(), Greeter.class.getName()),
+                Arrays.asList(ContextSnapshot.getSupertypeNames(GreetingService.class)));
+    }
+
+    @Test
+    public void loadsUnchangedSnapshot() throws Exception {
+        assertNotNull(ContextSnapshot.load(new SnapshotClassLoader(null), LOCATION, context.getBeanDefinitionReader()));
+    }
+
+    @Test
+    public void rejectsSnapshotWhenSuperclassChanges() throws Exception {
+        // 只有父类的类文件变化，Bean类本身和候选组件列表都不变
+        ClassLoader classLoader = new SnapshotClassLoader(AbstractGreetingService.class.getName());
+        assertNull(ContextSnapshot.load(classLoader, LOCATION, context.getBeanDefinitionReader()));
+    }
+
+    @Test
+    public void rejectsSnapshotWhenInterfaceChanges() throws Exception {
+        ClassLoader classLoader = new SnapshotClassLoader(Greeter.class.getName());
+        assertNull(ContextSnapshot.load(classLoader, LOCATION, context.getBeanDefinitionReader()));
+    }
+
+    @Test
+    public void checksumCoversSupertypes() throws Exception {
+        String[] supertypes = ContextSnapshot.getSupertypeNames(GreetingService.class);
+        long crc = ContextSnapshot.checksum(getClass().getClassLoader(), GreetingService.class.getName(), supertypes);
+        assertNotEquals(crc, ContextSnapshot.checksum(getClass().getClassLoader(), GreetingService.class.getName(), new String[0]));
+        assertEquals(-1, ContextSnapshot.checksum(getClass().getClassLoader(), "no.such.Type", supertypes));
+    }
+
+    @Test
+    public void distinguishesMissingMappingsFromNoMappings() throws Exception {
+        assertNull(roundTrip(null).getMappedMethods());
+        assertEquals(0, roundTrip(Collections.<MappedMethod>emptyList()).getMappedMethods().size());
+
+        MappedMethod mappedMethod = new MappedMethod("greetingService", "/greet", "greet", new String[]{"java.lang.String"});
+        List<MappedMethod> mappedMethods = roundTrip(Collections.singletonList(mappedMethod)).getMappedMethods();
+        assertEquals(1, mappedMethods.size());
+        assertEquals("/greet", mappedMethods.get(0).getPath());
+        assertEquals("greet", mappedMethods.get(0).getMethodName());
+    }
+
+    private static ContextSnapshot roundTrip(List<MappedMethod> mappedMethods) throws Exception {
+        File previous = file;
+        file = File.createTempFile("cc-spring", ".snapshot");
+        try {
+            ContextSnapshot.capture(context, mappedMethods).write(file);
+            return ContextSnapshot.load(new SnapshotClassLoader(null), LOCATION, context.getBeanDefinitionReader());
+        } finally {
+            file.delete();
+            file = previous;
+        }
+    }
+
+    // 从临时文件读取快照，并把指定类的类文件替换成其他内容，模拟重新编译
+    private static class SnapshotClassLoader extends ClassLoader {
+        private final String changedClass;
+
+        SnapshotClassLoader(String changedClass) {
+            super(ContextSnapshotTest.class.getClassLoader());
+            this.changedClass = changedClass;
+        }
+
+        @Override
+        public InputStream getResourceAsStream(String name) {
+            if (LOCATION.equals(name)) {
+                try {
+                    return new FileInputStream(file);
+                } catch (FileNotFoundException e) {
+                    return null;
+                }
+            }
+            if (this.changedClass != null && name.equals(this.changedClass.replace('.', '/') + ".class")) {
+                return new ByteArrayInputStream(new byte[]{(byte) 0xCA, (byte) 0xFE, 1, 2, 3});
+            }
+            return super.getResourceAsStream(name);
+        }
+    }
+}
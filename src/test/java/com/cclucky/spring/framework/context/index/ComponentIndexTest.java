@@ -0,0 +1,52 @@
+package com.cclucky.spring.framework.context.index;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ComponentIndexTest {
+
+    private File root;
+
+    @After
+    public void cleanUp() {
+        if (root == null) return;
+        new File(root, ComponentIndex.COMPONENTS_RESOURCE_LOCATION).delete();
+        new File(root, "META-INF").delete();
+        root.delete();
+    }
+
+    @Test
+    public void readsIndexAsUtf8() throws IOException {
+        // 注解处理器按UTF-8写出，类名和beanName可以包含非ASCII字符
+        ClassLoader classLoader = indexLoader("com.demo.订单服务=订单服务,com.demo.Orders;scope=prototype\n");
+
+        List<ComponentIndex.Component> components = ComponentIndex.load(classLoader).getComponents("com.demo");
+        assertEquals(1, components.size());
+        ComponentIndex.Component component = components.get(0);
+        assertEquals("com.demo.订单服务", component.getClassName());
+        assertEquals("订单服务", component.getBeanName());
+        assertEquals("com.demo.Orders", component.getInterfaceNames().get(0));
+        assertEquals("prototype", component.getScope());
+        assertFalse(component.isLazy());
+    }
+
+    private ClassLoader indexLoader(String index) throws IOException {
+        root = Files.createTempDirectory("cc-spring-index").toFile();
+        File file = new File(root, ComponentIndex.COMPONENTS_RESOURCE_LOCATION);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), index.getBytes(StandardCharsets.UTF_8));
+        // 父加载器为null，只能看到这一份索引
+        return new URLClassLoader(new URL[]{root.toURI().toURL()}, null);
+    }
+}
@@ -0,0 +1,11 @@
+package com.cclucky.spring.framework.context.scopeapp;
+
+import com.cclucky.spring.framework.annotation.Autowired;
+import com.cclucky.spring.framework.annotation.Service;
+
+@Service(scope = "prototype")
+public class CyclicPrototypeA {
+
+    @Autowired
+    public CyclicPrototypeB b;
+}
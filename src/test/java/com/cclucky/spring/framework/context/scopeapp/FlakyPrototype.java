@@ -0,0 +1,17 @@
+package com.cclucky.spring.framework.context.scopeapp;
+
+import com.cclucky.spring.framework.annotation.Service;
+
+// failNext为true时构造器抛出一次异常
+@Service(scope = "prototype")
+public class FlakyPrototype {
+
+    public static volatile boolean failNext;
+
+    public FlakyPrototype() {
+        if (failNext) {
+            failNext = false;
+            throw new IllegalStateException("flaky");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.cclucky.spring.framework.context.scopeapp;
+
+import com.cclucky.spring.framework.annotation.Service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service(lazy = true)
+public class LazyBean {
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+
+    public LazyBean() {
+        CREATED.incrementAndGet();
+    }
+}
@@ -0,0 +1,7 @@
+package com.cclucky.spring.framework.context.scopeapp;
+
+import com.cclucky.spring.framework.annotation.Service;
+
+@Service(scope = "prototype")
+public class PrototypeBean {
+}
@@ -0,0 +1,12 @@
+package com.cclucky.spring.framework.context.scopeapp;
+
+import com.cclucky.spring.framework.annotation.Autowired;
+import com.cclucky.spring.framework.annotation.Service;
+
+// 单例持有一个prototype Bean，注入时创建一次
+@Service
+public class SingletonHolder {
+
+    @Autowired
+    public PrototypeBean prototypeBean;
+}
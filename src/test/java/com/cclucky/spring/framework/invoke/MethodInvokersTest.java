@@ -0,0 +1,148 @@
+package com.cclucky.spring.framework.invoke;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MethodInvokersTest {
+
+    private static final String[] TYPES = {MethodInvokers.REFLECT, MethodInvokers.METHOD_HANDLE, MethodInvokers.GENERATED};
+
+    public static class PublicHandler {
+        int calls;
+
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        public String echo(String value) {
+            return value;
+        }
+
+        public void touch() {
+            calls++;
+        }
+
+        public String fail(String message) throws IOException {
+            throw new IOException(message);
+        }
+
+        public Object fiveArgs(Object a, Object b, Object c, Object d, Object e) {
+            return "" + a + b + c + d + e;
+        }
+
+        public static long twice(long value) {
+            return value * 2;
+        }
+    }
+
+    // 非public的Handler类
+    static class PackagePrivateHandler {
+        public String hello(String name) {
+            return "hello " + name;
+        }
+
+        private int secret() {
+            return 7;
+        }
+    }
+
+    private static Method method(Class<?> clazz, String name) {
+        for (Method method : clazz.getDeclaredMethods()) {
+            if (method.getName().equals(name)) return method;
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private static Object invoke(String type, Class<?> clazz, String name, Object target, Object... args) throws Throwable {
+        return MethodInvokers.create(method(clazz, name), type).invoke(target, args);
+    }
+
+    @Test
+    public void primitiveReturnIsBoxed() throws Throwable {
+        for (String type : TYPES) {
+            assertEquals(type, 5, invoke(type, PublicHandler.class, "add", new PublicHandler(), 2, 3));
+        }
+    }
+
+    @Test
+    public void voidMethodReturnsNull() throws Throwable {
+        for (String type : TYPES) {
+            PublicHandler handler = new PublicHandler();
+            assertNull(type, invoke(type, PublicHandler.class, "touch", handler));
+            assertNull(type, MethodInvokers.create(method(PublicHandler.class, "touch"), type).invoke(handler, null));
+            assertEquals(type, 2, handler.calls);
+        }
+    }
+
+    // 受检异常原样抛出，不包装成InvocationTargetException或UndeclaredThrowableException
+    @Test
+    public void checkedExceptionIsRethrownUnwrapped() throws Throwable {
+        for (String type : TYPES) {
+            try {
+                invoke(type, PublicHandler.class, "fail", new PublicHandler(), "boom");
+                fail(type);
+            } catch (IOException e) {
+                assertEquals(type, "boom", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void nonPublicHandlerClassIsSupported() throws Throwable {
+        for (String type : TYPES) {
+            assertEquals(type, "hello tom", invoke(type, PackagePrivateHandler.class, "hello", new PackagePrivateHandler(), "tom"));
+            assertEquals(type, 7, invoke(type, PackagePrivateHandler.class, "secret", new PackagePrivateHandler()));
+        }
+    }
+
+    @Test
+    public void staticAndWideMethodsFallBack() throws Throwable {
+        for (String type : TYPES) {
+            assertEquals(type, 42L, invoke(type, PublicHandler.class, "twice", null, 21L));
+            assertEquals(type, "12345", invoke(type, PublicHandler.class, "fiveArgs", new PublicHandler(), 1, 2, 3, 4, 5));
+        }
+    }
+
+    @Test
+    public void generatedOnlyForSupportedMethods() {
+        assertTrue(MethodInvokers.create(method(PublicHandler.class, "echo"), MethodInvokers.GENERATED) instanceof GeneratedMethodInvoker);
+        assertTrue(MethodInvokers.create(method(PublicHandler.class, "touch"), MethodInvokers.GENERATED) instanceof MethodHandleInvoker);
+        assertTrue(MethodInvokers.create(method(PackagePrivateHandler.class, "hello"), MethodInvokers.GENERATED) instanceof MethodHandleInvoker);
+        assertTrue(MethodInvokers.create(method(PublicHandler.class, "echo"), null) instanceof MethodHandleInvoker);
+        assertTrue(MethodInvokers.create(method(PublicHandler.class, "echo"), MethodInvokers.REFLECT) instanceof ReflectiveMethodInvoker);
+    }
+
+    /**
+     * 三种调用器的单次调用耗时，只输出结果用于对比，不对快慢做断言（受JIT和机器负载影响）
+     * 先预热再计时，每种调用器取多轮中最快的一轮
+     */
+    @Test
+    public void reportsInvocationCost() throws Throwable {
+        Method echo = method(PublicHandler.class, "echo");
+        PublicHandler handler = new PublicHandler();
+        Object[] args = {"x"};
+        for (String type : TYPES) {
+            MethodInvoker invoker = MethodInvokers.create(echo, type);
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime();
+                Object result = null;
+                for (int i = 0; i < 200000; i++) {
+                    result = invoker.invoke(handler, args);
+                }
+                best = Math.min(best, System.nanoTime() - start);
+                assertSame(args[0], result);
+            }
+            System.out.println(String.format(Locale.ROOT, "MethodInvoker %-12s %6.1f ns/op", type, best / 200000.0));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.cclucky.spring.framework.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0.0, histogram.getMean(), 0.0);
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        assertEquals(10, histogram.getCount());
+        assertEquals(5.5, histogram.getMean(), 1e-9);
+        assertEquals(5, histogram.getValueAtPercentile(50));
+        assertEquals(9, histogram.getValueAtPercentile(90));
+        assertEquals(10, histogram.getValueAtPercentile(100));
+        assertEquals(1, histogram.getValueAtPercentile(0));
+    }
+
+    @Test
+    public void percentilesStayWithinBucketPrecision() {
+        Histogram histogram = new Histogram();
+        for (long i = 1; i <= 100000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(100000000L, histogram.getMax());
+        double[] percentiles = {50, 90, 99, 99.9};
+        long[] expected = {50000000L, 90000000L, 99000000L, 99900000L};
+        for (int i = 0; i < percentiles.length; i++) {
+            long value = histogram.getValueAtPercentile(percentiles[i]);
+            assertTrue(value + " < " + expected[i], value >= expected[i]);
+            // 每个2的幂区间16个子桶，上界的相对误差不超过1/16
+            assertTrue(value + " > " + expected[i], value <= expected[i] + expected[i] / 16);
+        }
+        assertEquals(100000000L, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void percentileIsCappedAtMax() {
+        Histogram histogram = new Histogram();
+        histogram.record(1000);
+        assertEquals(1000, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void negativeValuesAreRecordedAsZero() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void bucketsCoverTheirValues() {
+        long[] values = {0, 1, 15, 16, 17, 31, 32, 33, 1000, 1023, 1024, 123456789L, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = Histogram.indexOf(value);
+            assertTrue(value + " above bucket " + index, value <= Histogram.highestValueAt(index));
+            if (index > 0) {
+                assertTrue(value + " below bucket " + index, value > Histogram.highestValueAt(index - 1));
+            }
+        }
+        assertEquals(Long.MAX_VALUE, Histogram.highestValueAt(Histogram.indexOf(Long.MAX_VALUE)));
+    }
+}
@@ -0,0 +1,87 @@
+package com.cclucky.spring.framework.metrics;
+
+import com.cclucky.spring.framework.aop.aspect.Advice;
+import com.cclucky.spring.framework.aop.aspect.AdviceChain;
+import com.cclucky.spring.framework.aop.aspect.JoinPoint;
+import com.cclucky.spring.framework.invoke.MethodInvokers;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TimingAspectTest {
+
+    public static class Target {
+        public String echo(String value) {
+            if (value == null) throw new IllegalArgumentException("value");
+            return value;
+        }
+    }
+
+    private static AdviceChain chain(TimingAspect aspect) throws NoSuchMethodException {
+        Method echo = Target.class.getMethod("echo", String.class);
+        Method around = TimingAspect.class.getMethod("around", JoinPoint.class);
+        Advice advice = new Advice(aspect, around, MethodInvokers.create(around, null));
+        return new AdviceChain(echo, MethodInvokers.create(echo, null), null, null, null, new Advice[]{advice});
+    }
+
+    @Test
+    public void recordsCallsErrorsAndLatency() throws Throwable {
+        TimingAspect aspect = new TimingAspect();
+        AdviceChain chain = chain(aspect);
+        Target target = new Target();
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("x", chain.invoke(target, new Object[]{"x"}));
+        }
+        // 目标方法的异常经过环绕通知后由调用链处理
+        chain.invoke(target, new Object[]{null});
+
+        assertEquals(1, aspect.getAllMethodMetrics().size());
+        MethodMetrics metrics = aspect.getAllMethodMetrics().get(0);
+        assertEquals("Target#echo", metrics.getName());
+        assertEquals(11, metrics.getCallCount());
+        assertEquals(1, metrics.getErrorCount());
+        assertEquals(11, metrics.getLatency().getCount());
+        assertTrue(metrics.getLatency().getMax() > 0);
+    }
+
+    @Test
+    public void samplesLatencyByInterval() throws Throwable {
+        TimingAspect aspect = new TimingAspect();
+        aspect.setSampleInterval(10);
+        AdviceChain chain = chain(aspect);
+        Target target = new Target();
+
+        for (int i = 0; i < 10000; i++) {
+            chain.invoke(target, new Object[]{"x"});
+        }
+        MethodMetrics metrics = aspect.getAllMethodMetrics().get(0);
+        assertEquals(10000, metrics.getCallCount());
+        long sampled = metrics.getLatency().getCount();
+        assertTrue(String.valueOf(sampled), sampled > 500 && sampled < 1500);
+    }
+
+    @Test
+    public void zeroIntervalSkipsAdvice() throws Throwable {
+        TimingAspect aspect = new TimingAspect();
+        aspect.setSampleInterval(0);
+        assertFalse(aspect.isActive());
+
+        assertEquals("x", chain(aspect).invoke(new Target(), new Object[]{"x"}));
+        assertTrue(aspect.getAllMethodMetrics().isEmpty());
+    }
+
+    @Test
+    public void rejectsNegativeInterval() {
+        try {
+            new TimingAspect().setSampleInterval(-1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
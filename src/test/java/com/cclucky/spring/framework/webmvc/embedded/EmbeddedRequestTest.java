@@ -0,0 +1,152 @@
+package com.cclucky.spring.framework.webmvc.embedded;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EmbeddedRequestTest {
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static EmbeddedRequest parse(String s) throws EmbeddedRequest.BadRequestException {
+        byte[] data = bytes(s);
+        return EmbeddedRequest.parse(data, data.length);
+    }
+
+    private static void assertRejected(int status, String request) {
+        try {
+            parse(request);
+            fail("Expected " + status);
+        } catch (EmbeddedRequest.BadRequestException e) {
+            assertEquals(status, e.getStatus());
+        }
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    @Test
+    public void parsesRequestLineHeadersAndQuery() throws Exception {
+        EmbeddedRequest request = parse("GET /test/query?name=%E4%B8%AD&name=b&flag HTTP/1.1\r\n"
+                + "Host: localhost\r\nX-Multi: 1\r\nx-multi: 2\r\n\r\n");
+        assertNotNull(request);
+        assertEquals("GET", request.getMethod());
+        assertEquals("/test/query", request.getRequestURI());
+        assertEquals("name=%E4%B8%AD&name=b&flag", request.getQueryString());
+        assertEquals("HTTP/1.1", request.getProtocol());
+        assertEquals("localhost", request.getHeader("host"));
+        assertEquals(Arrays.asList("1", "2"), Collections.list(request.getHeaders("X-MULTI")));
+        assertArrayEquals(new String[]{"中", "b"}, request.getParameterValues("name"));
+        assertEquals("", request.getParameter("flag"));
+        assertTrue(request.isKeepAlive());
+    }
+
+    @Test
+    public void parsesFormBody() throws Exception {
+        EmbeddedRequest request = parse("POST /test/query?a=1 HTTP/1.1\r\n"
+                + "Content-Type: application/x-www-form-urlencoded\r\nContent-Length: 13\r\n\r\nname=tom&a=2x");
+        assertNotNull(request);
+        assertEquals("tom", request.getParameter("name"));
+        assertArrayEquals(new String[]{"1", "2x"}, request.getParameterValues("a"));
+        assertEquals(13, request.getContentLength());
+    }
+
+    @Test
+    public void returnsNullUntilRequestIsComplete() throws Exception {
+        assertNull(parse(""));
+        assertNull(parse("GET / HTTP/1.1\r\nHost: x\r\n"));
+        assertNull(parse("GET / HTTP/1.1\r\nHost: x\r\n\r"));
+        assertNull(parse("POST / HTTP/1.1\r\nContent-Length: 10\r\n\r\n12345"));
+        assertNotNull(parse("POST / HTTP/1.1\r\nContent-Length: 10\r\n\r\n1234567890"));
+    }
+
+    @Test
+    public void pipelinedRequestsAreParsedOneAtATime() throws Exception {
+        String first = "POST /a HTTP/1.1\r\nContent-Length: 3\r\n\r\nabc";
+        String second = "GET /b HTTP/1.1\r\n\r\n";
+        byte[] data = bytes(first + second + "GET /c HT");
+
+        EmbeddedRequest request = EmbeddedRequest.parse(data, data.length);
+        assertEquals("/a", request.getRequestURI());
+        assertEquals(first.length(), request.getConsumed());
+
+        byte[] rest = Arrays.copyOfRange(data, request.getConsumed(), data.length);
+        request = EmbeddedRequest.parse(rest, rest.length);
+        assertEquals("/b", request.getRequestURI());
+        assertEquals(second.length(), request.getConsumed());
+
+        byte[] partial = Arrays.copyOfRange(rest, request.getConsumed(), rest.length);
+        assertNull(EmbeddedRequest.parse(partial, partial.length));
+    }
+
+    @Test
+    public void onlyParsesGivenLength() throws Exception {
+        byte[] data = new byte[64];
+        byte[] request = bytes("GET / HTTP/1.1\r\n\r\n");
+        System.arraycopy(request, 0, data, 0, request.length);
+        assertNull(EmbeddedRequest.parse(data, request.length - 1));
+        assertNotNull(EmbeddedRequest.parse(data, request.length));
+    }
+
+    @Test
+    public void keepAliveFollowsProtocolDefaults() throws Exception {
+        assertFalse(parse("GET / HTTP/1.1\r\nConnection: close\r\n\r\n").isKeepAlive());
+        assertFalse(parse("GET / HTTP/1.0\r\n\r\n").isKeepAlive());
+        assertTrue(parse("GET / HTTP/1.0\r\nConnection: keep-alive\r\n\r\n").isKeepAlive());
+    }
+
+    @Test
+    public void rejectsOversizedHeaders() {
+        // 请求头未结束但已超过上限
+        assertRejected(431, "GET / HTTP/1.1\r\nX-Long: " + repeat('a', EmbeddedRequest.MAX_HEADER_SIZE));
+        assertRejected(431, "GET / HTTP/1.1\r\nX-Long: " + repeat('a', EmbeddedRequest.MAX_HEADER_SIZE) + "\r\n\r\n");
+    }
+
+    @Test
+    public void rejectsOversizedBody() {
+        assertRejected(413, "POST / HTTP/1.1\r\nContent-Length: " + (EmbeddedRequest.MAX_BODY_SIZE + 1) + "\r\n\r\n");
+    }
+
+    @Test
+    public void rejectsMalformedRequests() {
+        assertRejected(400, "garbage\r\n\r\n");
+        assertRejected(400, "GET /\r\n\r\n");
+        assertRejected(400, "GET / SPDY/3\r\n\r\n");
+        assertRejected(400, "GET / HTTP/1.1\r\nNoColon\r\n\r\n");
+        assertRejected(400, "GET / HTTP/1.1\r\n: empty name\r\n\r\n");
+        assertRejected(400, "POST / HTTP/1.1\r\nContent-Length: abc\r\n\r\n");
+        assertRejected(400, "POST / HTTP/1.1\r\nContent-Length: -1\r\n\r\n");
+    }
+
+    @Test
+    public void acceptsRepeatedIdenticalContentLength() throws Exception {
+        assertEquals(3, parse("POST / HTTP/1.1\r\nContent-Length: 3\r\nContent-Length: 3\r\n\r\nabc").getContentLength());
+        assertEquals(3, parse("POST / HTTP/1.1\r\nContent-Length: 3, 3\r\n\r\nabc").getContentLength());
+    }
+
+    @Test
+    public void rejectsConflictingContentLength() {
+        assertRejected(400, "POST / HTTP/1.1\r\nContent-Length: 3\r\nContent-Length: 4\r\n\r\nabcd");
+        assertRejected(400, "POST / HTTP/1.1\r\nContent-Length: 3, 4\r\n\r\nabcd");
+    }
+
+    @Test
+    public void rejectsTransferEncoding() {
+        assertRejected(501, "POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n0\r\n\r\n");
+    }
+}
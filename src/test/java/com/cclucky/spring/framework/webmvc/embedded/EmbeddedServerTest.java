@@ -0,0 +1,195 @@
+package com.cclucky.spring.framework.webmvc.embedded;
+
+import com.cclucky.spring.framework.webmvc.servlet.HandlerExecutors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EmbeddedServerTest {
+
+    private static final int FLUSH_THRESHOLD = 1024;
+
+    private EmbeddedServer server;
+    private Socket socket;
+
+    // size参数指定响应体的字节数，writer=true时通过getWriter写出，fail=true时写完后抛出异常
+    @Before
+    public void start() throws IOException {
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                int size = Integer.parseInt(req.getParameter("size"));
+                resp.setContentType("text/plain");
+                resp.setHeader("X-Size", String.valueOf(size));
+                if ("true".equals(req.getParameter("writer"))) {
+                    resp.setCharacterEncoding("UTF-8");
+                    PrintWriter writer = resp.getWriter();
+                    for (int i = 0; i < size / 3; i++) writer.write('中');
+                } else {
+                    OutputStream out = resp.getOutputStream();
+                    for (int i = 0; i < size; i++) out.write('a' + i % 26);
+                }
+                if ("true".equals(req.getParameter("fail"))) throw new IllegalStateException("fail after writing");
+            }
+        };
+        server = new EmbeddedServer(0, servlet, HandlerExecutors.newFixedThreadPool(2, "test-worker"), FLUSH_THRESHOLD);
+        server.start();
+        socket = new Socket("localhost", server.getPort());
+        socket.setSoTimeout(5000);
+    }
+
+    @After
+    public void stop() throws IOException {
+        socket.close();
+        server.stop();
+    }
+
+    @Test
+    public void smallBodyIsSentWithContentLength() throws IOException {
+        Response response = request("GET /?size=100 HTTP/1.1");
+
+        assertEquals("100", response.headers.get("content-length"));
+        assertNull(response.headers.get("transfer-encoding"));
+        assertEquals(expected(100), response.body());
+    }
+
+    @Test
+    public void largeBodyIsStreamedInChunksAndConnectionIsReused() throws IOException {
+        Response response = request("GET /?size=10000 HTTP/1.1");
+
+        assertEquals("chunked", response.headers.get("transfer-encoding"));
+        assertNull(response.headers.get("content-length"));
+        // 响应头在第一块之前写出，Handler设置的头都在
+        assertEquals("10000", response.headers.get("x-size"));
+        assertEquals(expected(10000), response.body());
+        assertTrue(response.chunks > 1);
+
+        // 同一个连接上的下一个请求
+        assertEquals(expected(10), request("GET /?size=10 HTTP/1.1").body());
+    }
+
+    @Test
+    public void writerOutputIsStreamedAsWell() throws IOException {
+        Response response = request("GET /?size=9000&writer=true HTTP/1.1");
+
+        assertEquals("chunked", response.headers.get("transfer-encoding"));
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 3000; i++) expected.append('中');
+        assertEquals(expected.toString(), new String(response.body.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void http10ClientGetsContentLength() throws IOException {
+        Response response = request("GET /?size=10000 HTTP/1.0");
+
+        assertEquals("10000", response.headers.get("content-length"));
+        assertNull(response.headers.get("transfer-encoding"));
+        assertEquals(expected(10000), response.body());
+    }
+
+    @Test
+    public void failureAfterStreamingClosesConnection() throws IOException {
+        InputStream in = send("GET /?size=10000&fail=true HTTP/1.1");
+        Response response = readHead(in);
+        assertEquals("chunked", response.headers.get("transfer-encoding"));
+
+        // 读到连接关闭都没有结束块
+        ByteArrayOutputStream rest = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) rest.write(buffer, 0, n);
+        assertFalse(new String(rest.toByteArray(), StandardCharsets.ISO_8859_1).endsWith("0\r\n\r\n"));
+    }
+
+    private static String expected(int size) {
+        StringBuilder sb = new StringBuilder(size);
+        for (int i = 0; i < size; i++) sb.append((char) ('a' + i % 26));
+        return sb.toString();
+    }
+
+    private InputStream send(String requestLine) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write((requestLine + "\r\nHost: localhost\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+        return socket.getInputStream();
+    }
+
+    private Response request(String requestLine) throws IOException {
+        InputStream in = send(requestLine);
+        Response response = readHead(in);
+        String length = response.headers.get("content-length");
+        if (length != null) {
+            readFully(in, Integer.parseInt(length), response.body);
+            return response;
+        }
+        // chunked：每块是十六进制长度、CRLF、内容、CRLF，长度为0的块结束
+        while (true) {
+            int size = Integer.parseInt(readLine(in), 16);
+            if (size == 0) {
+                assertEquals("", readLine(in));
+                return response;
+            }
+            readFully(in, size, response.body);
+            assertEquals("", readLine(in));
+            response.chunks++;
+        }
+    }
+
+    private static Response readHead(InputStream in) throws IOException {
+        Response response = new Response();
+        response.status = readLine(in);
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            int colon = line.indexOf(':');
+            response.headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+        }
+        return response;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) throw new IOException("Connection closed");
+            if (b != '\r') sb.append((char) b);
+        }
+        return sb.toString();
+    }
+
+    private static void readFully(InputStream in, int length, ByteArrayOutputStream body) throws IOException {
+        for (int i = 0; i < length; i++) {
+            int b = in.read();
+            if (b == -1) throw new IOException("Connection closed");
+            body.write(b);
+        }
+    }
+
+    private static class Response {
+        String status;
+        final Map<String, String> headers = new TreeMap<>();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int chunks;
+
+        String body() {
+            return new String(body.toByteArray(), StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import com.cclucky.spring.framework.annotation.RequestParam;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ArgumentBindersTest {
+
+    private static DispatcherServlet servlet;
+
+    @BeforeClass
+    public static void init() {
+        servlet = ServletStubs.newServlet("classpath:servlet-test.properties");
+    }
+
+    @AfterClass
+    public static void destroy() {
+        servlet.destroy();
+    }
+
+    public static class Handlers {
+        public void typed(@RequestParam("i") int i, @RequestParam("l") Long l, @RequestParam("b") boolean b,
+                          @RequestParam("d") double d, @RequestParam("c") char c) {
+        }
+
+        public void named(@RequestParam("name") String name, HttpServletRequest req, HttpServletResponse resp,
+                          Executor executor, int unbound, Object unboundObject) {
+        }
+    }
+
+    private static Object[] bind(String methodName, ServletStubs.Exchange exchange, ExecutorService executor) {
+        for (Method method : Handlers.class.getMethods()) {
+            if (!method.getName().equals(methodName)) continue;
+            ArgumentBinder[] binders = ArgumentBinders.resolve(method, executor);
+            Object[] args = new Object[binders.length];
+            for (int i = 0; i < binders.length; i++) {
+                args[i] = binders[i].bind(exchange.request, exchange.response);
+            }
+            return args;
+        }
+        throw new IllegalArgumentException(methodName);
+    }
+
+    @Test
+    public void convertsTypedParameters() {
+        ServletStubs.Exchange exchange = new ServletStubs.Exchange("/", false)
+                .param("i", " 42 ").param("l", "7").param("b", "true").param("d", "1.5").param("c", "xyz");
+        Object[] args = bind("typed", exchange, null);
+        assertEquals(42, args[0]);
+        assertEquals(7L, args[1]);
+        assertEquals(Boolean.TRUE, args[2]);
+        assertEquals(1.5, args[3]);
+        assertEquals('x', args[4]);
+    }
+
+    @Test
+    public void missingParametersUseDefaults() {
+        Object[] args = bind("typed", new ServletStubs.Exchange("/", false).param("i", ""), null);
+        assertEquals(0, args[0]);
+        assertNull(args[1]);
+        assertEquals(Boolean.FALSE, args[2]);
+        assertEquals(0D, args[3]);
+        assertEquals('\0', args[4]);
+    }
+
+    @Test
+    public void malformedNumberIsABindingError() {
+        try {
+            bind("typed", new ServletStubs.Exchange("/", false).param("i", "abc"), null);
+            fail();
+        } catch (ParameterBindingException e) {
+            assertEquals("i", e.getParameterName());
+            assertTrue(e.getCause() instanceof NumberFormatException);
+        }
+    }
+
+    @Test
+    public void bindsStringsRequestResponseAndExecutor() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ServletStubs.Exchange exchange = new ServletStubs.Exchange("/", false);
+            exchange.parameters.put("name", new String[]{"a", "b"});
+            Object[] args = bind("named", exchange, executor);
+            assertEquals("a,b", args[0]);
+            assertSame(exchange.request, args[1]);
+            assertSame(exchange.response, args[2]);
+            assertSame(executor, args[3]);
+            assertEquals(0, args[4]);
+            assertNull(args[5]);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void malformedParameterRespondsBadRequest() throws Exception {
+        ServletStubs.Exchange ok = new ServletStubs.Exchange("/params/typed", false).param("id", "3").param("ratio", "0.5");
+        servlet.service(ok.request, ok.response);
+        assertTrue(ok.body(), ok.body().contains("name : 3/0.5"));
+
+        ServletStubs.Exchange bad = new ServletStubs.Exchange("/params/typed", false).param("id", "abc");
+        servlet.service(bad.request, bad.response);
+        assertEquals(Collections.singletonList(400), bad.errors);
+        assertFalse(bad.body(), bad.body().contains("500"));
+    }
+
+    @Test
+    public void malformedParameterOfAsyncHandlerRespondsBadRequest() throws Exception {
+        ServletStubs.Exchange bad = new ServletStubs.Exchange("/params/typedAsync", true).param("id", "1e3");
+        servlet.service(bad.request, bad.response);
+        assertTrue(bad.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(400), bad.errors);
+    }
+}
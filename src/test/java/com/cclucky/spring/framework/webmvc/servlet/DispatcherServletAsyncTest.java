@@ -0,0 +1,55 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.servlet.AsyncListener;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DispatcherServletAsyncTest {
+
+    private static DispatcherServlet servlet;
+
+    @BeforeClass
+    public static void init() {
+        servlet = ServletStubs.newServlet("classpath:servlet-test.properties");
+    }
+
+    @AfterClass
+    public static void destroy() {
+        servlet.destroy();
+    }
+
+    @Test
+    public void completesAsyncHandler() throws Exception {
+        ServletStubs.Exchange exchange = new ServletStubs.Exchange("/async/ok", true).param("name", "tom");
+        servlet.service(exchange.request, exchange.response);
+
+        assertTrue(exchange.completed.await(5, TimeUnit.SECONDS));
+        assertTrue(exchange.asyncStarted);
+        assertEquals(1, exchange.completeCount);
+        assertTrue(exchange.body(), exchange.body().contains("name : tom"));
+    }
+
+    @Test
+    public void handlerThrowingBeforeReturningFutureCompletesAsyncContext() throws Exception {
+        ServletStubs.Exchange exchange = new ServletStubs.Exchange("/async/fail", true).param("name", "tom");
+        servlet.service(exchange.request, exchange.response);
+
+        // 不等待超时，AsyncContext已经完成并渲染了500页面
+        assertTrue(exchange.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, exchange.completeCount);
+        assertTrue(exchange.body(), exchange.body().contains("<h1>500</h1>"));
+
+        // 之后到达的超时不会再写503
+        for (AsyncListener listener : exchange.listeners) {
+            listener.onTimeout(null);
+        }
+        assertTrue(exchange.errors.isEmpty());
+        assertEquals(1, exchange.completeCount);
+    }
+}
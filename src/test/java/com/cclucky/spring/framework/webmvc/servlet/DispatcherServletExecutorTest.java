@@ -0,0 +1,79 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * handlerExecutor=fixed 与 handlerExecutor=virtual 的对比：1k、10k个同时到达的阻塞请求，输出吞吐量和p99延迟
+ * 只断言所有请求都正确完成，数字供对比，不作为通过条件
+ */
+public class DispatcherServletExecutorTest {
+
+    // 每个请求在Handler中阻塞的时间
+    private static final long BLOCKING_MILLIS = 20;
+
+    @Test
+    public void fixedPoolCompletesConcurrentBlockingRequests() throws Exception {
+        run("fixed");
+    }
+
+    @Test
+    public void virtualThreadsCompleteConcurrentBlockingRequests() throws Exception {
+        // 虚拟线程需要Java 21及以上
+        ExecutorService probe = HandlerExecutors.newVirtualThreadExecutor();
+        Assume.assumeTrue("virtual threads need Java 21+", probe != null);
+        probe.shutdown();
+        run("virtual");
+    }
+
+    private void run(String executor) throws Exception {
+        DispatcherServlet servlet = ServletStubs.newServlet("classpath:servlet-" + executor + "-executor-test.properties");
+        try {
+            // 预热
+            dispatch(servlet, 200);
+            for (int concurrency : new int[]{1000, 10000}) {
+                long start = System.nanoTime();
+                long[] latencies = dispatch(servlet, concurrency);
+                long elapsed = System.nanoTime() - start;
+                Arrays.sort(latencies);
+                System.out.println(String.format("handlerExecutor=%s concurrency=%d: %.0f req/s, p99 %d ms",
+                        executor, concurrency, concurrency * 1e9 / elapsed,
+                        TimeUnit.NANOSECONDS.toMillis(latencies[(int) (latencies.length * 0.99) - 1])));
+            }
+        } finally {
+            servlet.destroy();
+        }
+    }
+
+    // 所有请求先全部进入容器线程，再等待它们完成，返回每个请求的延迟
+    private static long[] dispatch(DispatcherServlet servlet, int concurrency) throws Exception {
+        List<ServletStubs.Exchange> exchanges = new ArrayList<>(concurrency);
+        long[] starts = new long[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            ServletStubs.Exchange exchange = new ServletStubs.Exchange("/blocking/sleep", true)
+                    .param("name", "r" + i).param("millis", String.valueOf(BLOCKING_MILLIS));
+            starts[i] = System.nanoTime();
+            servlet.service(exchange.request, exchange.response);
+            exchanges.add(exchange);
+        }
+        long[] latencies = new long[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            ServletStubs.Exchange exchange = exchanges.get(i);
+            assertTrue("request " + i + " did not complete", exchange.completed.await(60, TimeUnit.SECONDS));
+            assertTrue(exchange.asyncStarted);
+            assertEquals(1, exchange.completeCount);
+            assertTrue(exchange.body(), exchange.body().contains("name : r" + i));
+            latencies[i] = exchange.completedAt - starts[i];
+        }
+        return latencies;
+    }
+}
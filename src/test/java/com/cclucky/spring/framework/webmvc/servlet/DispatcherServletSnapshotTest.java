@@ -0,0 +1,55 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import com.cclucky.spring.framework.context.ApplicationContext;
+import com.cclucky.spring.framework.context.ContextSnapshotWriter;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DispatcherServletSnapshotTest {
+
+    private static final String CONFIG_LOCATION = "classpath:servlet-snapshot-test.properties";
+
+    private static File file;
+
+    @BeforeClass
+    public static void writeSnapshot() throws Exception {
+        // 与aot profile相同，但不指定MappedMethodDetector
+        File classes = new File(DispatcherServletSnapshotTest.class.getResource("/servlet-snapshot-test.properties").toURI())
+                .getParentFile();
+        file = new File(classes, "snapshot-test/cc-spring.snapshot");
+        ContextSnapshotWriter.main(new String[]{CONFIG_LOCATION, file.getPath()});
+    }
+
+    @AfterClass
+    public static void deleteSnapshot() {
+        file.delete();
+        file.getParentFile().delete();
+    }
+
+    @Test
+    public void detectsMappingsWhenSnapshotHasNone() throws Exception {
+        ApplicationContext context = new ApplicationContext(CONFIG_LOCATION);
+        assertNotNull(context.getSnapshot());
+        assertNull(context.getSnapshot().getMappedMethods());
+
+        DispatcherServlet servlet = ServletStubs.newServlet(CONFIG_LOCATION);
+        try {
+            ServletStubs.Exchange exchange = new ServletStubs.Exchange("/async/ok", true).param("name", "tom");
+            servlet.service(exchange.request, exchange.response);
+
+            assertTrue(exchange.completed.await(5, TimeUnit.SECONDS));
+            assertTrue(exchange.errors.isEmpty());
+            assertTrue(exchange.body(), exchange.body().contains("name : tom"));
+        } finally {
+            servlet.destroy();
+        }
+    }
+}
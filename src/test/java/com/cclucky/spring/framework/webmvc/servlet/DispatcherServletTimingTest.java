@@ -0,0 +1,37 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DispatcherServletTimingTest {
+
+    private static String greetAndReadMetrics(String configLocation) throws Exception {
+        DispatcherServlet servlet = ServletStubs.newServlet(configLocation);
+        try {
+            ServletStubs.Exchange greet = new ServletStubs.Exchange("/greet/hello", false).param("name", "tom");
+            servlet.service(greet.request, greet.response);
+            assertTrue(greet.body(), greet.body().contains("name : hello tom"));
+
+            ServletStubs.Exchange metrics = new ServletStubs.Exchange("/metrics", false);
+            servlet.service(metrics.request, metrics.response);
+            return metrics.body();
+        } finally {
+            servlet.destroy();
+        }
+    }
+
+    @Test
+    public void timingAspectRecordsByDefault() throws Exception {
+        String metrics = greetAndReadMetrics("classpath:servlet-timing-test.properties");
+        assertTrue(metrics, metrics.contains("GreetingService#greet 1 0 1 "));
+    }
+
+    // 抽样间隔从容器配置读取，0关闭计时切面
+    @Test
+    public void sampleIntervalIsReadFromConfig() throws Exception {
+        String metrics = greetAndReadMetrics("classpath:servlet-timing-off-test.properties");
+        assertFalse(metrics, metrics.contains("GreetingService#greet"));
+    }
+}
@@ -0,0 +1,157 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HandlerRouterTest {
+
+    private HandlerRouter router;
+    private HandlerMapping query;
+    private HandlerMapping queryAll;
+    private HandlerMapping wildcard;
+
+    public static class Controller {
+        public void handle() {
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        this.router = new HandlerRouter();
+        this.query = mapping("/test/query");
+        this.queryAll = mapping("/test/queryAll");
+        this.wildcard = mapping("/test/*");
+        this.router.register("/test/query", this.query);
+        this.router.register("/test/queryAll", this.queryAll);
+        this.router.register("/test/*", this.wildcard);
+    }
+
+    private static HandlerMapping mapping(String url) throws NoSuchMethodException {
+        return new HandlerMapping(Pattern.compile(url.replaceAll("\\*", ".*")), new Controller(),
+                Controller.class.getMethod("handle"));
+    }
+
+    @Test
+    public void routesExactPaths() {
+        assertSame(this.query, this.router.route("/test/query", ""));
+        assertSame(this.queryAll, this.router.route("/test/queryAll", ""));
+    }
+
+    @Test
+    public void exactMatchWinsOverWildcard() {
+        assertSame(this.query, this.router.route("/test/query", null));
+        assertSame(this.wildcard, this.router.route("/test/other", null));
+        assertSame(this.wildcard, this.router.route("/test/a/b", null));
+    }
+
+    @Test
+    public void stripsContextPathAndDuplicateSlashes() {
+        assertSame(this.query, this.router.route("/app/test/query", "/app"));
+        assertSame(this.query, this.router.route("//test//query", ""));
+        assertSame(this.query, this.router.route("/app//test///query", "/app"));
+    }
+
+    @Test
+    public void returnsNullWhenNothingMatches() {
+        assertNull(this.router.route("/nope", ""));
+        assertNull(this.router.route("/", ""));
+        assertNull(this.router.route("/test", ""));
+    }
+
+    @Test
+    public void trailingSlashDoesNotMatchExactPath() throws Exception {
+        HandlerMapping get = mapping("/demo/get");
+        this.router.register("/demo/get", get);
+        assertNull(this.router.route("/demo/get/", ""));
+        assertSame(get, this.router.route("/demo/get", ""));
+        // 通配映射的正则仍然可以匹配
+        assertSame(this.wildcard, this.router.route("/test/query/", ""));
+    }
+
+    @Test
+    public void rootPathMatchesRootMapping() throws Exception {
+        HandlerMapping root = mapping("/");
+        this.router.register("/", root);
+        assertSame(root, this.router.route("/", ""));
+    }
+
+    @Test
+    public void firstRegistrationWinsForDuplicatePaths() throws Exception {
+        this.router.register("/test/query", mapping("/test/query"));
+        assertSame(this.query, this.router.route("/test/query", ""));
+    }
+
+    @Test
+    public void normalizeReturnsCleanPathUnchanged() {
+        String uri = "/test/query";
+        assertSame(uri, HandlerRouter.normalize(uri, ""));
+        assertSame(uri, HandlerRouter.normalize(uri, null));
+    }
+
+    @Test
+    public void normalizeRemovesContextPathAndCollapsesSlashes() {
+        assertEquals("/test/query", HandlerRouter.normalize("/app/test/query", "/app"));
+        assertEquals("/test/query", HandlerRouter.normalize("//test//query", ""));
+        assertEquals("/a/b/", HandlerRouter.normalize("/ctx//a///b//", "/ctx"));
+        assertEquals("/other/x", HandlerRouter.normalize("/other/x", "/app"));
+    }
+
+    // 路由树的查找耗时与映射数量无关，对比按正则逐个匹配的写法
+    @Test
+    public void lookupCostStaysFlatAsMappingsGrow() throws Exception {
+        for (int size : new int[]{10, 100, 1000, 10000}) {
+            HandlerRouter router = new HandlerRouter();
+            List<HandlerMapping> mappings = new ArrayList<>();
+            String[] uris = new String[size];
+            for (int i = 0; i < size; i++) {
+                String url = "/service" + i + "/items/get";
+                HandlerMapping mapping = mapping(url);
+                router.register(url, mapping);
+                mappings.add(mapping);
+                uris[i] = url;
+            }
+
+            int lookups = 200000;
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < lookups; i++) {
+                    HandlerMapping mapping = router.route(uris[i % size], "");
+                    if (mapping == null) throw new AssertionError(uris[i % size]);
+                }
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            double routerNanos = (double) best / lookups;
+
+            // 逐个匹配的平均耗时随映射数量线性增长，次数按规模缩减，请求路径分散在所有映射中
+            int scans = Math.max(lookups / size, 100);
+            long scanStart = System.nanoTime();
+            for (int i = 0; i < scans; i++) {
+                String uri = uris[(int) ((long) i * 7919 % size)];
+                HandlerMapping found = null;
+                for (HandlerMapping mapping : mappings) {
+                    if (mapping.getPattern().matcher(uri).matches()) {
+                        found = mapping;
+                        break;
+                    }
+                }
+                assertSame(router.route(uri, ""), found);
+            }
+            double scanNanos = (double) (System.nanoTime() - scanStart) / scans;
+
+            System.out.println(String.format(Locale.ROOT, "HandlerRouter %5d mappings: router %8.1f ns/op, linear scan %10.1f ns/op",
+                    size, routerNanos, scanNanos));
+            if (size == 10000) assertTrue(routerNanos < scanNanos);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResponseBufferPoolTest {
+
+    private static final int FLUSH_THRESHOLD = 32;
+
+    private File templateFile;
+
+    @Before
+    public void createTemplate() throws IOException {
+        this.templateFile = File.createTempFile("page", ".html");
+        Files.write(this.templateFile.toPath(), "<div>￥{body}</div>".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void deleteTemplate() {
+        this.templateFile.delete();
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    @Test
+    public void bufferReturnsToPoolAfterResponseLargerThanThreshold() throws IOException {
+        ResponseBufferPool pool = new ResponseBufferPool(FLUSH_THRESHOLD, 1);
+        ResponseBuffer buffer = pool.acquire(new ByteArrayOutputStream());
+        pool.release(buffer);
+
+        View view = new View(this.templateFile, pool, null, 0);
+        String body = repeat('x', FLUSH_THRESHOLD * 10);
+        ServletStubs.Exchange exchange = new ServletStubs.Exchange("/", false);
+        view.render(Collections.singletonMap("body", body), exchange.request, exchange.response);
+
+        assertEquals("<div>" + body + "</div>", exchange.body());
+        assertSame(buffer, pool.acquire(new ByteArrayOutputStream()));
+    }
+
+    // 超过阈值的页面分多次写出，每次不超过缓冲区大小
+    @Test
+    public void flushesAtThreshold() throws IOException {
+        final List<Integer> writes = new ArrayList<>();
+        OutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                writes.add(len);
+                super.write(b, off, len);
+            }
+        };
+        ResponseBufferPool pool = new ResponseBufferPool(FLUSH_THRESHOLD, 1);
+        ResponseBuffer buffer = pool.acquire(out);
+        buffer.write(repeat('y', FLUSH_THRESHOLD * 4 + 5));
+        buffer.flush();
+        pool.release(buffer);
+
+        assertTrue(writes.toString(), writes.size() > 4);
+        int total = 0;
+        for (int length : writes) {
+            assertTrue(writes.toString(), length <= FLUSH_THRESHOLD);
+            total += length;
+        }
+        assertEquals(FLUSH_THRESHOLD * 4 + 5, total);
+    }
+
+    @Test
+    public void bufferReturnsToPoolWhenWriteFails() throws IOException {
+        ResponseBufferPool pool = new ResponseBufferPool(FLUSH_THRESHOLD, 1);
+        ResponseBuffer buffer = pool.acquire(new ByteArrayOutputStream());
+        pool.release(buffer);
+
+        View view = new View(this.templateFile, pool, null, 0);
+        ServletStubs.Exchange exchange = new ServletStubs.Exchange("/", false);
+        exchange.failWrites = true;
+        try {
+            view.render(Collections.singletonMap("body", repeat('z', FLUSH_THRESHOLD * 2)), exchange.request, exchange.response);
+            fail();
+        } catch (IOException expected) {
+        }
+        assertSame(buffer, pool.acquire(new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void fullPoolDropsExtraBuffers() {
+        ResponseBufferPool pool = new ResponseBufferPool(FLUSH_THRESHOLD, 1);
+        ResponseBuffer first = pool.acquire(new ByteArrayOutputStream());
+        ResponseBuffer second = pool.acquire(new ByteArrayOutputStream());
+        assertNotSame(first, second);
+        pool.release(first);
+        pool.release(second);
+
+        assertSame(first, pool.acquire(new ByteArrayOutputStream()));
+        assertNotSame(second, pool.acquire(new ByteArrayOutputStream()));
+    }
+}
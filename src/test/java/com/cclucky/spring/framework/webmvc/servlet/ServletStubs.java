@@ -0,0 +1,147 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 测试用的Servlet容器替身：用动态代理实现请求、响应和AsyncContext，只记录测试关心的调用
+ */
+class ServletStubs {
+
+    static DispatcherServlet newServlet(final String configLocation) {
+        DispatcherServlet servlet = new DispatcherServlet();
+        servlet.init(proxy(ServletConfig.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ("getInitParameter".equals(method.getName())) {
+                    return "contextConfigLocation".equals(args[0]) ? configLocation : null;
+                }
+                if ("getInitParameterNames".equals(method.getName())) {
+                    return Collections.enumeration(Collections.singletonList("contextConfigLocation"));
+                }
+                return null;
+            }
+        }));
+        return servlet;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ServletStubs.class.getClassLoader(), new Class[]{type}, handler);
+    }
+
+    static class Exchange {
+        final Map<String, String[]> parameters = new HashMap<>();
+        final boolean asyncSupported;
+        final HttpServletRequest request;
+        final HttpServletResponse response;
+        final AsyncContext asyncContext;
+
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final List<Integer> errors = Collections.synchronizedList(new ArrayList<Integer>());
+        final List<AsyncListener> listeners = Collections.synchronizedList(new ArrayList<AsyncListener>());
+        final CountDownLatch completed = new CountDownLatch(1);
+        volatile int completeCount;
+        // 第一次complete的System.nanoTime()
+        volatile long completedAt;
+        volatile boolean asyncStarted;
+        // 模拟客户端断开，写响应时抛出IOException
+        volatile boolean failWrites;
+
+        Exchange(final String uri, boolean asyncSupported) {
+            this.asyncSupported = asyncSupported;
+            final ServletOutputStream out = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    if (failWrites) throw new IOException("Broken pipe");
+                    body.write(b);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                }
+            };
+            this.asyncContext = proxy(AsyncContext.class, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    String name = method.getName();
+                    if ("getRequest".equals(name)) return request;
+                    if ("getResponse".equals(name)) return response;
+                    if ("addListener".equals(name)) listeners.add((AsyncListener) args[0]);
+                    if ("complete".equals(name)) {
+                        if (completeCount == 0) completedAt = System.nanoTime();
+                        completeCount++;
+                        completed.countDown();
+                    }
+                    return null;
+                }
+            });
+            this.request = proxy(HttpServletRequest.class, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    String name = method.getName();
+                    if ("getRequestURI".equals(name)) return uri;
+                    if ("getContextPath".equals(name)) return "";
+                    if ("getMethod".equals(name)) return "GET";
+                    if ("getParameterMap".equals(name)) return parameters;
+                    if ("getParameterValues".equals(name)) return parameters.get(args[0]);
+                    if ("getParameter".equals(name)) {
+                        String[] values = parameters.get(args[0]);
+                        return values == null ? null : values[0];
+                    }
+                    if ("isAsyncSupported".equals(name)) return Exchange.this.asyncSupported;
+                    if ("startAsync".equals(name)) {
+                        asyncStarted = true;
+                        return asyncContext;
+                    }
+                    if ("hashCode".equals(name)) return System.identityHashCode(proxy);
+                    if ("equals".equals(name)) return proxy == args[0];
+                    return null;
+                }
+            });
+            this.response = proxy(HttpServletResponse.class, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    String name = method.getName();
+                    if ("getOutputStream".equals(name)) return out;
+                    if ("sendError".equals(name)) errors.add((Integer) args[0]);
+                    if ("isCommitted".equals(name)) return false;
+                    if ("hashCode".equals(name)) return System.identityHashCode(proxy);
+                    if ("equals".equals(name)) return proxy == args[0];
+                    return null;
+                }
+            });
+        }
+
+        Exchange param(String name, String value) {
+            this.parameters.put(name, new String[]{value});
+            return this;
+        }
+
+        String body() {
+            return new String(this.body.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TemplateTest {
+
+    private static String render(String source, Map<String, ?> model, int bufferSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResponseBuffer buffer = new ResponseBuffer(bufferSize);
+        buffer.bind(out);
+        Template.compile(source).render(model, buffer);
+        buffer.flush();
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String render(String source, Map<String, ?> model) throws IOException {
+        return render(source, model, ResponseBufferPool.DEFAULT_BUFFER_SIZE);
+    }
+
+    private static Map<String, Object> model(Object... keyValues) {
+        Map<String, Object> model = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            model.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return model;
+    }
+
+    @Test
+    public void replacesPlaceholders() throws IOException {
+        assertEquals("<h3>name : tom</h3><p>42</p>",
+                render("<h3>name : ￥{name}</h3><p>￥{age}</p>", model("name", "tom", "age", 42)));
+    }
+
+    @Test
+    public void missingValuesRenderAsEmpty() throws IOException {
+        assertEquals("a  b", render("a ￥{missing} b", model()));
+        assertEquals("a  b", render("a ￥{missing} b", null));
+    }
+
+    @Test
+    public void valuesAreWrittenVerbatim() throws IOException {
+        // 值中的正则替换符号和占位符都不再解析
+        assertEquals("[$1 \\ ￥{name}]", render("[￥{value}]", model("value", "$1 \\ ￥{name}", "name", "tom")));
+    }
+
+    @Test
+    public void malformedPlaceholdersStayLiteral() throws IOException {
+        assertEquals("￥{} x", render("￥{} ￥{name}", model("name", "x")));
+        assertEquals("￥{na\nme}", render("￥{na\nme}", model("na\nme", "x")));
+        assertEquals("tail ￥{open", render("tail ￥{open", model("open", "x")));
+    }
+
+    @Test
+    public void encodesUtf8AcrossBufferBoundaries() throws IOException {
+        String value = "中文😀é" + new String(new char[]{'\uD800'}) + "end";
+        String expected = "中文😀é?end";
+        assertEquals("<" + expected + ">", render("<￥{v}>", model("v", value), 16));
+        assertEquals("模板-" + expected, render("模板-￥{v}", model("v", value), 16));
+    }
+
+    @Test
+    public void valuesOfReturnsPlaceholderValuesInOrder() {
+        Template template = Template.compile("￥{b}-￥{a}-￥{b}");
+        assertArrayEquals(new String[]{"2", "1", "2"}, template.valuesOf(model("a", 1, "b", 2, "c", 3)));
+        assertArrayEquals(new String[]{null, null, null}, template.valuesOf(null));
+    }
+}
@@ -0,0 +1,117 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ViewOutputCacheTest {
+
+    private static final long TTL = 60000;
+
+    private File templateFile;
+    private View view;
+    private View otherView;
+
+    @Before
+    public void createViews() throws IOException {
+        this.templateFile = File.createTempFile("view", ".html");
+        Files.write(this.templateFile.toPath(), "<p>￥{name}</p>".getBytes(StandardCharsets.UTF_8));
+        ResponseBufferPool pool = new ResponseBufferPool(64, 1);
+        this.view = new View(this.templateFile, pool, null, 0);
+        this.otherView = new View(this.templateFile, pool, null, 0);
+    }
+
+    @After
+    public void deleteTemplate() {
+        this.templateFile.delete();
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void returnsStoredBodyForSameViewAndValues() {
+        ViewOutputCache cache = new ViewOutputCache(8);
+        cache.put(this.view, new String[]{"tom"}, bytes("<p>tom</p>"), TTL);
+
+        assertArrayEquals(bytes("<p>tom</p>"), cache.get(this.view, new String[]{"tom"}));
+        assertNull(cache.get(this.view, new String[]{"jerry"}));
+        // 同一个模板编译出的另一个View不共用条目
+        assertNull(cache.get(this.otherView, new String[]{"tom"}));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedEntry() {
+        ViewOutputCache cache = new ViewOutputCache(2);
+        cache.put(this.view, new String[]{"a"}, bytes("a"), TTL);
+        cache.put(this.view, new String[]{"b"}, bytes("b"), TTL);
+        // 访问a之后b成为最久未使用的条目
+        assertNotNull(cache.get(this.view, new String[]{"a"}));
+        cache.put(this.view, new String[]{"c"}, bytes("c"), TTL);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get(this.view, new String[]{"b"}));
+        assertNotNull(cache.get(this.view, new String[]{"a"}));
+        assertNotNull(cache.get(this.view, new String[]{"c"}));
+    }
+
+    @Test
+    public void expiresEntriesAfterTtl() throws InterruptedException {
+        ViewOutputCache cache = new ViewOutputCache(8);
+        cache.put(this.view, new String[]{"short"}, bytes("short"), 20);
+        cache.put(this.view, new String[]{"long"}, bytes("long"), TTL);
+        assertNotNull(cache.get(this.view, new String[]{"short"}));
+
+        Thread.sleep(50);
+
+        assertNull(cache.get(this.view, new String[]{"short"}));
+        assertNotNull(cache.get(this.view, new String[]{"long"}));
+        // 过期的条目在读取时移除
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void invalidateRemovesOnlyEntriesOfThatView() {
+        ViewOutputCache cache = new ViewOutputCache(8);
+        cache.put(this.view, new String[]{"a"}, bytes("a"), TTL);
+        cache.put(this.view, new String[]{"b"}, bytes("b"), TTL);
+        cache.put(this.otherView, new String[]{"a"}, bytes("a"), TTL);
+
+        cache.invalidate(this.view);
+
+        assertEquals(1, cache.size());
+        assertNull(cache.get(this.view, new String[]{"a"}));
+        assertNotNull(cache.get(this.otherView, new String[]{"a"}));
+    }
+
+    // 开启缓存的视图第二次渲染直接写出缓存的字节
+    @Test
+    public void viewRendersFromCache() throws IOException {
+        ViewOutputCache cache = new ViewOutputCache(8);
+        View cached = new View(this.templateFile, new ResponseBufferPool(64, 1), cache, TTL);
+
+        for (int i = 0; i < 2; i++) {
+            ServletStubs.Exchange exchange = new ServletStubs.Exchange("/", false);
+            cached.render(Collections.singletonMap("name", "tom"), exchange.request, exchange.response);
+            assertEquals("<p>tom</p>", exchange.body());
+        }
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+}
@@ -0,0 +1,202 @@
+package com.cclucky.spring.framework.webmvc.servlet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ViewRegistryTest {
+
+    private static final Map<String, String> MODEL = Collections.singletonMap("name", "tom");
+
+    // ViewResolver从classpath查找模板目录，测试时在test-classes下创建
+    private String templateRoot;
+    private File templateRootDir;
+    private ResponseBufferPool pool;
+    private ViewOutputCache cache;
+
+    @Before
+    public void createTemplateRoot() throws Exception {
+        File classes = new File(ViewRegistryTest.class.getResource("/").toURI());
+        this.templateRoot = "view-registry-test-" + System.nanoTime();
+        this.templateRootDir = new File(classes, this.templateRoot);
+        assertTrue(this.templateRootDir.mkdirs());
+        this.pool = new ResponseBufferPool(64, 4);
+        this.cache = new ViewOutputCache(16);
+    }
+
+    @After
+    public void deleteTemplateRoot() {
+        File[] files = this.templateRootDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.templateRootDir.delete();
+    }
+
+    private File write(String fileName, String content) throws IOException {
+        File file = new File(this.templateRootDir, fileName);
+        // 保证修改时间与上一次不同，不依赖文件系统的时间精度
+        long lastModified = file.exists() ? file.lastModified() + 2000 : System.currentTimeMillis() - 10000;
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        assertTrue(file.setLastModified(lastModified));
+        return file;
+    }
+
+    private ViewRegistry registry(String... fileNames) throws IOException {
+        List<ViewResolver> resolvers = new ArrayList<>();
+        for (String fileName : fileNames) {
+            resolvers.add(new ViewResolver(this.templateRoot, fileName, this.pool, this.cache, 60000));
+        }
+        return new ViewRegistry(resolvers, new ViewResolverFactory() {
+            @Override
+            public ViewResolver create(String fileName) throws IOException {
+                if (!new File(templateRootDir, fileName).isFile()) return null;
+                return new ViewResolver(templateRoot, fileName, pool, cache, 60000);
+            }
+        });
+    }
+
+    private static String render(View view) throws IOException {
+        ServletStubs.Exchange exchange = new ServletStubs.Exchange("/", false);
+        view.render(MODEL, exchange.request, exchange.response);
+        return exchange.body();
+    }
+
+    @Test
+    public void reloadReplacesViewAndInvalidatesCachedOutput() throws IOException {
+        write("page.html", "<p>old ￥{name}</p>");
+        ViewRegistry registry = registry("page.html");
+        View old = registry.resolve("page");
+        assertEquals("<p>old tom</p>", render(old));
+        assertEquals(1, this.cache.size());
+
+        // 没有修改过的模板不重新编译
+        assertFalse(registry.reload("page.html"));
+        assertSame(old, registry.resolve("page"));
+
+        write("page.html", "<p>new ￥{name}</p>");
+        assertTrue(registry.reload("page.html"));
+
+        View reloaded = registry.resolve("page");
+        assertNotSame(old, reloaded);
+        assertSame(reloaded, registry.resolve("page.html"));
+        assertEquals(0, this.cache.size());
+        assertEquals("<p>new tom</p>", render(reloaded));
+        // 仍持有旧视图的请求看到的是旧模板
+        assertEquals("<p>old tom</p>", render(old));
+    }
+
+    @Test
+    public void reloadRegistersNewTemplate() throws IOException {
+        write("page.html", "<p>￥{name}</p>");
+        ViewRegistry registry = registry("page.html");
+        assertNull(registry.resolve("added"));
+
+        write("added.html", "<p>added ￥{name}</p>");
+        // 不是模板的文件不登记
+        write("added.html~", "backup");
+        assertFalse(registry.reload("added.html~"));
+        assertTrue(registry.reload("added.html"));
+
+        assertEquals("<p>added tom</p>", render(registry.resolve("added")));
+    }
+
+    @Test
+    public void templateReloaderPicksUpModifiedTemplate() throws Exception {
+        write("page.html", "<p>old ￥{name}</p>");
+        ViewRegistry registry = registry("page.html");
+        View old = registry.resolve("page");
+        render(old);
+
+        TemplateReloader reloader = new TemplateReloader(this.templateRootDir, registry);
+        reloader.start();
+        try {
+            // 与编辑器一样先写临时文件再改名，避免读到写了一半的模板
+            File temp = new File(this.templateRootDir.getParentFile(), this.templateRoot + ".tmp");
+            Files.write(temp.toPath(), "<p>new ￥{name}</p>".getBytes(StandardCharsets.UTF_8));
+            assertTrue(temp.setLastModified(old.getViewFile().lastModified() + 2000));
+            Files.move(temp.toPath(), new File(this.templateRootDir, "page.html").toPath(), StandardCopyOption.ATOMIC_MOVE);
+            long deadline = System.currentTimeMillis() + 10000;
+            while (registry.resolve("page") == old && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertNotSame(old, registry.resolve("page"));
+            assertEquals("<p>new tom</p>", render(registry.resolve("page")));
+        } finally {
+            reloader.close();
+        }
+    }
+
+    // 一次哈希查找返回启动时编译好的View，对比逐个比较视图名并为每次请求新建File和View路径的写法
+    @Test
+    public void resolveCostDoesNotDependOnViewCount() throws IOException {
+        for (int size : new int[]{10, 100, 1000}) {
+            String[] fileNames = new String[size];
+            String[] viewNames = new String[size];
+            for (int i = 0; i < size; i++) {
+                fileNames[i] = "page" + size + "-" + i + ".html";
+                viewNames[i] = "page" + size + "-" + i;
+                write(fileNames[i], "<p>￥{name}</p>");
+            }
+            ViewRegistry registry = registry(fileNames);
+            List<ViewResolver> resolvers = new ArrayList<>();
+            for (String fileName : fileNames) {
+                resolvers.add(new ViewResolver(this.templateRoot, fileName, this.pool, this.cache, 60000));
+            }
+            View first = registry.resolve(viewNames[0]);
+
+            int lookups = 200000;
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < lookups; i++) {
+                    if (registry.resolve(viewNames[i % size]) == null) throw new AssertionError(viewNames[i % size]);
+                }
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            // 每次返回同一个View实例
+            assertSame(first, registry.resolve(viewNames[0]));
+
+            int scans = Math.max(lookups / size, 1000);
+            long bestScan = Long.MAX_VALUE;
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < scans; i++) {
+                    String viewName = viewNames[(int) ((long) i * 7919 % size)];
+                    File found = null;
+                    for (ViewResolver resolver : resolvers) {
+                        if (!viewName.equals(resolver.getName())) continue;
+                        String path = ("/" + viewName + ViewResolver.DEFAULT_TEMPLATE_SUFFIX).replaceAll("/+", "/");
+                        found = new File(this.templateRootDir, path);
+                    }
+                    if (found == null) throw new AssertionError(viewName);
+                }
+                bestScan = Math.min(bestScan, System.nanoTime() - start);
+            }
+            double scanNanos = (double) bestScan / scans;
+
+            System.out.println(String.format(Locale.ROOT, "ViewRegistry %4d views: resolve %6.1f ns/op, linear scan %9.1f ns/op",
+                    size, (double) best / lookups, scanNanos));
+        }
+    }
+}
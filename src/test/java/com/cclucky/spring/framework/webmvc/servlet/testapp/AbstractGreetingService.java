@@ -0,0 +1,9 @@
+package com.cclucky.spring.framework.webmvc.servlet.testapp;
+
+// 不是组件，只作为GreetingService的父类
+public abstract class AbstractGreetingService implements Greeter {
+
+    protected String prefix() {
+        return "hello ";
+    }
+}
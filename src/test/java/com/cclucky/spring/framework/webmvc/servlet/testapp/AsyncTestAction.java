@@ -0,0 +1,28 @@
+package com.cclucky.spring.framework.webmvc.servlet.testapp;
+
+import com.cclucky.spring.framework.annotation.Controller;
+import com.cclucky.spring.framework.annotation.RequestMapping;
+import com.cclucky.spring.framework.annotation.RequestParam;
+import com.cclucky.spring.framework.webmvc.servlet.ModelAndView;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@Controller
+@RequestMapping("/async")
+public class AsyncTestAction {
+
+    @RequestMapping("/ok")
+    public CompletableFuture<ModelAndView> ok(@RequestParam("name") String name) {
+        Map<String, Object> model = new HashMap<>();
+        model.put("name", name);
+        return CompletableFuture.completedFuture(new ModelAndView("index", model));
+    }
+
+    // 返回CompletionStage之前就抛出异常
+    @RequestMapping("/fail")
+    public CompletableFuture<ModelAndView> fail(@RequestParam("name") String name) {
+        throw new IllegalStateException("failed before returning a future: " + name);
+    }
+}
@@ -0,0 +1,23 @@
+package com.cclucky.spring.framework.webmvc.servlet.testapp;
+
+import com.cclucky.spring.framework.annotation.Controller;
+import com.cclucky.spring.framework.annotation.RequestMapping;
+import com.cclucky.spring.framework.annotation.RequestParam;
+import com.cclucky.spring.framework.webmvc.servlet.ModelAndView;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// 模拟阻塞I/O的Handler
+@Controller
+@RequestMapping("/blocking")
+public class BlockingTestAction {
+
+    @RequestMapping("/sleep")
+    public ModelAndView sleep(@RequestParam("name") String name, @RequestParam("millis") long millis) throws InterruptedException {
+        Thread.sleep(millis);
+        Map<String, Object> model = new HashMap<>();
+        model.put("name", name);
+        return new ModelAndView("index", model);
+    }
+}
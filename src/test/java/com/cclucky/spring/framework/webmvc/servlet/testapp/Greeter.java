@@ -0,0 +1,6 @@
+package com.cclucky.spring.framework.webmvc.servlet.testapp;
+
+public interface Greeter {
+
+    String greet(String name);
+}
@@ -0,0 +1,25 @@
+package com.cclucky.spring.framework.webmvc.servlet.testapp;
+
+import com.cclucky.spring.framework.annotation.Autowired;
+import com.cclucky.spring.framework.annotation.Controller;
+import com.cclucky.spring.framework.annotation.RequestMapping;
+import com.cclucky.spring.framework.annotation.RequestParam;
+import com.cclucky.spring.framework.webmvc.servlet.ModelAndView;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Controller
+@RequestMapping("/greet")
+public class GreetingAction {
+
+    @Autowired
+    private Greeter greeter;
+
+    @RequestMapping("/hello")
+    public ModelAndView hello(@RequestParam("name") String name) {
+        Map<String, Object> model = new HashMap<>();
+        model.put("name", this.greeter.greet(name));
+        return new ModelAndView("index", model);
+    }
+}
@@ -0,0 +1,12 @@
+package com.cclucky.spring.framework.webmvc.servlet.testapp;
+
+import com.cclucky.spring.framework.annotation.Service;
+
+@Service
+public class GreetingService extends AbstractGreetingService implements Greeter {
+
+    @Override
+    public String greet(String name) {
+        return prefix() + name;
+    }
+}
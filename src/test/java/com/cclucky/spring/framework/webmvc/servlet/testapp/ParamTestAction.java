@@ -0,0 +1,31 @@
+package com.cclucky.spring.framework.webmvc.servlet.testapp;
+
+import com.cclucky.spring.framework.annotation.Controller;
+import com.cclucky.spring.framework.annotation.RequestMapping;
+import com.cclucky.spring.framework.annotation.RequestParam;
+import com.cclucky.spring.framework.webmvc.servlet.ModelAndView;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@Controller
+@RequestMapping("/params")
+public class ParamTestAction {
+
+    @RequestMapping("/typed")
+    public ModelAndView typed(@RequestParam("id") int id, @RequestParam("ratio") Double ratio) {
+        return view(id + "/" + ratio);
+    }
+
+    @RequestMapping("/typedAsync")
+    public CompletableFuture<ModelAndView> typedAsync(@RequestParam("id") long id) {
+        return CompletableFuture.completedFuture(view(String.valueOf(id)));
+    }
+
+    private static ModelAndView view(String name) {
+        Map<String, Object> model = new HashMap<>();
+        model.put("name", name);
+        return new ModelAndView("index", model);
+    }
+}